@@ -17,15 +17,19 @@ package blade.cache;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 /**
  * 
  * <p>
- * 抽象缓存基础实现
+ * 抽象缓存基础实现，除了按对象个数(cacheSize)限制容量，还可以设置{@link Weigher}和最大权重(maxWeight)，
+ * 按估算的内存占用淘汰，普通缓存和hash类型缓存的每个field都计入权重
  * </p>
  *
  * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
@@ -73,6 +77,30 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
 	 * 是否设置默认过期时间
 	 */
 	protected  boolean existCustomExpire;
+	
+	/**
+	 * 最大权重, 0 -> 无限制
+	 */
+	protected long maxWeight;
+	
+	/**
+	 * 权重计算，默认每个对象权重为1
+	 */
+	protected Weigher<? super K, ? super V> weigher = (Weigher<? super K, ? super V>) SINGLETON_WEIGHER;
+	
+	/**
+	 * 普通缓存和hash类型缓存的当前权重，读操作删除过期对象时也会修改
+	 */
+	private final AtomicLong mWeight = new AtomicLong();
+	
+	private final AtomicLong hWeight = new AtomicLong();
+	
+	private static final Weigher<Object, Object> SINGLETON_WEIGHER = new Weigher<Object, Object>() {
+		@Override
+		public int weigh(Object key, Object value) {
+			return 1;
+		}
+	};
 
 	/**
      * 淘汰对象具体实现
@@ -87,7 +115,8 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
 	public AbstractCache(int cacheSize) {
 		this.cacheSize	= cacheSize;
 		this._mCache	= Collections.synchronizedMap(new HashMap<K, CacheObject<K, V>>());
-		this._hCache	= Collections.synchronizedMap(new HashMap<K, Map<?, CacheObject<K, V>>>());
+		// hash类型缓存的key和field都按访问顺序排列，按权重淘汰时从最久没有访问的field开始
+		this._hCache	= Collections.synchronizedMap(new LinkedHashMap<K, Map<?, CacheObject<K, V>>>(16, 0.75f, true));
 	}
 	
 	/**
@@ -104,13 +133,16 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
 		writeLock.lock();
 		try {
             CacheObject<K,V> co = new CacheObject<K,V>(key, value, expire);
+            co.setWeight(weigh(key, value));
             if (expire != 0) {
                 existCustomExpire = true;
             }
-            if (isFull()) {
+            if (isCountFull()) {
                 eliminate() ;
             }
-            _mCache.put(key, co);
+            mWeight.addAndGet(co.getWeight());
+            onRemove(_mCache.put(key, co));
+            evictOverweight(key, null, null);
         }
         finally {
             writeLock.unlock();
@@ -131,22 +163,25 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
 		writeLock.lock();
 		try {
 			CacheObject<K, V> co = new CacheObject<K, V>(key, value, expire);
+			co.setWeight(weigh(key, value));
 			
 			if(expire != 0){
 				existCustomExpire = true;
 			}
 			
-			if(isFull()){
+			if(isCountFull()){
 				eliminate() ;
 			}
 			
 			Map<F, CacheObject<K, V>> coMap = (Map<F, CacheObject<K, V>>) _hCache.get(key);
 			if(null == coMap){
-				coMap = new HashMap<F, CacheObject<K,V>>();
+				coMap = Collections.synchronizedMap(new LinkedHashMap<F, CacheObject<K,V>>(16, 0.75f, true));
 			}
-			coMap.put(field, co);
+			hWeight.addAndGet(co.getWeight());
+			onRemoveField(coMap.put(field, co));
 			
 			_hCache.put(key, coMap);
+			evictOverweight(null, key, field);
         }
         finally {
             writeLock.unlock();
@@ -165,7 +200,9 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
                 return null;
             }
             if (co.isExpired() == true) {
-            	_mCache.remove(key);
+            	if (_mCache.remove(key) == co) {
+            		onRemove(co);
+            	}
                 return null;
             }
             return co.getValue();
@@ -193,7 +230,9 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
         	}
         	
 			if (co.isExpired() == true) {
-				coMap.remove(field);
+				if (coMap.remove(field) == co) {
+					onRemoveField(co);
+				}
 				return null;
 			}
 			
@@ -209,7 +248,7 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
 	public void del(K key) {
 		writeLock.lock();
         try {
-            _mCache.remove(key);
+            onRemove(_mCache.remove(key));
         } finally {
             writeLock.unlock();
         }
@@ -221,7 +260,7 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
 	public void hdel(K key) {
 		writeLock.lock();
         try {
-        	_hCache.remove(key);
+        	removeHash(key);
         } finally {
             writeLock.unlock();
         }
@@ -235,7 +274,7 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
         try {
         	Map<?, CacheObject<K, V>> coMap = _hCache.get(key);
         	if(null != coMap){
-        		coMap.remove(feild);
+        		onRemoveField(coMap.remove(feild));
         	}
         } finally {
             writeLock.unlock();
@@ -281,6 +320,16 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
 
 	@Override
 	public boolean isFull() {
+		if (maxWeight > 0 && weight() >= maxWeight) {
+			return true;
+		}
+		return isCountFull();
+	}
+	
+	/**
+	 * 是否达到最大缓存数，只有这时写入前才调用{@link #eliminate()}，超过权重由写入后按权重淘汰处理
+	 */
+	private boolean isCountFull() {
 		if (cacheSize == 0) {// o -> 无限制
 			return false;
 		}
@@ -292,6 +341,9 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
 		writeLock.lock();
         try {
         	_mCache.clear();
+        	_hCache.clear();
+        	mWeight.set(0);
+        	hWeight.set(0);
         } finally {
             writeLock.unlock();
         }
@@ -319,4 +371,177 @@ public abstract class AbstractCache<K, V> implements Cache<K, V> {
 		return this;
 	}
 	
+	/**
+	 * 设置最大权重，超过后按淘汰策略淘汰对象
+	 * @param maxWeight	最大权重，0为不限制
+	 * @return
+	 */
+	public Cache<K, V> maxWeight(long maxWeight) {
+		if (maxWeight < 0) {
+			throw new IllegalArgumentException();
+		}
+		writeLock.lock();
+		try {
+			this.maxWeight = maxWeight;
+			evictOverweight(null, null, null);
+		} finally {
+			writeLock.unlock();
+		}
+		return this;
+	}
+	
+	/**
+	 * 设置权重计算，只影响之后放入的对象，应该在使用前设置
+	 * @param weigher
+	 * @return
+	 */
+	public Cache<K, V> weigher(Weigher<? super K, ? super V> weigher) {
+		if (null == weigher) {
+			throw new NullPointerException("weigher is null");
+		}
+		this.weigher = weigher;
+		return this;
+	}
+	
+	/**
+	 * @return	返回当前总权重
+	 */
+	public long weight() {
+		return mWeight.get() + hWeight.get();
+	}
+	
+	/**
+	 * @return	返回缓存的统计快照
+	 */
+	public CacheStats stats() {
+		readLock.lock();
+		try {
+			int fieldCount = 0;
+			synchronized (_hCache) {
+				for (Map<?, CacheObject<K, V>> coMap : _hCache.values()) {
+					fieldCount += coMap.size();
+				}
+			}
+			return new CacheStats(size(), fieldCount, weight(), maxWeight, cacheSize);
+		} finally {
+			readLock.unlock();
+		}
+	}
+	
+	/**
+	 * 子类从_mCache中删除对象后调用，扣除权重
+	 * @param co	被删除的对象，为null时不处理
+	 */
+	protected void onRemove(CacheObject<K, V> co) {
+		if (null != co) {
+			mWeight.addAndGet(-co.getWeight());
+		}
+	}
+	
+	/**
+	 * 选出下一个要淘汰的key，默认是_mCache迭代顺序的第一个，
+	 * LRU为最久没有访问的，子类可以按自己的策略覆盖
+	 * @param protect	正在写入的key，不能被淘汰，可以为null
+	 * @return	返回要淘汰的key，没有时返回null
+	 */
+	protected K victim(K protect) {
+		synchronized (_mCache) {
+			for (K key : _mCache.keySet()) {
+				if (null == protect || !protect.equals(key)) {
+					return key;
+				}
+			}
+			return null;
+		}
+	}
+	
+	private void onRemoveField(CacheObject<K, V> co) {
+		if (null != co) {
+			hWeight.addAndGet(-co.getWeight());
+		}
+	}
+	
+	private void removeHash(K key) {
+		Map<?, CacheObject<K, V>> coMap = _hCache.remove(key);
+		if (null != coMap) {
+			for (CacheObject<K, V> co : coMap.values()) {
+				onRemoveField(co);
+			}
+		}
+	}
+	
+	/**
+	 * 超过最大权重时从权重较大的一边淘汰，一边没有可淘汰的对象时淘汰另一边。
+	 * 普通缓存按{@link #victim(Object)}淘汰，hash类型缓存按访问顺序逐个淘汰field，
+	 * 正在写入的对象不会被淘汰
+	 * 
+	 * @param key		正在写入的普通缓存key
+	 * @param hashKey	正在写入的hash类型缓存key
+	 * @param field		正在写入的field
+	 */
+	private void evictOverweight(K key, K hashKey, Object field) {
+		if (maxWeight <= 0) {
+			return;
+		}
+		while (weight() > maxWeight) {
+			boolean evicted;
+			if (hWeight.get() > mWeight.get()) {
+				evicted = evictField(hashKey, field) || evictEntry(key);
+			} else {
+				evicted = evictEntry(key) || evictField(hashKey, field);
+			}
+			if (!evicted) {
+				return;
+			}
+		}
+	}
+	
+	private boolean evictEntry(K protect) {
+		K victim = victim(protect);
+		CacheObject<K, V> co = null == victim ? null : _mCache.remove(victim);
+		if (null == co) {
+			return false;
+		}
+		onRemove(co);
+		return true;
+	}
+	
+	/**
+	 * 淘汰最久没有访问的hash key中最久没有访问的field，key的field都淘汰后删除key
+	 */
+	private boolean evictField(K hashKey, Object field) {
+		synchronized (_hCache) {
+			Iterator<Map.Entry<K, Map<?, CacheObject<K, V>>>> keys = _hCache.entrySet().iterator();
+			while (keys.hasNext()) {
+				Map.Entry<K, Map<?, CacheObject<K, V>>> entry = keys.next();
+				boolean current = null != hashKey && hashKey.equals(entry.getKey());
+				Map<?, CacheObject<K, V>> coMap = entry.getValue();
+				synchronized (coMap) {
+					Iterator<? extends Map.Entry<?, CacheObject<K, V>>> fields = coMap.entrySet().iterator();
+					while (fields.hasNext()) {
+						Map.Entry<?, CacheObject<K, V>> victim = fields.next();
+						if (current && field.equals(victim.getKey())) {
+							continue;
+						}
+						fields.remove();
+						onRemoveField(victim.getValue());
+						if (coMap.isEmpty()) {
+							keys.remove();
+						}
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+	}
+	
+	private int weigh(K key, V value) {
+		int weight = weigher.weigh(key, value);
+		if (weight < 0) {
+			throw new IllegalArgumentException("weight is negative: " + weight);
+		}
+		return weight;
+	}
+	
 }
\ No newline at end of file
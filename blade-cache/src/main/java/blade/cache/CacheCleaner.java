@@ -31,12 +31,12 @@ public class CacheCleaner<K, V> extends Thread {
 	/**
 	 * 清理间隔
 	 */
-	private long _cleanInterval;
+	private volatile long _cleanInterval;
 	
 	/**
 	 * 是不是在睡眠中
 	 */
-	private boolean _sleep = false;
+	private volatile boolean _sleep = false;
 	
 	/**
 	 * 设置清理间隔并初始化
@@ -71,8 +71,11 @@ public class CacheCleaner<K, V> extends Thread {
 		while (true) {
 			try {
 				try {
+					_sleep = true;
 					sleep(_cleanInterval);
-				} catch (Throwable t) {
+				} catch (InterruptedException e) {
+					// 清理间隔被修改，按新的间隔重新等待
+					continue;
 				} finally {
 					_sleep = false;
 				}
@@ -90,7 +93,6 @@ public class CacheCleaner<K, V> extends Thread {
 			} catch (Throwable t) {
 				t.printStackTrace();
 			}
-			_sleep = true;
 //			try {
 //				sleep(_cleanInterval);
 //			} catch (Throwable t) {
@@ -19,9 +19,14 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 
+import blade.cache.codec.SerializeCodec;
+import blade.cache.impl.ConcurrentCache;
+import blade.cache.impl.EvictionPolicy;
 import blade.cache.impl.FIFOCache;
 import blade.cache.impl.LFUCache;
 import blade.cache.impl.LRUCache;
+import blade.cache.impl.OffHeapCache;
+import blade.cache.impl.TieredCache;
 
 /**
  * 
@@ -102,6 +107,24 @@ public class CacheManager {
 			return cache;
 		}
 	}
+	
+	/**
+	 * 创建一个按权重淘汰的LRU缓存，可以转为{@link AbstractCache}后用stats()查看当前权重
+	 * 
+	 * @param cacheId			缓存id
+	 * @param maxWeight			最大权重
+	 * @param weigher			权重计算，如{@link blade.cache.weigher.EstimateWeigher}按估算的字节数计算
+	 * @return					返回缓存对象
+	 */
+	public <K, V> Cache<K, V> newLRUCache(String cacheId, long maxWeight, Weigher<? super K, ? super V> weigher){
+		synchronized (_mlock) {
+			LRUCache<K, V> cache = new LRUCache<K, V>(0);
+			cache.weigher(weigher);
+			cache.maxWeight(maxWeight);
+			_cacheMap.put(cacheId, cache);
+			return cache;
+		}
+	}
 	/***************************** LRUCache:END **************************************/
 	
 	
@@ -168,6 +191,160 @@ public class CacheManager {
 	}
 	/***************************** LFUCache:END **************************************/
 	
+	
+	/***************************** ConcurrentCache:START **************************************/
+	public <K, V> Cache<K, V> newConcurrentCache(){
+		synchronized (_mlock) {
+			String cacheId = CACHE_SUFFIX + System.currentTimeMillis();
+			return newConcurrentCache(cacheId, _cacheSize);
+		}
+	}
+	
+	public <K, V> Cache<K, V> newConcurrentCache(String cacheId){
+		if (cacheId == null) {
+			throw new NullPointerException("cacheId is null");
+		}
+		return newConcurrentCache(cacheId, _cacheSize);
+	}
+	
+	public <K, V> Cache<K, V> newConcurrentCache(int cacheSize){
+		synchronized (_mlock) {
+			String cacheId = CACHE_SUFFIX + System.currentTimeMillis();
+			return newConcurrentCache(cacheId, cacheSize);
+		}
+	}
+	
+	public <K, V> Cache<K, V> newConcurrentCache(String cacheId, int cacheSize){
+		synchronized (_mlock) {
+			Cache<K, V> cache = new ConcurrentCache<K, V>(cacheSize);
+			_cacheMap.put(cacheId, cache);
+			return cache;
+		}
+	}
+	
+	/**
+	 * 创建一个分段并发缓存
+	 * 
+	 * @param cacheId			缓存id
+	 * @param cacheSize			最大缓存数，0为不限制
+	 * @param concurrencyLevel	预计的并发写线程数
+	 * @return					返回缓存对象
+	 */
+	public <K, V> Cache<K, V> newConcurrentCache(String cacheId, int cacheSize, int concurrencyLevel){
+		synchronized (_mlock) {
+			Cache<K, V> cache = new ConcurrentCache<K, V>(cacheSize, concurrencyLevel);
+			_cacheMap.put(cacheId, cache);
+			return cache;
+		}
+	}
+	
+	/**
+	 * 创建一个指定淘汰策略的分段并发缓存
+	 * 
+	 * @param cacheId			缓存id
+	 * @param cacheSize			最大缓存数，0为不限制
+	 * @param policy			淘汰策略
+	 * @return					返回缓存对象
+	 */
+	public <K, V> Cache<K, V> newConcurrentCache(String cacheId, int cacheSize, EvictionPolicy policy){
+		synchronized (_mlock) {
+			Cache<K, V> cache = new ConcurrentCache<K, V>(cacheSize, policy);
+			_cacheMap.put(cacheId, cache);
+			return cache;
+		}
+	}
+	/***************************** ConcurrentCache:END **************************************/
+	
+	
+	/***************************** TinyLFUCache:START **************************************/
+	public <K, V> Cache<K, V> newTinyLFUCache(){
+		synchronized (_mlock) {
+			String cacheId = CACHE_SUFFIX + System.currentTimeMillis();
+			return newTinyLFUCache(cacheId, _cacheSize);
+		}
+	}
+	
+	public <K, V> Cache<K, V> newTinyLFUCache(String cacheId){
+		if (cacheId == null) {
+			throw new NullPointerException("cacheId is null");
+		}
+		return newTinyLFUCache(cacheId, _cacheSize);
+	}
+	
+	public <K, V> Cache<K, V> newTinyLFUCache(int cacheSize){
+		synchronized (_mlock) {
+			String cacheId = CACHE_SUFFIX + System.currentTimeMillis();
+			return newTinyLFUCache(cacheId, cacheSize);
+		}
+	}
+	
+	public <K, V> Cache<K, V> newTinyLFUCache(String cacheId, int cacheSize){
+		return newConcurrentCache(cacheId, cacheSize, EvictionPolicy.TINY_LFU);
+	}
+	/***************************** TinyLFUCache:END **************************************/
+	
+	
+	/***************************** OffHeapCache:START **************************************/
+	public <K, V> Cache<K, V> newOffHeapCache(long maxBytes){
+		synchronized (_mlock) {
+			String cacheId = CACHE_SUFFIX + System.currentTimeMillis();
+			return newOffHeapCache(cacheId, maxBytes);
+		}
+	}
+	
+	public <K, V> Cache<K, V> newOffHeapCache(String cacheId, long maxBytes){
+		return newOffHeapCache(cacheId, maxBytes, new SerializeCodec<V>());
+	}
+	
+	/**
+	 * 创建一个堆外缓存
+	 * 
+	 * @param cacheId			缓存id
+	 * @param maxBytes			最大字节数
+	 * @param codec				缓存值的编解码器
+	 * @return					返回缓存对象
+	 */
+	public <K, V> Cache<K, V> newOffHeapCache(String cacheId, long maxBytes, Codec<V> codec){
+		synchronized (_mlock) {
+			Cache<K, V> cache = new OffHeapCache<K, V>(maxBytes, codec);
+			_cacheMap.put(cacheId, cache);
+			return cache;
+		}
+	}
+	/***************************** OffHeapCache:END **************************************/
+	
+	
+	/***************************** TieredCache:START **************************************/
+	public <K, V> Cache<K, V> newTieredCache(int cacheSize, long maxBytes){
+		synchronized (_mlock) {
+			String cacheId = CACHE_SUFFIX + System.currentTimeMillis();
+			return newTieredCache(cacheId, cacheSize, maxBytes);
+		}
+	}
+	
+	public <K, V> Cache<K, V> newTieredCache(String cacheId, int cacheSize, long maxBytes){
+		return newTieredCache(cacheId, cacheSize, maxBytes, new SerializeCodec<V>());
+	}
+	
+	/**
+	 * 创建一个二级缓存，一级是W-TinyLFU淘汰的堆内缓存，二级是堆外缓存
+	 * 
+	 * @param cacheId			缓存id
+	 * @param cacheSize			一级缓存的最大缓存数
+	 * @param maxBytes			二级缓存的最大字节数
+	 * @param codec				缓存值的编解码器
+	 * @return					返回缓存对象
+	 */
+	public <K, V> Cache<K, V> newTieredCache(String cacheId, int cacheSize, long maxBytes, Codec<V> codec){
+		synchronized (_mlock) {
+			Cache<K, V> l1 = new ConcurrentCache<K, V>(cacheSize, EvictionPolicy.TINY_LFU);
+			Cache<K, V> cache = new TieredCache<K, V>(l1, new OffHeapCache<K, V>(maxBytes, codec));
+			_cacheMap.put(cacheId, cache);
+			return cache;
+		}
+	}
+	/***************************** TieredCache:END **************************************/
+	
 	/**
 	 * @return	返回所有缓存id
 	 */
@@ -30,6 +30,7 @@ public class CacheObject<K, V> {
 	private long expires; // 对象存活时间(time-to-live)
 	private long lastAccess; // 最后访问时间
 	private long accessCount; // 访问次数
+	private int weight; // 权重
 	private CacheObject<K, V> previous;
 	private CacheObject<K, V> next;
 
@@ -110,4 +111,12 @@ public class CacheObject<K, V> {
 		this.value = value;
 	}
 
+	public int getWeight() {
+		return weight;
+	}
+
+	public void setWeight(int weight) {
+		this.weight = weight;
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blade.cache;
+
+/**
+ * 
+ * <p>
+ * 缓存的统计快照
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public final class CacheStats {
+	
+	private final int size;
+	
+	private final int fieldCount;
+	
+	private final long weight;
+	
+	private final long maxWeight;
+	
+	private final int cacheSize;
+	
+	public CacheStats(int size, int fieldCount, long weight, long maxWeight, int cacheSize) {
+		this.size = size;
+		this.fieldCount = fieldCount;
+		this.weight = weight;
+		this.maxWeight = maxWeight;
+		this.cacheSize = cacheSize;
+	}
+	
+	/**
+	 * @return	返回key的个数，hash类型的key算一个
+	 */
+	public int getSize() {
+		return size;
+	}
+	
+	/**
+	 * @return	返回所有hash类型缓存的field总数
+	 */
+	public int getFieldCount() {
+		return fieldCount;
+	}
+	
+	/**
+	 * @return	返回当前总权重，包括所有hash类型的field
+	 */
+	public long getWeight() {
+		return weight;
+	}
+	
+	/**
+	 * @return	返回最大权重，0为不限制
+	 */
+	public long getMaxWeight() {
+		return maxWeight;
+	}
+	
+	/**
+	 * @return	返回最大缓存数，0为不限制
+	 */
+	public int getCacheSize() {
+		return cacheSize;
+	}
+	
+	@Override
+	public String toString() {
+		return "CacheStats [size=" + size + ", fieldCount=" + fieldCount + ", weight=" + weight 
+				+ ", maxWeight=" + maxWeight + ", cacheSize=" + cacheSize + "]";
+	}
+	
+}
@@ -0,0 +1,45 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blade.cache;
+
+/**
+ * 
+ * <p>
+ * 缓存值的编解码器，用于把对象存到堆外内存
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public interface Codec<V> {
+	
+	/**
+	 * 编码
+	 * 
+	 * @param value	缓存值，不为null
+	 * @return		返回编码后的字节
+	 */
+	byte[] encode(V value);
+	
+	/**
+	 * 解码
+	 * 
+	 * @param bytes	编码后的字节
+	 * @return		返回缓存值
+	 */
+	V decode(byte[] bytes);
+	
+}
@@ -0,0 +1,38 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blade.cache;
+
+/**
+ * 
+ * <p>
+ * 计算缓存对象的权重，通常是估算的字节数，配合maxWeight按内存占用淘汰
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public interface Weigher<K, V> {
+	
+	/**
+	 * 计算权重，放入缓存时调用一次，之后不再变化
+	 * 
+	 * @param key	缓存key
+	 * @param value	缓存值
+	 * @return		返回权重，不能为负数
+	 */
+	int weigh(K key, V value);
+	
+}
@@ -0,0 +1,43 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blade.cache.codec;
+
+import blade.cache.Codec;
+import blade.kit.SerializeKit;
+
+/**
+ * 
+ * <p>
+ * 使用Java序列化的编解码器，缓存值必须实现Serializable
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public class SerializeCodec<V> implements Codec<V> {
+	
+	@Override
+	public byte[] encode(V value) {
+		return SerializeKit.serialize(value);
+	}
+	
+	@SuppressWarnings("unchecked")
+	@Override
+	public V decode(byte[] bytes) {
+		return (V) SerializeKit.unserialize(bytes);
+	}
+	
+}
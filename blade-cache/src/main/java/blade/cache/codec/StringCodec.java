@@ -0,0 +1,45 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blade.cache.codec;
+
+import java.nio.charset.Charset;
+
+import blade.cache.Codec;
+
+/**
+ * 
+ * <p>
+ * 字符串编解码器，按UTF-8直接转换，比Java序列化快且小，适合缓存渲染好的页面片段
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public class StringCodec implements Codec<String> {
+	
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+	
+	@Override
+	public byte[] encode(String value) {
+		return value.getBytes(UTF_8);
+	}
+	
+	@Override
+	public String decode(byte[] bytes) {
+		return new String(bytes, UTF_8);
+	}
+	
+}
@@ -0,0 +1,699 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blade.cache.impl;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import blade.cache.Cache;
+
+/**
+ * 
+ * <p>
+ * 分段并发缓存实现，按key的hash分成多个段，每段有自己的锁和淘汰顺序，默认按LRU淘汰。
+ * 读操作不加锁，命中记录先写入每段的读缓冲，攒够后由拿到锁的线程批量调整淘汰顺序；
+ * 写操作只锁住所在的段，淘汰也只在本段内进行。设置了过期时间的对象挂在每段的{@link TimerWheel}上，
+ * 写操作和{@link #eliminate()}推进时间轮时只处理到期的对象，不扫描整个缓存
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+@SuppressWarnings("unchecked")
+public class ConcurrentCache<K, V> implements Cache<K, V> {
+	
+	/**
+	 * 最大分段数
+	 */
+	private static final int MAXIMUM_SEGMENTS = 1 << 16;
+	
+	/**
+	 * 有容量限制时每段至少容纳的对象数，避免段太小导致淘汰不准确
+	 */
+	private static final int MIN_SEGMENT_CAPACITY = 16;
+	
+	/**
+	 * 每段读缓冲的大小，必须是2的幂
+	 */
+	static final int READ_BUFFER_SIZE = 32;
+	
+	private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+	
+	private final Segment<K, V>[] segments;
+	
+	private final int segmentShift;
+	
+	private final int segmentMask;
+	
+	/**
+	 * 最大缓存数，0 -> 无限制
+	 */
+	private volatile int cacheSize;
+	
+	/**
+	 * 默认过期时间, 0 -> 永不过期
+	 */
+	private volatile long defaultExpire;
+	
+	public ConcurrentCache(int cacheSize) {
+		this(cacheSize, EvictionPolicy.LRU);
+	}
+	
+	public ConcurrentCache(int cacheSize, EvictionPolicy policy) {
+		this(cacheSize, Runtime.getRuntime().availableProcessors() * 4, policy);
+	}
+	
+	public ConcurrentCache(int cacheSize, int concurrencyLevel) {
+		this(cacheSize, concurrencyLevel, EvictionPolicy.LRU);
+	}
+	
+	/**
+	 * @param cacheSize			最大缓存数，0为不限制
+	 * @param concurrencyLevel	预计的并发写线程数，决定分段数
+	 * @param policy			淘汰策略
+	 */
+	public ConcurrentCache(int cacheSize, int concurrencyLevel, EvictionPolicy policy) {
+		if (cacheSize < 0 || concurrencyLevel <= 0 || null == policy) {
+			throw new IllegalArgumentException();
+		}
+		int maxSegments = Math.min(concurrencyLevel, MAXIMUM_SEGMENTS);
+		if (cacheSize > 0) {
+			maxSegments = Math.min(maxSegments, Math.max(1, cacheSize / MIN_SEGMENT_CAPACITY));
+		}
+		int shift = 0;
+		int ssize = 1;
+		while (ssize < maxSegments) {
+			++shift;
+			ssize <<= 1;
+		}
+		this.segmentShift = 32 - shift;
+		this.segmentMask = ssize - 1;
+		this.segments = new Segment[ssize];
+		for (int i = 0; i < ssize; i++) {
+			segments[i] = new Segment<K, V>(policy.<K, V>newEviction());
+		}
+		this.cacheSize = cacheSize;
+		resize(cacheSize);
+	}
+	
+	@Override
+	public void set(K key, V value) {
+		set(key, value, defaultExpire);
+	}
+	
+	@Override
+	public void set(K key, V value, long expire) {
+		if (null == value) {
+			del(key);
+			return;
+		}
+		segmentFor(key).put(key, new Node<K, V>(key, value, expire, null));
+	}
+	
+	@Override
+	public <F> void hset(K key, F field, V value) {
+		hset(key, field, value, defaultExpire);
+	}
+	
+	@Override
+	public <F> void hset(K key, F field, V value, long expire) {
+		if (null == value) {
+			del(key, field);
+			return;
+		}
+		HashKey hashKey = new HashKey(key);
+		segmentFor(hashKey).hput(hashKey, field, value, expire);
+	}
+	
+	@Override
+	public V get(K key) {
+		if (null == key) {
+			return null;
+		}
+		Segment<K, V> segment = segmentFor(key);
+		Node<K, V> node = segment.map.get(key);
+		if (null == node) {
+			return null;
+		}
+		if (!node.access()) {
+			segment.remove(node);
+			return null;
+		}
+		segment.recordRead(node);
+		return node.value;
+	}
+	
+	@Override
+	public <F> V hget(K key, F field) {
+		if (null == key || null == field) {
+			return null;
+		}
+		HashKey hashKey = new HashKey(key);
+		Segment<K, V> segment = segmentFor(hashKey);
+		Node<K, V> node = segment.map.get(hashKey);
+		if (null == node) {
+			return null;
+		}
+		segment.recordRead(node);
+		Entry<V> entry = node.fields.get(field);
+		if (null == entry) {
+			return null;
+		}
+		if (!entry.access()) {
+			node.fields.remove(field, entry);
+			return null;
+		}
+		return entry.value;
+	}
+	
+	@Override
+	public void del(K key) {
+		if (null != key) {
+			segmentFor(key).remove(key);
+		}
+	}
+	
+	@Override
+	public void hdel(K key) {
+		if (null != key) {
+			HashKey hashKey = new HashKey(key);
+			segmentFor(hashKey).remove(hashKey);
+		}
+	}
+	
+	@Override
+	public <F> void del(K key, F field) {
+		if (null == key || null == field) {
+			return;
+		}
+		HashKey hashKey = new HashKey(key);
+		segmentFor(hashKey).hremove(hashKey, field);
+	}
+	
+	@Override
+	public Set<K> keys() {
+		Set<K> keys = new HashSet<K>();
+		for (Segment<K, V> segment : segments) {
+			for (Object key : segment.map.keySet()) {
+				if (!(key instanceof HashKey)) {
+					keys.add((K) key);
+				}
+			}
+		}
+		return keys;
+	}
+	
+	@Override
+	public <F> Set<F> flieds(K key) {
+		if (null == key) {
+			return null;
+		}
+		HashKey hashKey = new HashKey(key);
+		Node<K, V> node = segmentFor(hashKey).map.get(hashKey);
+		if (null == node) {
+			return null;
+		}
+		return (Set<F>) node.fields.keySet();
+	}
+	
+	@Override
+	public int size() {
+		int size = 0;
+		for (Segment<K, V> segment : segments) {
+			size += segment.count;
+		}
+		return size;
+	}
+	
+	/**
+	 * 推进每段的时间轮，清除到期的对象，每次只锁一个段
+	 */
+	@Override
+	public int eliminate() {
+		int count = 0;
+		for (Segment<K, V> segment : segments) {
+			count += segment.expire();
+		}
+		return count;
+	}
+	
+	@Override
+	public boolean isFull() {
+		int max = cacheSize;
+		if (max == 0) {// o -> 无限制
+			return false;
+		}
+		return size() >= max;
+	}
+	
+	@Override
+	public void clear() {
+		for (Segment<K, V> segment : segments) {
+			segment.clear();
+		}
+	}
+	
+	@Override
+	public int getCacheSize() {
+		return cacheSize;
+	}
+	
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+	
+	@Override
+	public Cache<K, V> cacheSize(int cacheSize) {
+		if (cacheSize < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.cacheSize = cacheSize;
+		resize(cacheSize);
+		return this;
+	}
+	
+	@Override
+	public Cache<K, V> expire(long expire) {
+		this.defaultExpire = expire;
+		return this;
+	}
+	
+	/**
+	 * 把总容量平均分到每个段，超出的段立即淘汰
+	 */
+	private void resize(int cacheSize) {
+		int len = segments.length;
+		for (int i = 0; i < len; i++) {
+			int capacity = 0;
+			if (cacheSize > 0) {
+				capacity = Math.max(1, cacheSize / len + (i < cacheSize % len ? 1 : 0));
+			}
+			segments[i].setCapacity(capacity);
+		}
+	}
+	
+	/**
+	 * 取hash的高位选段，和ConcurrentHashMap内部用的低位错开
+	 */
+	private Segment<K, V> segmentFor(Object key) {
+		int h = key.hashCode() * 0x9E3779B9;
+		return segments[(h >>> segmentShift) & segmentMask];
+	}
+	
+	/**
+	 * 缓存值和过期信息
+	 */
+	static class Entry<V> {
+		
+		final V value;
+		
+		/**
+		 * 存活时间(time-to-live)，从最后访问开始计算
+		 */
+		final long expires;
+		
+		volatile long lastAccess;
+		
+		/**
+		 * 时间轮中的链表，由段锁保护
+		 */
+		Entry<V> timerPrev;
+		
+		Entry<V> timerNext;
+		
+		Entry(V value, long expires) {
+			this.value = value;
+			this.expires = expires;
+			if (expires != 0) {
+				this.lastAccess = System.currentTimeMillis();
+			}
+		}
+		
+		boolean isExpired(long now) {
+			return expires != 0 && lastAccess + expires < now;
+		}
+		
+		/**
+		 * 记录一次访问
+		 * @return	没有过期返回true
+		 */
+		boolean access() {
+			if (expires == 0) {
+				return true;
+			}
+			long now = System.currentTimeMillis();
+			if (isExpired(now)) {
+				return false;
+			}
+			lastAccess = now;
+			return true;
+		}
+	}
+	
+	/**
+	 * hash类型缓存的一个field
+	 */
+	static final class FieldEntry<V> extends Entry<V> {
+		
+		final ConcurrentHashMap<Object, Entry<V>> fields;
+		
+		final Object field;
+		
+		FieldEntry(V value, long expires, ConcurrentHashMap<Object, Entry<V>> fields, Object field) {
+			super(value, expires);
+			this.fields = fields;
+			this.field = field;
+		}
+	}
+	
+	/**
+	 * 段内的缓存节点，hash类型的缓存用fields保存所有field
+	 */
+	static final class Node<K, V> extends Entry<V> {
+		
+		final Object key;
+		
+		final ConcurrentHashMap<Object, Entry<V>> fields;
+		
+		// 以下由段锁保护
+		Node<K, V> prev;
+		
+		Node<K, V> next;
+		
+		/**
+		 * 节点所在的淘汰链表，不在段中时为null
+		 */
+		Eviction.NodeList<K, V> list;
+		
+		Node(Object key, V value, long expires, ConcurrentHashMap<Object, Entry<V>> fields) {
+			super(value, expires);
+			this.key = key;
+			this.fields = fields;
+		}
+		
+		boolean isLinked() {
+			return null != list;
+		}
+	}
+	
+	/**
+	 * hash类型缓存的key，和普通缓存的key区分开
+	 */
+	static final class HashKey {
+		
+		final Object key;
+		
+		HashKey(Object key) {
+			if (null == key) {
+				throw new NullPointerException("key is null");
+			}
+			this.key = key;
+		}
+		
+		@Override
+		public int hashCode() {
+			return ~key.hashCode();
+		}
+		
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof HashKey && key.equals(((HashKey) obj).key);
+		}
+	}
+	
+	/**
+	 * 缓存段
+	 */
+	static final class Segment<K, V> extends ReentrantLock implements TimerWheel.Listener<V> {
+		
+		private static final long serialVersionUID = 1L;
+		
+		final ConcurrentHashMap<Object, Node<K, V>> map = new ConcurrentHashMap<Object, Node<K, V>>(16, 0.75f, 1);
+		
+		/**
+		 * 淘汰顺序
+		 */
+		private final Eviction<K, V> eviction;
+		
+		/**
+		 * 过期时间索引
+		 */
+		private final TimerWheel<V> wheel = new TimerWheel<V>(this);
+		
+		/**
+		 * 本次推进时间轮回收的对象数
+		 */
+		private int expired;
+		
+		/**
+		 * 命中记录，满了以后尝试批量处理，处理不过来时直接覆盖
+		 */
+		private final AtomicReferenceArray<Node<K, V>> readBuffer = new AtomicReferenceArray<Node<K, V>>(READ_BUFFER_SIZE);
+		
+		private final AtomicInteger readCount = new AtomicInteger();
+		
+		volatile int count;
+		
+		private volatile int capacity;
+		
+		Segment(Eviction<K, V> eviction) {
+			this.eviction = eviction;
+		}
+		
+		void setCapacity(int capacity) {
+			lock();
+			try {
+				this.capacity = capacity;
+				eviction.setCapacity(capacity);
+				evict();
+			} finally {
+				unlock();
+			}
+		}
+		
+		void put(Object key, Node<K, V> node) {
+			lock();
+			try {
+				advance(node.expires);
+				Node<K, V> old = map.put(key, node);
+				if (null != old) {
+					unlink(old);
+				}
+				link(node);
+				evict();
+			} finally {
+				unlock();
+			}
+		}
+		
+		void hput(HashKey key, Object field, V value, long expires) {
+			lock();
+			try {
+				advance(expires);
+				Node<K, V> node = map.get(key);
+				boolean created = null == node;
+				if (created) {
+					node = new Node<K, V>(key, null, 0, new ConcurrentHashMap<Object, Entry<V>>(4, 0.75f, 1));
+					map.put(key, node);
+					link(node);
+				} else {
+					eviction.access(node);
+				}
+				FieldEntry<V> entry = new FieldEntry<V>(value, expires, node.fields, field);
+				Entry<V> old = node.fields.put(field, entry);
+				if (null != old) {
+					wheel.deschedule(old);
+				}
+				wheel.schedule(entry);
+				if (created) {
+					evict();
+				}
+			} finally {
+				unlock();
+			}
+		}
+		
+		void hremove(HashKey key, Object field) {
+			lock();
+			try {
+				Node<K, V> node = map.get(key);
+				if (null != node) {
+					Entry<V> entry = node.fields.remove(field);
+					if (null != entry) {
+						wheel.deschedule(entry);
+					}
+				}
+			} finally {
+				unlock();
+			}
+		}
+		
+		void remove(Object key) {
+			lock();
+			try {
+				Node<K, V> node = map.remove(key);
+				if (null != node) {
+					unlink(node);
+				}
+			} finally {
+				unlock();
+			}
+		}
+		
+		void remove(Node<K, V> node) {
+			lock();
+			try {
+				if (map.remove(node.key, node)) {
+					unlink(node);
+				}
+			} finally {
+				unlock();
+			}
+		}
+		
+		void clear() {
+			lock();
+			try {
+				map.clear();
+				for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+					readBuffer.lazySet(i, null);
+				}
+				eviction.clear();
+				wheel.clear();
+				count = 0;
+			} finally {
+				unlock();
+			}
+		}
+		
+		/**
+		 * 推进时间轮，回收本段到期的对象和hash中到期的field
+		 * 
+		 * @return	返回回收的数量
+		 */
+		int expire() {
+			lock();
+			try {
+				expired = 0;
+				wheel.advance(System.currentTimeMillis());
+				return expired;
+			} finally {
+				unlock();
+			}
+		}
+		
+		@Override
+		public void expired(Entry<V> entry) {
+			if (entry instanceof FieldEntry) {
+				FieldEntry<V> field = (FieldEntry<V>) entry;
+				if (field.fields.remove(field.field, field)) {
+					expired++;
+				}
+			} else {
+				Node<K, V> node = (Node<K, V>) entry;
+				if (map.remove(node.key, node)) {
+					unlink(node);
+					expired++;
+				}
+			}
+		}
+		
+		/**
+		 * 记录一次命中，不加锁；缓冲写满一轮时尝试拿锁整理淘汰顺序
+		 */
+		void recordRead(Node<K, V> node) {
+			int index = readCount.getAndIncrement() & READ_BUFFER_MASK;
+			readBuffer.lazySet(index, node);
+			if (index == READ_BUFFER_MASK && tryLock()) {
+				try {
+					drainReadBuffer();
+				} finally {
+					unlock();
+				}
+			}
+		}
+		
+		private void drainReadBuffer() {
+			for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+				Node<K, V> node = readBuffer.getAndSet(i, null);
+				if (null != node && node.isLinked()) {
+					eviction.access(node);
+				}
+			}
+		}
+		
+		/**
+		 * 超出容量时先整理命中记录，再按淘汰策略逐个淘汰
+		 */
+		private void evict() {
+			int max = capacity;
+			if (max <= 0 || count <= max) {
+				return;
+			}
+			drainReadBuffer();
+			while (count > max) {
+				Node<K, V> victim = eviction.evict();
+				if (null == victim) {
+					break;
+				}
+				map.remove(victim.key, victim);
+				count--;
+				release(victim);
+			}
+		}
+		
+		/**
+		 * 写入前顺便推进时间轮；新对象要过期时必须先推进，保证按当前时间挂到正确的格子
+		 */
+		private void advance(long expires) {
+			if (expires != 0 || wheel.size() > 0) {
+				wheel.advance(System.currentTimeMillis());
+			}
+		}
+		
+		private void link(Node<K, V> node) {
+			eviction.add(node);
+			count++;
+			wheel.schedule(node);
+		}
+		
+		private void unlink(Node<K, V> node) {
+			if (node.isLinked()) {
+				eviction.remove(node);
+				count--;
+				release(node);
+			}
+		}
+		
+		/**
+		 * 对象离开段时从时间轮中移除，hash类型连同所有field一起移除
+		 */
+		private void release(Node<K, V> node) {
+			wheel.deschedule(node);
+			if (null != node.fields) {
+				for (Entry<V> field : node.fields.values()) {
+					wheel.deschedule(field);
+				}
+			}
+		}
+	}
+	
+}
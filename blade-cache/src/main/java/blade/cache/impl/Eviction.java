@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blade.cache.impl;
+
+import blade.cache.impl.ConcurrentCache.Node;
+
+/**
+ * 
+ * <p>
+ * 段内的淘汰顺序，由段锁保护，不需要自己同步
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+abstract class Eviction<K, V> {
+	
+	/**
+	 * 段容量变化时调用，0为不限制
+	 */
+	void setCapacity(int capacity) {
+	}
+	
+	/**
+	 * 新加入一个对象
+	 */
+	abstract void add(Node<K, V> node);
+	
+	/**
+	 * 对象被访问，只会对仍在段中的对象调用
+	 */
+	abstract void access(Node<K, V> node);
+	
+	/**
+	 * 选出并移除一个要淘汰的对象
+	 * 
+	 * @return	返回被淘汰的对象，没有对象时返回null
+	 */
+	abstract Node<K, V> evict();
+	
+	/**
+	 * 对象被删除、替换或过期
+	 */
+	void remove(Node<K, V> node) {
+		if (node.isLinked()) {
+			node.list.remove(node);
+		}
+	}
+	
+	/**
+	 * 清空所有对象
+	 */
+	abstract void clear();
+	
+	/**
+	 * 带哨兵的双向循环链表，first是最早加入的对象
+	 */
+	static class NodeList<K, V> {
+		
+		final Node<K, V> head = new Node<K, V>(null, null, 0, null);
+		
+		int size;
+		
+		NodeList() {
+			head.prev = head;
+			head.next = head;
+		}
+		
+		Node<K, V> first() {
+			return head.next == head ? null : head.next;
+		}
+		
+		void addLast(Node<K, V> node) {
+			Node<K, V> last = head.prev;
+			node.prev = last;
+			node.next = head;
+			last.next = node;
+			head.prev = node;
+			node.list = this;
+			size++;
+		}
+		
+		void remove(Node<K, V> node) {
+			node.prev.next = node.next;
+			node.next.prev = node.prev;
+			node.prev = null;
+			node.next = null;
+			node.list = null;
+			size--;
+		}
+		
+		void moveToLast(Node<K, V> node) {
+			if (node == head.prev) {
+				return;
+			}
+			remove(node);
+			addLast(node);
+		}
+		
+		Node<K, V> removeFirst() {
+			Node<K, V> first = first();
+			if (null != first) {
+				remove(first);
+			}
+			return first;
+		}
+		
+		/**
+		 * 清空链表并断开所有节点，之后对这些节点的访问记录会被忽略
+		 */
+		void clear() {
+			Node<K, V> node = head.next;
+			while (node != head) {
+				Node<K, V> next = node.next;
+				node.prev = null;
+				node.next = null;
+				node.list = null;
+				node = next;
+			}
+			head.prev = head;
+			head.next = head;
+			size = 0;
+		}
+	}
+	
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blade.cache.impl;
+
+/**
+ * 
+ * <p>
+ * {@link ConcurrentCache}的淘汰策略，每个段各自维护淘汰顺序，所有操作都是O(1)
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public enum EvictionPolicy {
+	
+	/**
+	 * 淘汰最近最少使用的对象
+	 */
+	LRU,
+	
+	/**
+	 * 淘汰访问次数最少的对象，次数相同时淘汰最早进入该次数的对象
+	 */
+	LFU,
+	
+	/**
+	 * W-TinyLFU，新对象先进入一个小的LRU窗口，从窗口出来时和主区最该淘汰的对象比较
+	 * count-min sketch中估算的访问频率，频率更高的留下。适合访问分布有明显热点的场景
+	 */
+	TINY_LFU;
+	
+	<K, V> Eviction<K, V> newEviction() {
+		switch (this) {
+		case LFU:
+			return new LFUEviction<K, V>();
+		case TINY_LFU:
+			return new TinyLFUEviction<K, V>();
+		default:
+			return new LRUEviction<K, V>();
+		}
+	}
+	
+}
@@ -47,6 +47,7 @@ public class FIFOCache<K, V> extends AbstractCache<K, V> {
 
 			if (cacheObject.isExpired()) {
 				iterator.remove();
+				onRemove(cacheObject);
 				count++;
 			} else {
 				if (firstKey == null)
@@ -55,7 +56,7 @@ public class FIFOCache<K, V> extends AbstractCache<K, V> {
 		}
 
 		if (firstKey != null && isFull()) {// 删除过期对象还是满,继续删除链表第一个
-			_mCache.remove(firstKey);
+			onRemove(_mCache.remove(firstKey));
 		}
 
 		return count;
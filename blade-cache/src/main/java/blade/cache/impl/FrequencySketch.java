@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blade.cache.impl;
+
+/**
+ * 
+ * <p>
+ * 估算访问频率的count-min sketch，每个计数器4位，一个long存16个计数器。
+ * 每个key用4个hash各取一个计数器，频率取其中最小值；
+ * 累计增加次数达到容量的10倍时所有计数器减半，让过去的热点逐渐冷却
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+final class FrequencySketch {
+	
+	private static final long[] SEED = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+	
+	private static final long RESET_MASK = 0x7777777777777777L;
+	
+	private static final int MAXIMUM_CAPACITY = 1 << 30;
+	
+	private long[] table;
+	
+	private int tableMask;
+	
+	private int sampleSize;
+	
+	private int size;
+	
+	/**
+	 * 按缓存容量调整计数器数量，调整后之前的计数会丢失
+	 */
+	void ensureCapacity(int maximum) {
+		int max = Math.min(Math.max(maximum, 16), MAXIMUM_CAPACITY);
+		int length = 1;
+		while (length < max) {
+			length <<= 1;
+		}
+		if (null != table && table.length >= length) {
+			return;
+		}
+		table = new long[length];
+		tableMask = length - 1;
+		sampleSize = max <= Integer.MAX_VALUE / 10 ? max * 10 : Integer.MAX_VALUE;
+		size = 0;
+	}
+	
+	/**
+	 * @return	返回key的估算访问次数，最大15
+	 */
+	int frequency(Object key) {
+		int hash = spread(key.hashCode());
+		int start = (hash & 3) << 2;
+		int frequency = Integer.MAX_VALUE;
+		for (int i = 0; i < 4; i++) {
+			int index = indexOf(hash, i);
+			int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+			frequency = Math.min(frequency, count);
+		}
+		return frequency;
+	}
+	
+	/**
+	 * 记录一次访问
+	 */
+	void increment(Object key) {
+		int hash = spread(key.hashCode());
+		int start = (hash & 3) << 2;
+		boolean added = false;
+		for (int i = 0; i < 4; i++) {
+			added |= incrementAt(indexOf(hash, i), start + i);
+		}
+		if (added && ++size == sampleSize) {
+			reset();
+		}
+	}
+	
+	private boolean incrementAt(int i, int j) {
+		int offset = j << 2;
+		long mask = 0xfL << offset;
+		if ((table[i] & mask) != mask) {
+			table[i] += 1L << offset;
+			return true;
+		}
+		return false;
+	}
+	
+	/**
+	 * 所有计数器减半
+	 */
+	private void reset() {
+		for (int i = 0; i < table.length; i++) {
+			table[i] = (table[i] >>> 1) & RESET_MASK;
+		}
+		size >>>= 1;
+	}
+	
+	private int indexOf(int item, int i) {
+		long hash = (item + SEED[i]) * SEED[i];
+		hash += hash >>> 32;
+		return ((int) hash) & tableMask;
+	}
+	
+	private static int spread(int h) {
+		h = ((h >>> 16) ^ h) * 0x45d9f3b;
+		h = ((h >>> 16) ^ h) * 0x45d9f3b;
+		return (h >>> 16) ^ h;
+	}
+	
+}
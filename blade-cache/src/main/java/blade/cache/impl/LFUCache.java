@@ -50,6 +50,7 @@ public class LFUCache<K, V> extends AbstractCache<K, V> {
 
 			if (cacheObject.isExpired()) {
 				iterator.remove();
+				onRemove(cacheObject);
 				count++;
 				continue;
 			} else {
@@ -72,6 +73,7 @@ public class LFUCache<K, V> extends AbstractCache<K, V> {
 
 				if (cacheObject.getAccessCount() <= 0) {
 					iterator.remove();
+					onRemove(cacheObject);
 					count++;
 				}
 
@@ -81,5 +83,26 @@ public class LFUCache<K, V> extends AbstractCache<K, V> {
 
 		return count;
 	}
+	
+	/**
+	 * 按权重淘汰时选访问次数最少的
+	 */
+	@Override
+	protected K victim(K protect) {
+		K victim = null;
+		long minAccessCount = Long.MAX_VALUE;
+		synchronized (_mCache) {
+			for (CacheObject<K, V> cacheObject : _mCache.values()) {
+				if (null != protect && protect.equals(cacheObject.getKey())) {
+					continue;
+				}
+				if (cacheObject.getAccessCount() < minAccessCount) {
+					minAccessCount = cacheObject.getAccessCount();
+					victim = cacheObject.getKey();
+				}
+			}
+		}
+		return victim;
+	}
 
 }
\ No newline at end of file
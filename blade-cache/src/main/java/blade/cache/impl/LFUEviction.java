@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blade.cache.impl;
+
+import blade.cache.impl.ConcurrentCache.Node;
+
+/**
+ * 
+ * <p>
+ * O(1)的LFU淘汰，相同访问次数的对象放在同一个桶里，桶按次数从小到大串成链表。
+ * 访问时把对象移到下一个次数的桶，淘汰时取次数最小的桶里最早进入的对象
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+class LFUEviction<K, V> extends Eviction<K, V> {
+	
+	/**
+	 * 桶链表的哨兵，buckets.next是次数最小的桶
+	 */
+	private final Bucket<K, V> buckets = new Bucket<K, V>(0);
+	
+	LFUEviction() {
+		buckets.prevBucket = buckets;
+		buckets.nextBucket = buckets;
+	}
+	
+	@Override
+	void add(Node<K, V> node) {
+		Bucket<K, V> first = buckets.nextBucket;
+		if (first == buckets || first.frequency != 1) {
+			first = newBucketAfter(buckets, 1);
+		}
+		first.addLast(node);
+	}
+	
+	@Override
+	void access(Node<K, V> node) {
+		Bucket<K, V> bucket = (Bucket<K, V>) node.list;
+		if (bucket.frequency == Integer.MAX_VALUE) {
+			bucket.moveToLast(node);
+			return;
+		}
+		Bucket<K, V> next = bucket.nextBucket;
+		if (next == buckets || next.frequency != bucket.frequency + 1) {
+			next = newBucketAfter(bucket, bucket.frequency + 1);
+		}
+		bucket.remove(node);
+		next.addLast(node);
+		removeIfEmpty(bucket);
+	}
+	
+	@Override
+	Node<K, V> evict() {
+		Bucket<K, V> first = buckets.nextBucket;
+		if (first == buckets) {
+			return null;
+		}
+		Node<K, V> node = first.removeFirst();
+		removeIfEmpty(first);
+		return node;
+	}
+	
+	@Override
+	void remove(Node<K, V> node) {
+		if (node.isLinked()) {
+			Bucket<K, V> bucket = (Bucket<K, V>) node.list;
+			bucket.remove(node);
+			removeIfEmpty(bucket);
+		}
+	}
+	
+	@Override
+	void clear() {
+		Bucket<K, V> bucket = buckets.nextBucket;
+		while (bucket != buckets) {
+			bucket.clear();
+			bucket = bucket.nextBucket;
+		}
+		buckets.prevBucket = buckets;
+		buckets.nextBucket = buckets;
+	}
+	
+	private Bucket<K, V> newBucketAfter(Bucket<K, V> prev, int frequency) {
+		Bucket<K, V> bucket = new Bucket<K, V>(frequency);
+		bucket.prevBucket = prev;
+		bucket.nextBucket = prev.nextBucket;
+		prev.nextBucket.prevBucket = bucket;
+		prev.nextBucket = bucket;
+		return bucket;
+	}
+	
+	private void removeIfEmpty(Bucket<K, V> bucket) {
+		if (bucket.size == 0) {
+			bucket.prevBucket.nextBucket = bucket.nextBucket;
+			bucket.nextBucket.prevBucket = bucket.prevBucket;
+		}
+	}
+	
+	/**
+	 * 访问次数相同的对象
+	 */
+	static final class Bucket<K, V> extends NodeList<K, V> {
+		
+		final int frequency;
+		
+		Bucket<K, V> prevBucket;
+		
+		Bucket<K, V> nextBucket;
+		
+		Bucket(int frequency) {
+			this.frequency = frequency;
+		}
+	}
+	
+}
@@ -52,7 +52,11 @@ public class LRUCache<K, V> extends AbstractCache<K, V> {
     private boolean removeEldestEntry(Map.Entry<K, CacheObject<K, V>> eldest) {
         if (cacheSize == 0)
             return false;
-        return size() > cacheSize;
+        if (size() > cacheSize) {
+            onRemove(eldest.getValue());
+            return true;
+        }
+        return false;
     }
  
     /**
@@ -70,6 +74,7 @@ public class LRUCache<K, V> extends AbstractCache<K, V> {
              
             if(cacheObject.isExpired() ){
                 iterator.remove(); 
+                onRemove(cacheObject);
                 count++ ;
             }
         }
@@ -0,0 +1,53 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blade.cache.impl;
+
+import blade.cache.impl.ConcurrentCache.Node;
+
+/**
+ * 
+ * <p>
+ * LRU淘汰，访问过的对象移到链表尾，从链表头淘汰
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+class LRUEviction<K, V> extends Eviction<K, V> {
+	
+	private final NodeList<K, V> list = new NodeList<K, V>();
+	
+	@Override
+	void add(Node<K, V> node) {
+		list.addLast(node);
+	}
+	
+	@Override
+	void access(Node<K, V> node) {
+		list.moveToLast(node);
+	}
+	
+	@Override
+	Node<K, V> evict() {
+		return list.removeFirst();
+	}
+	
+	@Override
+	void clear() {
+		list.clear();
+	}
+	
+}
@@ -0,0 +1,639 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blade.cache.impl;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+import blade.cache.Cache;
+import blade.cache.Codec;
+import blade.cache.codec.SerializeCodec;
+import blade.cache.impl.ConcurrentCache.Entry;
+
+/**
+ * 
+ * <p>
+ * 堆外缓存实现，缓存值经{@link Codec}编码后存到直接内存(DirectByteBuffer)中，不占用堆空间，不增加GC停顿。
+ * 容量按字节计算，平均分到多个段，每段是由若干块(slab)组成的环形日志：新数据总是追加在末尾，
+ * 写满一圈后覆盖最早写入的数据，被覆盖的对象随之淘汰(FIFO)。删除和更新只把旧数据标记为无效，
+ * 空间在环形写回来时一并回收，不需要整理碎片。
+ * 读操作在段锁内把字节复制出来，在锁外解码。单个对象编码后不能超过一块的大小，超过时不缓存
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+@SuppressWarnings("unchecked")
+public class OffHeapCache<K, V> implements Cache<K, V> {
+	
+	/**
+	 * 默认每块1M
+	 */
+	public static final int DEFAULT_SLAB_SIZE = 1 << 20;
+	
+	/**
+	 * 最大分段数
+	 */
+	private static final int MAXIMUM_SEGMENTS = 1 << 16;
+	
+	/**
+	 * 每段至少包含的块数，段太小时环形覆盖会淘汰过多刚写入的数据
+	 */
+	private static final int MIN_SEGMENT_SLABS = 4;
+	
+	private final Segment[] segments;
+	
+	private final int segmentShift;
+	
+	private final int segmentMask;
+	
+	private final Codec<V> codec;
+	
+	/**
+	 * 最大字节数
+	 */
+	private final long maxBytes;
+	
+	/**
+	 * 默认过期时间, 0 -> 永不过期
+	 */
+	private volatile long defaultExpire;
+	
+	public OffHeapCache(long maxBytes) {
+		this(maxBytes, new SerializeCodec<V>());
+	}
+	
+	public OffHeapCache(long maxBytes, Codec<V> codec) {
+		this(maxBytes, Runtime.getRuntime().availableProcessors() * 4, DEFAULT_SLAB_SIZE, codec);
+	}
+	
+	/**
+	 * @param maxBytes			最大字节数
+	 * @param concurrencyLevel	预计的并发写线程数，决定分段数
+	 * @param slabSize			每块的字节数，也是单个对象的最大字节数
+	 * @param codec				缓存值的编解码器
+	 */
+	public OffHeapCache(long maxBytes, int concurrencyLevel, int slabSize, Codec<V> codec) {
+		if (maxBytes <= 0 || concurrencyLevel <= 0 || slabSize <= 0 || null == codec) {
+			throw new IllegalArgumentException();
+		}
+		long maxSegments = Math.min(concurrencyLevel, MAXIMUM_SEGMENTS);
+		maxSegments = Math.min(maxSegments, Math.max(1, maxBytes / ((long) slabSize * MIN_SEGMENT_SLABS)));
+		int shift = 0;
+		int ssize = 1;
+		while (ssize < maxSegments) {
+			++shift;
+			ssize <<= 1;
+		}
+		this.segmentShift = 32 - shift;
+		this.segmentMask = ssize - 1;
+		this.segments = new Segment[ssize];
+		
+		// 容量不够一块时整段只用一块
+		long segmentBytes = maxBytes / ssize;
+		int size = (int) Math.min(slabSize, segmentBytes);
+		int slabs = (int) Math.min(Integer.MAX_VALUE, segmentBytes / size);
+		for (int i = 0; i < ssize; i++) {
+			segments[i] = new Segment(slabs, size);
+		}
+		this.maxBytes = (long) slabs * size * ssize;
+		this.codec = codec;
+	}
+	
+	@Override
+	public void set(K key, V value) {
+		set(key, value, defaultExpire);
+	}
+	
+	@Override
+	public void set(K key, V value, long expire) {
+		if (null == value) {
+			del(key);
+			return;
+		}
+		segmentFor(key).put(key, null, codec.encode(value), expire);
+	}
+	
+	@Override
+	public <F> void hset(K key, F field, V value) {
+		hset(key, field, value, defaultExpire);
+	}
+	
+	@Override
+	public <F> void hset(K key, F field, V value, long expire) {
+		if (null == value) {
+			del(key, field);
+			return;
+		}
+		if (null == field) {
+			throw new NullPointerException("field is null");
+		}
+		segmentFor(key).put(key, field, codec.encode(value), expire);
+	}
+	
+	@Override
+	public V get(K key) {
+		return get(key, null, null);
+	}
+	
+	@Override
+	public <F> V hget(K key, F field) {
+		if (null == field) {
+			return null;
+		}
+		return get(key, field, null);
+	}
+	
+	/**
+	 * 读取缓存值
+	 * 
+	 * @param key		缓存key
+	 * @param field		hash类型的field，普通缓存为null
+	 * @param expires	不为null时存放缓存的存活时间，供{@link TieredCache}提升到上一级时使用
+	 * @return			返回缓存值，没有找到或已过期返回null
+	 */
+	V get(Object key, Object field, long[] expires) {
+		if (null == key) {
+			return null;
+		}
+		byte[] bytes = segmentFor(key).read(key, field, expires);
+		if (null == bytes) {
+			return null;
+		}
+		return codec.decode(bytes);
+	}
+	
+	@Override
+	public void del(K key) {
+		if (null != key) {
+			segmentFor(key).remove(key);
+		}
+	}
+	
+	@Override
+	public void hdel(K key) {
+		if (null != key) {
+			segmentFor(key).hremove(key, null);
+		}
+	}
+	
+	@Override
+	public <F> void del(K key, F field) {
+		if (null != key && null != field) {
+			segmentFor(key).hremove(key, field);
+		}
+	}
+	
+	@Override
+	public Set<K> keys() {
+		Set<K> keys = new HashSet<K>();
+		for (Segment segment : segments) {
+			segment.keys(keys);
+		}
+		return keys;
+	}
+	
+	@Override
+	public <F> Set<F> flieds(K key) {
+		if (null == key) {
+			return null;
+		}
+		return (Set<F>) segmentFor(key).fields(key);
+	}
+	
+	@Override
+	public int size() {
+		int size = 0;
+		for (Segment segment : segments) {
+			size += segment.count;
+		}
+		return size;
+	}
+	
+	/**
+	 * 推进每段的时间轮，清除到期的对象，每次只锁一个段
+	 */
+	@Override
+	public int eliminate() {
+		int count = 0;
+		for (Segment segment : segments) {
+			count += segment.expire();
+		}
+		return count;
+	}
+	
+	@Override
+	public boolean isFull() {
+		return usedBytes() >= maxBytes;
+	}
+	
+	/**
+	 * 清空缓存，已分配的块保留下来继续使用
+	 */
+	@Override
+	public void clear() {
+		for (Segment segment : segments) {
+			segment.clear();
+		}
+	}
+	
+	/**
+	 * 堆外缓存按字节计算容量，不限制对象个数
+	 * 
+	 * @return	返回0
+	 */
+	@Override
+	public int getCacheSize() {
+		return 0;
+	}
+	
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+	
+	/**
+	 * 堆外缓存的容量在创建时按字节指定，不按对象个数限制，这里不做任何处理
+	 */
+	@Override
+	public Cache<K, V> cacheSize(int cacheSize) {
+		return this;
+	}
+	
+	@Override
+	public Cache<K, V> expire(long expire) {
+		this.defaultExpire = expire;
+		return this;
+	}
+	
+	/**
+	 * @return	返回最大字节数，按块大小取整后的实际值
+	 */
+	public long maxBytes() {
+		return maxBytes;
+	}
+	
+	/**
+	 * @return	返回有效数据占用的字节数，不含已删除或已更新、还没被覆盖的旧数据
+	 */
+	public long usedBytes() {
+		long used = 0;
+		for (Segment segment : segments) {
+			used += segment.used;
+		}
+		return used;
+	}
+	
+	/**
+	 * hash类型缓存和普通缓存用同一个key时放在同一段，取hash的高位选段
+	 */
+	private Segment segmentFor(Object key) {
+		int h = key.hashCode() * 0x9E3779B9;
+		return segments[(h >>> segmentShift) & segmentMask];
+	}
+	
+	/**
+	 * 一个对象在环形日志中的位置，同时挂在时间轮上处理过期
+	 */
+	static final class Slot extends Entry<Object> {
+		
+		final Object key;
+		
+		/**
+		 * hash类型的field，普通缓存为null
+		 */
+		final Object field;
+		
+		/**
+		 * 写入时的逻辑地址，只增不减，对段容量取模得到实际位置
+		 */
+		final long address;
+		
+		final int length;
+		
+		/**
+		 * 被删除或更新后置为false，空间等环形写回来时回收
+		 */
+		boolean live = true;
+		
+		Slot(Object key, Object field, long address, int length, long expires) {
+			super(null, expires);
+			this.key = key;
+			this.field = field;
+			this.address = address;
+			this.length = length;
+		}
+	}
+	
+	/**
+	 * 缓存段，所有操作都在段锁内进行
+	 */
+	static final class Segment extends ReentrantLock implements TimerWheel.Listener<Object> {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final ByteBuffer[] slabs;
+		
+		private final int slabSize;
+		
+		private final long capacity;
+		
+		private final Map<Object, Slot> map = new HashMap<Object, Slot>();
+		
+		private final Map<Object, Map<Object, Slot>> hmap = new HashMap<Object, Map<Object, Slot>>();
+		
+		/**
+		 * 按地址顺序排列的所有写入，队首是最早写入、最先被覆盖的
+		 */
+		private final ArrayDeque<Slot> slots = new ArrayDeque<Slot>();
+		
+		private final TimerWheel<Object> wheel = new TimerWheel<Object>(this);
+		
+		/**
+		 * 下一次写入的逻辑地址
+		 */
+		private long head;
+		
+		private int expired;
+		
+		volatile int count;
+		
+		volatile long used;
+		
+		Segment(int slabs, int slabSize) {
+			this.slabs = new ByteBuffer[slabs];
+			this.slabSize = slabSize;
+			this.capacity = (long) slabs * slabSize;
+		}
+		
+		void put(Object key, Object field, byte[] bytes, long expires) {
+			lock();
+			try {
+				if (expires != 0 || wheel.size() > 0) {
+					wheel.advance(System.currentTimeMillis());
+				}
+				Slot old = find(key, field);
+				if (null != old) {
+					release(old);
+				}
+				int length = bytes.length;
+				if (length > slabSize) {
+					// 放不进一块，不缓存
+					if (null != old) {
+						unmap(old);
+					}
+					updateCount();
+					return;
+				}
+				
+				// 不跨块存放，块末尾放不下时从下一块开始
+				long address = head;
+				int offset = (int) (address % slabSize);
+				if (offset + length > slabSize) {
+					address += slabSize - offset;
+					offset = 0;
+				}
+				long end = address + length;
+				reclaim(end - capacity);
+				
+				ByteBuffer slab = slab((int) ((address / slabSize) % slabs.length));
+				slab.position(offset);
+				slab.put(bytes);
+				head = end;
+				
+				Slot slot = new Slot(key, field, address, length, expires);
+				slots.addLast(slot);
+				if (null == field) {
+					map.put(key, slot);
+				} else {
+					Map<Object, Slot> fields = hmap.get(key);
+					if (null == fields) {
+						fields = new HashMap<Object, Slot>(4);
+						hmap.put(key, fields);
+					}
+					fields.put(field, slot);
+				}
+				used += length;
+				wheel.schedule(slot);
+				updateCount();
+			} finally {
+				unlock();
+			}
+		}
+		
+		/**
+		 * 复制出缓存值的字节，过期的对象顺便删除
+		 */
+		byte[] read(Object key, Object field, long[] expires) {
+			lock();
+			try {
+				Slot slot = find(key, field);
+				if (null == slot) {
+					return null;
+				}
+				if (!slot.access()) {
+					release(slot);
+					unmap(slot);
+					updateCount();
+					return null;
+				}
+				byte[] bytes = new byte[slot.length];
+				ByteBuffer slab = slabs[(int) ((slot.address / slabSize) % slabs.length)];
+				slab.position((int) (slot.address % slabSize));
+				slab.get(bytes);
+				if (null != expires) {
+					expires[0] = slot.expires;
+				}
+				return bytes;
+			} finally {
+				unlock();
+			}
+		}
+		
+		void remove(Object key) {
+			lock();
+			try {
+				Slot slot = map.remove(key);
+				if (null != slot) {
+					release(slot);
+					updateCount();
+				}
+			} finally {
+				unlock();
+			}
+		}
+		
+		/**
+		 * 删除hash类型缓存的一个field，field为null时删除整个key
+		 */
+		void hremove(Object key, Object field) {
+			lock();
+			try {
+				Map<Object, Slot> fields = hmap.get(key);
+				if (null == fields) {
+					return;
+				}
+				if (null == field) {
+					hmap.remove(key);
+					for (Slot slot : fields.values()) {
+						release(slot);
+					}
+				} else {
+					Slot slot = fields.remove(field);
+					if (null != slot) {
+						release(slot);
+					}
+					if (fields.isEmpty()) {
+						hmap.remove(key);
+					}
+				}
+				updateCount();
+			} finally {
+				unlock();
+			}
+		}
+		
+		<T> void keys(Set<T> keys) {
+			lock();
+			try {
+				keys.addAll((Set<T>) map.keySet());
+			} finally {
+				unlock();
+			}
+		}
+		
+		Set<Object> fields(Object key) {
+			lock();
+			try {
+				Map<Object, Slot> fields = hmap.get(key);
+				if (null == fields) {
+					return null;
+				}
+				return new HashSet<Object>(fields.keySet());
+			} finally {
+				unlock();
+			}
+		}
+		
+		int expire() {
+			lock();
+			try {
+				expired = 0;
+				wheel.advance(System.currentTimeMillis());
+				updateCount();
+				return expired;
+			} finally {
+				unlock();
+			}
+		}
+		
+		void clear() {
+			lock();
+			try {
+				map.clear();
+				hmap.clear();
+				slots.clear();
+				wheel.clear();
+				head = 0;
+				used = 0;
+				count = 0;
+			} finally {
+				unlock();
+			}
+		}
+		
+		@Override
+		public void expired(Entry<Object> entry) {
+			Slot slot = (Slot) entry;
+			if (slot.live) {
+				release(slot);
+				unmap(slot);
+				expired++;
+			}
+		}
+		
+		/**
+		 * 回收地址小于limit的所有写入，还有效的对象被淘汰
+		 */
+		private void reclaim(long limit) {
+			while (!slots.isEmpty() && slots.peekFirst().address < limit) {
+				Slot slot = slots.pollFirst();
+				if (slot.live) {
+					release(slot);
+					unmap(slot);
+				}
+			}
+		}
+		
+		private Slot find(Object key, Object field) {
+			if (null == field) {
+				return map.get(key);
+			}
+			Map<Object, Slot> fields = hmap.get(key);
+			return null == fields ? null : fields.get(field);
+		}
+		
+		/**
+		 * 标记为无效并移出时间轮，不从map中删除
+		 */
+		private void release(Slot slot) {
+			if (!slot.live) {
+				return;
+			}
+			slot.live = false;
+			used -= slot.length;
+			wheel.deschedule(slot);
+		}
+		
+		private void unmap(Slot slot) {
+			if (null == slot.field) {
+				if (map.get(slot.key) == slot) {
+					map.remove(slot.key);
+				}
+				return;
+			}
+			Map<Object, Slot> fields = hmap.get(slot.key);
+			if (null != fields && fields.get(slot.field) == slot) {
+				fields.remove(slot.field);
+				if (fields.isEmpty()) {
+					hmap.remove(slot.key);
+				}
+			}
+		}
+		
+		private void updateCount() {
+			count = map.size() + hmap.size();
+		}
+		
+		/**
+		 * 第一次写到时才分配块
+		 */
+		private ByteBuffer slab(int index) {
+			ByteBuffer slab = slabs[index];
+			if (null == slab) {
+				slab = ByteBuffer.allocateDirect(slabSize);
+				slabs[index] = slab;
+			}
+			return slab;
+		}
+	}
+	
+}
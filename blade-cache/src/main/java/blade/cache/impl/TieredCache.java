@@ -0,0 +1,247 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blade.cache.impl;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import blade.cache.Cache;
+
+/**
+ * 
+ * <p>
+ * 二级缓存，一级是堆内缓存，只保留热点对象；二级是{@link OffHeapCache}，保存全部对象。
+ * 写入同时写两级，读取先查一级，没有命中再查二级并提升到一级。
+ * 同一个key的写入、删除和提升互斥，避免把二级中的旧值提升到一级
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+@SuppressWarnings("unchecked")
+public class TieredCache<K, V> implements Cache<K, V> {
+	
+	private static final int LOCKS = 64;
+	
+	private final Cache<K, V> l1;
+	
+	private final OffHeapCache<K, V> l2;
+	
+	private final Object[] locks = new Object[LOCKS];
+	
+	/**
+	 * @param l1	一级堆内缓存
+	 * @param l2	二级堆外缓存
+	 */
+	public TieredCache(Cache<K, V> l1, OffHeapCache<K, V> l2) {
+		if (null == l1 || null == l2) {
+			throw new IllegalArgumentException();
+		}
+		this.l1 = l1;
+		this.l2 = l2;
+		for (int i = 0; i < LOCKS; i++) {
+			locks[i] = new Object();
+		}
+	}
+	
+	@Override
+	public void set(K key, V value) {
+		synchronized (lockFor(key)) {
+			l2.set(key, value);
+			l1.set(key, value);
+		}
+	}
+	
+	@Override
+	public void set(K key, V value, long expire) {
+		synchronized (lockFor(key)) {
+			l2.set(key, value, expire);
+			l1.set(key, value, expire);
+		}
+	}
+	
+	@Override
+	public <F> void hset(K key, F field, V value) {
+		synchronized (lockFor(key)) {
+			l2.hset(key, field, value);
+			l1.hset(key, field, value);
+		}
+	}
+	
+	@Override
+	public <F> void hset(K key, F field, V value, long expire) {
+		synchronized (lockFor(key)) {
+			l2.hset(key, field, value, expire);
+			l1.hset(key, field, value, expire);
+		}
+	}
+	
+	@Override
+	public V get(K key) {
+		if (null == key) {
+			return null;
+		}
+		V value = l1.get(key);
+		if (null != value) {
+			return value;
+		}
+		synchronized (lockFor(key)) {
+			long[] expires = new long[1];
+			value = l2.get(key, null, expires);
+			if (null != value) {
+				l1.set(key, value, expires[0]);
+			}
+		}
+		return value;
+	}
+	
+	@Override
+	public <F> V hget(K key, F field) {
+		if (null == key || null == field) {
+			return null;
+		}
+		V value = l1.hget(key, field);
+		if (null != value) {
+			return value;
+		}
+		synchronized (lockFor(key)) {
+			long[] expires = new long[1];
+			value = l2.get(key, field, expires);
+			if (null != value) {
+				l1.hset(key, field, value, expires[0]);
+			}
+		}
+		return value;
+	}
+	
+	@Override
+	public void del(K key) {
+		if (null == key) {
+			return;
+		}
+		synchronized (lockFor(key)) {
+			l2.del(key);
+			l1.del(key);
+		}
+	}
+	
+	@Override
+	public void hdel(K key) {
+		if (null == key) {
+			return;
+		}
+		synchronized (lockFor(key)) {
+			l2.hdel(key);
+			l1.hdel(key);
+		}
+	}
+	
+	@Override
+	public <F> void del(K key, F field) {
+		if (null == key) {
+			return;
+		}
+		synchronized (lockFor(key)) {
+			l2.del(key, field);
+			l1.del(key, field);
+		}
+	}
+	
+	/**
+	 * 编码后超过一块大小的对象只在一级中，所以合并两级的key
+	 */
+	@Override
+	public Set<K> keys() {
+		Set<K> keys = new HashSet<K>(l2.keys());
+		keys.addAll(l1.keys());
+		return keys;
+	}
+	
+	@Override
+	public <F> Set<F> flieds(K key) {
+		Set<F> fields = l2.flieds(key);
+		Set<F> hot = l1.flieds(key);
+		if (null == fields) {
+			return hot;
+		}
+		if (null != hot) {
+			fields.addAll(hot);
+		}
+		return fields;
+	}
+	
+	@Override
+	public int size() {
+		return Math.max(l1.size(), l2.size());
+	}
+	
+	@Override
+	public int eliminate() {
+		return l1.eliminate() + l2.eliminate();
+	}
+	
+	@Override
+	public boolean isFull() {
+		return l2.isFull();
+	}
+	
+	@Override
+	public void clear() {
+		l2.clear();
+		l1.clear();
+	}
+	
+	/**
+	 * @return	返回一级缓存的最大缓存数
+	 */
+	@Override
+	public int getCacheSize() {
+		return l1.getCacheSize();
+	}
+	
+	@Override
+	public boolean isEmpty() {
+		return l1.isEmpty() && l2.isEmpty();
+	}
+	
+	/**
+	 * 设置一级缓存的最大缓存数，二级按字节计算容量
+	 */
+	@Override
+	public Cache<K, V> cacheSize(int cacheSize) {
+		l1.cacheSize(cacheSize);
+		return this;
+	}
+	
+	@Override
+	public Cache<K, V> expire(long expire) {
+		l1.expire(expire);
+		l2.expire(expire);
+		return this;
+	}
+	
+	/**
+	 * @return	返回二级缓存
+	 */
+	public OffHeapCache<K, V> offHeap() {
+		return l2;
+	}
+	
+	private Object lockFor(Object key) {
+		return locks[(key.hashCode() * 0x9E3779B9) >>> 26];
+	}
+	
+}
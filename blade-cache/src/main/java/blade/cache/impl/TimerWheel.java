@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blade.cache.impl;
+
+import blade.cache.impl.ConcurrentCache.Entry;
+
+/**
+ * 
+ * <p>
+ * 分层时间轮，按过期时间把对象挂到不同精度的桶里：
+ * 第一层每格约1秒共64格，第二层每格约65秒，第三层每格约70分钟，更远的放在溢出格。
+ * 时间推进时只处理走过的格子，到期的对象交给{@link Listener}回收，
+ * 还没到期的(被访问后过期时间顺延、或在高层格子里)重新挂到更精确的格子，
+ * 每个对象的处理是均摊O(1)的，和缓存总大小无关。由段锁保护
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+final class TimerWheel<V> {
+	
+	/**
+	 * 每层的格子数，必须是2的幂
+	 */
+	static final int[] BUCKETS = { 64, 64, 64, 1 };
+	
+	/**
+	 * 每层一格的时间跨度为 1 << SHIFT 毫秒
+	 */
+	static final int[] SHIFT = { 10, 16, 22, 28 };
+	
+	/**
+	 * 到期回调
+	 */
+	interface Listener<V> {
+		
+		void expired(Entry<V> entry);
+	}
+	
+	private final Entry<V>[][] wheel;
+	
+	private final Listener<V> listener;
+	
+	/**
+	 * 上次推进到的时间
+	 */
+	private long time;
+	
+	private int size;
+	
+	@SuppressWarnings("unchecked")
+	TimerWheel(Listener<V> listener) {
+		this.listener = listener;
+		this.time = System.currentTimeMillis();
+		this.wheel = new Entry[BUCKETS.length][];
+		for (int i = 0; i < BUCKETS.length; i++) {
+			wheel[i] = new Entry[BUCKETS[i]];
+			for (int j = 0; j < BUCKETS[i]; j++) {
+				wheel[i][j] = sentinel();
+			}
+		}
+	}
+	
+	int size() {
+		return size;
+	}
+	
+	/**
+	 * 推进到当前时间，回收走过的格子里已经过期的对象
+	 */
+	void advance(long now) {
+		long previous = time;
+		if (now <= previous) {
+			return;
+		}
+		time = now;
+		if (size == 0) {
+			return;
+		}
+		for (int i = 0; i < SHIFT.length; i++) {
+			long previousTicks = previous >>> SHIFT[i];
+			long currentTicks = now >>> SHIFT[i];
+			if (currentTicks - previousTicks <= 0L) {
+				break;
+			}
+			expire(i, previousTicks, currentTicks - previousTicks, now);
+		}
+	}
+	
+	/**
+	 * 按过期时间挂到对应的格子，不过期的对象不处理
+	 */
+	void schedule(Entry<V> entry) {
+		if (entry.expires == 0) {
+			return;
+		}
+		Entry<V> sentinel = findBucket(entry.lastAccess + entry.expires);
+		Entry<V> last = sentinel.timerPrev;
+		entry.timerPrev = last;
+		entry.timerNext = sentinel;
+		last.timerNext = entry;
+		sentinel.timerPrev = entry;
+		size++;
+	}
+	
+	/**
+	 * 从时间轮中移除，不在时间轮中时不处理
+	 */
+	void deschedule(Entry<V> entry) {
+		if (null == entry.timerNext) {
+			return;
+		}
+		entry.timerPrev.timerNext = entry.timerNext;
+		entry.timerNext.timerPrev = entry.timerPrev;
+		entry.timerPrev = null;
+		entry.timerNext = null;
+		size--;
+	}
+	
+	void clear() {
+		for (Entry<V>[] buckets : wheel) {
+			for (Entry<V> sentinel : buckets) {
+				Entry<V> entry = sentinel.timerNext;
+				while (entry != sentinel) {
+					Entry<V> next = entry.timerNext;
+					entry.timerPrev = null;
+					entry.timerNext = null;
+					entry = next;
+				}
+				sentinel.timerPrev = sentinel;
+				sentinel.timerNext = sentinel;
+			}
+		}
+		size = 0;
+	}
+	
+	private void expire(int level, long previousTicks, long delta, long now) {
+		Entry<V>[] buckets = wheel[level];
+		int mask = buckets.length - 1;
+		int steps = (int) Math.min(delta + 1, buckets.length);
+		int start = (int) (previousTicks & mask);
+		for (int i = start; i < start + steps; i++) {
+			Entry<V> sentinel = buckets[i & mask];
+			Entry<V> entry = sentinel.timerNext;
+			sentinel.timerPrev = sentinel;
+			sentinel.timerNext = sentinel;
+			while (entry != sentinel) {
+				Entry<V> next = entry.timerNext;
+				entry.timerPrev = null;
+				entry.timerNext = null;
+				size--;
+				if (entry.isExpired(now)) {
+					listener.expired(entry);
+				} else {
+					schedule(entry);
+				}
+				entry = next;
+			}
+		}
+	}
+	
+	private Entry<V> findBucket(long deadline) {
+		long duration = deadline - time;
+		int last = wheel.length - 1;
+		for (int i = 0; i < last; i++) {
+			if (duration < (1L << SHIFT[i + 1])) {
+				long ticks = deadline >>> SHIFT[i];
+				return wheel[i][(int) (ticks & (wheel[i].length - 1))];
+			}
+		}
+		return wheel[last][0];
+	}
+	
+	private static <V> Entry<V> sentinel() {
+		Entry<V> sentinel = new Entry<V>(null, 0);
+		sentinel.timerPrev = sentinel;
+		sentinel.timerNext = sentinel;
+		return sentinel;
+	}
+	
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blade.cache.impl;
+
+import blade.cache.impl.ConcurrentCache.Node;
+
+/**
+ * 
+ * <p>
+ * W-TinyLFU淘汰。容量的1%作为LRU窗口接收新对象，其余是分段LRU主区：
+ * 主区80%是保护区，其余是试用区。对象从窗口出来后进入试用区，在试用区再次被访问才进入保护区。
+ * 需要淘汰时，从窗口出来的对象和试用区最早的对象比较sketch中的访问频率，频率低的被淘汰
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+class TinyLFUEviction<K, V> extends Eviction<K, V> {
+	
+	private static final int WINDOW_PERCENT = 1;
+	
+	private static final int PROTECTED_PERCENT = 80;
+	
+	private final NodeList<K, V> window = new NodeList<K, V>();
+	
+	private final NodeList<K, V> probation = new NodeList<K, V>();
+	
+	private final NodeList<K, V> protect = new NodeList<K, V>();
+	
+	private final FrequencySketch sketch = new FrequencySketch();
+	
+	private int windowMax = Integer.MAX_VALUE;
+	
+	private int mainMax;
+	
+	private int protectedMax;
+	
+	@Override
+	void setCapacity(int capacity) {
+		if (capacity <= 0) {
+			// 不限制容量时不会淘汰，全部放在窗口中
+			windowMax = Integer.MAX_VALUE;
+			mainMax = 0;
+			protectedMax = 0;
+			sketch.ensureCapacity(0);
+			return;
+		}
+		windowMax = Math.max(1, capacity * WINDOW_PERCENT / 100);
+		mainMax = capacity - windowMax;
+		protectedMax = mainMax * PROTECTED_PERCENT / 100;
+		sketch.ensureCapacity(capacity);
+	}
+	
+	@Override
+	void add(Node<K, V> node) {
+		sketch.increment(node.key);
+		window.addLast(node);
+		// 主区还有空位时窗口溢出的对象直接进入试用区
+		while (window.size > windowMax && probation.size + protect.size < mainMax) {
+			probation.addLast(window.removeFirst());
+		}
+	}
+	
+	@Override
+	void access(Node<K, V> node) {
+		sketch.increment(node.key);
+		if (node.list == probation) {
+			probation.remove(node);
+			protect.addLast(node);
+			while (protect.size > protectedMax) {
+				probation.addLast(protect.removeFirst());
+			}
+		} else {
+			node.list.moveToLast(node);
+		}
+	}
+	
+	@Override
+	Node<K, V> evict() {
+		Node<K, V> candidate = null;
+		if (window.size > windowMax) {
+			candidate = window.removeFirst();
+		}
+		Node<K, V> victim = probation.first();
+		if (null == victim) {
+			victim = protect.first();
+		}
+		if (null == candidate) {
+			if (null == victim) {
+				return window.removeFirst();
+			}
+			victim.list.remove(victim);
+			return victim;
+		}
+		if (null == victim) {
+			return candidate;
+		}
+		// 频率相同时留下已经在主区的对象
+		if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+			victim.list.remove(victim);
+			probation.addLast(candidate);
+			return victim;
+		}
+		return candidate;
+	}
+	
+	@Override
+	void clear() {
+		window.clear();
+		probation.clear();
+		protect.clear();
+	}
+	
+}
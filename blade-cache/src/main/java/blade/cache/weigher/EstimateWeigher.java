@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blade.cache.weigher;
+
+import java.util.Collection;
+import java.util.Map;
+
+import blade.cache.Weigher;
+
+/**
+ * 
+ * <p>
+ * 按64位JVM(压缩指针)的对象布局粗略估算key和value占用的堆内存字节数。
+ * 字符串、数组、包装类型按实际长度计算，集合和Map递归计算元素，其他对象按固定大小计算，
+ * 可以继承后覆盖{@link #sizeOfObject(Object)}估算自己的业务对象
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public class EstimateWeigher<K, V> implements Weigher<K, V> {
+	
+	/**
+	 * 对象头
+	 */
+	protected static final int OBJECT_HEADER = 16;
+	
+	/**
+	 * 引用
+	 */
+	protected static final int REFERENCE = 4;
+	
+	/**
+	 * 缓存内部的CacheObject和map条目
+	 */
+	private static final int ENTRY_OVERHEAD = 80;
+	
+	/**
+	 * 集合嵌套超过这个深度时不再展开
+	 */
+	private static final int MAX_DEPTH = 4;
+	
+	/**
+	 * 无法估算的对象的默认大小
+	 */
+	private final int defaultSize;
+	
+	public EstimateWeigher() {
+		this(64);
+	}
+	
+	/**
+	 * @param defaultSize	无法估算的对象的默认大小
+	 */
+	public EstimateWeigher(int defaultSize) {
+		this.defaultSize = defaultSize;
+	}
+	
+	@Override
+	public int weigh(K key, V value) {
+		long size = ENTRY_OVERHEAD + sizeOf(key, 0) + sizeOf(value, 0);
+		return (int) Math.min(Integer.MAX_VALUE, size);
+	}
+	
+	/**
+	 * 估算一个对象的大小
+	 */
+	protected long sizeOf(Object obj, int depth) {
+		if (null == obj) {
+			return 0;
+		}
+		if (obj instanceof String) {
+			return 40 + align(OBJECT_HEADER + 2L * ((String) obj).length());
+		}
+		if (obj instanceof Number || obj instanceof Boolean || obj instanceof Character) {
+			return obj instanceof Long || obj instanceof Double ? 24 : 16;
+		}
+		if (obj instanceof byte[]) {
+			return align(OBJECT_HEADER + ((byte[]) obj).length);
+		}
+		if (obj instanceof char[]) {
+			return align(OBJECT_HEADER + 2L * ((char[]) obj).length);
+		}
+		if (obj instanceof int[]) {
+			return align(OBJECT_HEADER + 4L * ((int[]) obj).length);
+		}
+		if (obj instanceof long[]) {
+			return align(OBJECT_HEADER + 8L * ((long[]) obj).length);
+		}
+		if (depth >= MAX_DEPTH) {
+			return defaultSize;
+		}
+		if (obj instanceof Object[]) {
+			Object[] array = (Object[]) obj;
+			long size = align(OBJECT_HEADER + (long) REFERENCE * array.length);
+			for (Object item : array) {
+				size += sizeOf(item, depth + 1);
+			}
+			return size;
+		}
+		if (obj instanceof Collection) {
+			Collection<?> collection = (Collection<?>) obj;
+			long size = 40 + 24L * collection.size();
+			for (Object item : collection) {
+				size += sizeOf(item, depth + 1);
+			}
+			return size;
+		}
+		if (obj instanceof Map) {
+			Map<?, ?> map = (Map<?, ?>) obj;
+			long size = 48 + 40L * map.size();
+			for (Map.Entry<?, ?> entry : map.entrySet()) {
+				size += sizeOf(entry.getKey(), depth + 1) + sizeOf(entry.getValue(), depth + 1);
+			}
+			return size;
+		}
+		return sizeOfObject(obj);
+	}
+	
+	/**
+	 * 估算其他对象的大小，默认返回固定值
+	 */
+	protected long sizeOfObject(Object obj) {
+		return defaultSize;
+	}
+	
+	/**
+	 * 按8字节对齐
+	 */
+	protected static long align(long size) {
+		return (size + 7) & ~7L;
+	}
+	
+}
@@ -1,10 +1,22 @@
 package blade.test;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.junit.Assert;
 import org.junit.Test;
 
 import blade.cache.Cache;
 import blade.cache.CacheManager;
+import blade.cache.Weigher;
+import blade.cache.codec.StringCodec;
+import blade.cache.impl.ConcurrentCache;
+import blade.cache.impl.EvictionPolicy;
+import blade.cache.impl.FIFOCache;
+import blade.cache.impl.LRUCache;
+import blade.cache.impl.OffHeapCache;
+import blade.cache.impl.TieredCache;
+import blade.cache.weigher.EstimateWeigher;
 
 public class CacheTest {
 	
@@ -24,33 +36,313 @@ public class CacheTest {
 	public void testAutoClean(){
 		CacheManager cm = CacheManager.getInstance();
 		cm.setCleanInterval(1000);
+		try {
+			Cache<String, Object> cache = cm.newLRUCache();
+			cache.set("name:1", "jack");
+			cache.set("name:2", "jack2");
+			
+			Assert.assertEquals("jack2", cache.get("name:2"));
+			
+			try {
+				Thread.sleep(3000);
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			}
+			Assert.assertEquals(null, cache.get("name:2"));
+		} finally {
+			// 清理线程会清空所有注册的缓存，恢复默认间隔，避免影响其他测试
+			cm.setCleanInterval(3600000);
+		}
+	}
+	
+	@Test
+	public void testHashCache(){
+		CacheManager cm = CacheManager.getInstance();
 		
 		Cache<String, Object> cache = cm.newLRUCache();
+		cache.hset("user:list", "a1", "123");
+		cache.hset("user:list", "a2", "456");
+		cache.hset("user:list", "a3", "789");
+		
+		Assert.assertEquals("123", cache.hget("user:list", "a1"));
+		Assert.assertEquals("456", cache.hget("user:list", "a2"));
+		Assert.assertEquals("789", cache.hget("user:list", "a3"));
+	}
+	
+	@Test
+	public void testConcurrentCache(){
+		CacheManager cm = CacheManager.getInstance();
+		
+		Cache<String, Object> cache = cm.newConcurrentCache();
 		cache.set("name:1", "jack");
 		cache.set("name:2", "jack2");
+		cache.hset("user:list", "a1", "123");
 		
+		Assert.assertEquals("jack", cache.get("name:1"));
 		Assert.assertEquals("jack2", cache.get("name:2"));
+		Assert.assertEquals("123", cache.hget("user:list", "a1"));
+		Assert.assertEquals(3, cache.size());
 		
+		cache.del("name:1");
+		cache.del("user:list", "a1");
+		Assert.assertEquals(null, cache.get("name:1"));
+		Assert.assertEquals(null, cache.hget("user:list", "a1"));
+		Assert.assertEquals(1, cache.keys().size());
+	}
+	
+	@Test
+	public void testConcurrentCacheEviction(){
+		Cache<Integer, Integer> cache = new ConcurrentCache<Integer, Integer>(100);
+		for (int i = 0; i < 1000; i++) {
+			cache.set(i, i);
+			// 保持0一直被访问，不应该被淘汰
+			Assert.assertEquals(Integer.valueOf(0), cache.get(0));
+		}
+		Assert.assertEquals(100, cache.size());
+		Assert.assertEquals(Integer.valueOf(999), cache.get(999));
+		
+		cache.set(-1, -1, 1);
 		try {
-			Thread.sleep(3000);
+			Thread.sleep(10);
 		} catch (InterruptedException e) {
 			e.printStackTrace();
 		}
-		Assert.assertEquals(null, cache.get("name:2"));
+		Assert.assertEquals(null, cache.get(-1));
 	}
 	
 	@Test
-	public void testHashCache(){
+	public void testConcurrentCacheThreads() throws InterruptedException{
+		final Cache<Integer, Integer> cache = new ConcurrentCache<Integer, Integer>(1000);
+		final AtomicInteger errors = new AtomicInteger();
+		final CountDownLatch latch = new CountDownLatch(8);
+		for (int t = 0; t < 8; t++) {
+			final int seed = t;
+			new Thread() {
+				public void run() {
+					try {
+						for (int i = 0; i < 100000; i++) {
+							int key = (i * 31 + seed) % 5000;
+							if (i % 4 == 0) {
+								cache.set(key, key);
+							} else {
+								Integer value = cache.get(key);
+								if (null != value && value.intValue() != key) {
+									errors.incrementAndGet();
+								}
+							}
+						}
+					} catch (Throwable e) {
+						errors.incrementAndGet();
+					} finally {
+						latch.countDown();
+					}
+				}
+			}.start();
+		}
+		latch.await();
+		Assert.assertEquals(0, errors.get());
+		Assert.assertTrue(cache.size() <= 1000);
+	}
+	
+	@Test
+	public void testLFUEviction(){
+		Cache<String, String> cache = new ConcurrentCache<String, String>(3, 1, EvictionPolicy.LFU);
+		cache.set("a", "a");
+		cache.set("b", "b");
+		cache.set("c", "c");
+		cache.get("a");
+		cache.get("a");
+		cache.get("b");
+		cache.set("d", "d");
+		
+		Assert.assertEquals(null, cache.get("c"));
+		Assert.assertEquals("a", cache.get("a"));
+		Assert.assertEquals("b", cache.get("b"));
+		Assert.assertEquals("d", cache.get("d"));
+	}
+	
+	@Test
+	public void testTinyLFUCache(){
 		CacheManager cm = CacheManager.getInstance();
+		Cache<Integer, Integer> managed = cm.newTinyLFUCache(10);
+		managed.set(1, 1);
+		Assert.assertEquals(Integer.valueOf(1), managed.get(1));
 		
-		Cache<String, Object> cache = cm.newLRUCache();
-		cache.hset("user:list", "a1", "123");
-		cache.hset("user:list", "a2", "456");
-		cache.hset("user:list", "a3", "789");
+		Cache<Integer, Integer> cache = new ConcurrentCache<Integer, Integer>(100, 1, EvictionPolicy.TINY_LFU);
+		for (int round = 0; round < 5; round++) {
+			for (int i = 0; i < 50; i++) {
+				if (null == cache.get(i)) {
+					cache.set(i, i);
+				}
+			}
+		}
+		// 只访问一次的对象不应该把热点挤出去
+		for (int i = 1000; i < 11000; i++) {
+			cache.set(i, i);
+		}
+		int hits = 0;
+		for (int i = 0; i < 50; i++) {
+			if (null != cache.get(i)) {
+				hits++;
+			}
+		}
+		Assert.assertTrue(hits >= 45);
+		Assert.assertEquals(100, cache.size());
+	}
+	
+	@Test
+	public void testConcurrentCacheExpire() throws InterruptedException{
+		Cache<Integer, Integer> cache = new ConcurrentCache<Integer, Integer>(0);
+		for (int i = 0; i < 1000; i++) {
+			cache.set(i, i);
+		}
+		for (int i = 1000; i < 1100; i++) {
+			cache.set(i, i, 500);
+		}
+		cache.hset(-1, "a", 1, 500);
+		cache.hset(-1, "b", 2);
+		Assert.assertEquals(0, cache.eliminate());
 		
-		Assert.assertEquals("123", cache.hget("user:list", "a1"));
-		Assert.assertEquals("456", cache.hget("user:list", "a2"));
-		Assert.assertEquals("789", cache.hget("user:list", "a3"));
+		// 时间轮第一层每格约1秒，过两格后一定会被回收
+		Thread.sleep(2100);
+		Assert.assertEquals(101, cache.eliminate());
+		Assert.assertEquals(1001, cache.size());
+		Assert.assertEquals(null, cache.hget(-1, "a"));
+		Assert.assertEquals(Integer.valueOf(2), cache.hget(-1, "b"));
+	}
+	
+	@Test
+	public void testOffHeapCache(){
+		// 1段，16块，每块4K
+		OffHeapCache<Integer, String> cache = new OffHeapCache<Integer, String>(64 * 1024, 1, 4096, new StringCodec());
+		Assert.assertEquals(64 * 1024, cache.maxBytes());
+		
+		StringBuilder value = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			value.append('x');
+		}
+		for (int i = 0; i < 1000; i++) {
+			cache.set(i, i + value.toString());
+		}
+		// 写满一圈后最早写入的被覆盖
+		Assert.assertEquals(null, cache.get(0));
+		Assert.assertEquals(999 + value.toString(), cache.get(999));
+		Assert.assertTrue(cache.size() < 1000 && cache.size() > 500);
+		Assert.assertTrue(cache.usedBytes() <= cache.maxBytes());
+		
+		cache.set(999, "a");
+		Assert.assertEquals("a", cache.get(999));
+		cache.del(999);
+		Assert.assertEquals(null, cache.get(999));
+		
+		// 超过一块的对象不缓存
+		cache.set(998, new String(new char[5000]));
+		Assert.assertEquals(null, cache.get(998));
+		
+		cache.hset(1, "a", "1");
+		cache.hset(1, "b", "2");
+		Assert.assertEquals("1", cache.hget(1, "a"));
+		Assert.assertEquals(2, cache.flieds(1).size());
+		cache.del(1, "a");
+		Assert.assertEquals(null, cache.hget(1, "a"));
+		Assert.assertEquals("2", cache.hget(1, "b"));
+		
+		cache.clear();
+		Assert.assertTrue(cache.isEmpty());
+		Assert.assertEquals(0, cache.usedBytes());
+		cache.set(1, "a");
+		Assert.assertEquals("a", cache.get(1));
+		Assert.assertSame(cache, cache.cacheSize(10));
+		
+		Cache<String, Integer> serialized = new OffHeapCache<String, Integer>(1024 * 1024);
+		serialized.set("a", 1);
+		Assert.assertEquals(Integer.valueOf(1), serialized.get("a"));
+	}
+	
+	@Test
+	public void testTieredCache(){
+		Cache<Integer, String> l1 = new ConcurrentCache<Integer, String>(16, 1, EvictionPolicy.TINY_LFU);
+		TieredCache<Integer, String> cache = new TieredCache<Integer, String>(l1, new OffHeapCache<Integer, String>(1024 * 1024, new StringCodec()));
+		for (int i = 0; i < 100; i++) {
+			cache.set(i, "v" + i);
+		}
+		Assert.assertTrue(l1.size() <= 16);
+		Assert.assertEquals(100, cache.offHeap().size());
+		for (int i = 0; i < 100; i++) {
+			Assert.assertEquals("v" + i, cache.get(i));
+		}
+		
+		cache.set(50, "new");
+		Assert.assertEquals("new", cache.get(50));
+		cache.del(50);
+		Assert.assertEquals(null, cache.get(50));
+		Assert.assertEquals(null, l1.get(50));
+	}
+	
+	@Test
+	public void testWeightedCache(){
+		LRUCache<String, String> cache = new LRUCache<String, String>(0);
+		cache.weigher(new Weigher<String, String>() {
+			@Override
+			public int weigh(String key, String value) {
+				return value.length();
+			}
+		});
+		cache.maxWeight(100);
+		for (int i = 0; i < 20; i++) {
+			cache.set("k" + i, "0123456789");
+		}
+		Assert.assertEquals(10, cache.size());
+		Assert.assertEquals(100, cache.weight());
+		Assert.assertEquals(null, cache.get("k9"));
+		Assert.assertEquals("0123456789", cache.get("k10"));
+		
+		// 大对象淘汰最久没有访问的多个对象
+		cache.set("big", new String(new char[50]));
+		Assert.assertEquals(6, cache.size());
+		Assert.assertEquals(null, cache.get("k11"));
+		Assert.assertEquals("0123456789", cache.get("k10"));
+		
+		// hash类型的field同样计入权重
+		for (int i = 0; i < 20; i++) {
+			cache.hset("h", i, "0123456789");
+		}
+		Assert.assertTrue(cache.weight() <= 100);
+		Assert.assertEquals(cache.weight(), cache.stats().getWeight());
+		
+		cache.hdel("h");
+		cache.del("big");
+		cache.clear();
+		Assert.assertEquals(0, cache.weight());
+		
+		// 按访问顺序淘汰field，不淘汰正在写入的field
+		for (int i = 0; i < 10; i++) {
+			cache.set("k" + i, "0123456789");
+		}
+		for (int i = 0; i < 6; i++) {
+			cache.hset("h", i, "0123456789");
+		}
+		Assert.assertEquals("0123456789", cache.hget("h", 5));
+		Assert.assertEquals(100, cache.weight());
+		Assert.assertEquals(null, cache.hget("h", 0));
+		cache.hget("h", 1);
+		cache.hset("h", 6, "0123456789");
+		Assert.assertEquals("0123456789", cache.hget("h", 1));
+		Assert.assertEquals(null, cache.hget("h", 2));
+		Assert.assertEquals(100, cache.weight());
+		cache.clear();
+		
+		// 只超过权重时不调用eliminate，每次只淘汰一个
+		FIFOCache<Integer, String> fifo = new FIFOCache<Integer, String>(0);
+		fifo.maxWeight(3);
+		for (int i = 0; i < 10; i++) {
+			fifo.set(i, "v");
+		}
+		Assert.assertEquals(3, fifo.size());
+		
+		Weigher<String, Object> estimate = new EstimateWeigher<String, Object>();
+		Assert.assertTrue(estimate.weigh("a", new String(new char[1000])) > 2000);
+		Assert.assertTrue(estimate.weigh("a", new String(new char[1000])) > estimate.weigh("a", "b"));
 	}
 	
 }
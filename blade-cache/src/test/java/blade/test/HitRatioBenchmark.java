@@ -0,0 +1,96 @@
+package blade.test;
+
+import java.util.Random;
+
+import blade.cache.Cache;
+import blade.cache.impl.ConcurrentCache;
+import blade.cache.impl.EvictionPolicy;
+import blade.cache.impl.FIFOCache;
+import blade.cache.impl.LFUCache;
+import blade.cache.impl.LRUCache;
+
+/**
+ * 各缓存实现在Zipf分布访问下的命中率对比，直接运行main方法
+ */
+public class HitRatioBenchmark {
+	
+	private static final int ITEMS = 100000;
+	
+	private static final int REQUESTS = 1000000;
+	
+	public static void main(String[] args) {
+		double[] skews = { 0.8, 0.99 };
+		int[] sizes = { 500, 2000, 8000 };
+		for (double skew : skews) {
+			int[] trace = zipfTrace(ITEMS, skew, REQUESTS, 42);
+			System.out.println("zipf s=" + skew + ", items=" + ITEMS + ", requests=" + REQUESTS);
+			System.out.println(String.format("%-10s%10s%10s%10s%10s%10s%10s", "size", "FIFO", "LRU", "LFU",
+					"C-LRU", "C-LFU", "TinyLFU"));
+			for (int size : sizes) {
+				System.out.println(String.format("%-10d%10s%10s%10s%10s%10s%10s", size,
+						hitRatio(new FIFOCache<Integer, Integer>(size), trace),
+						hitRatio(new LRUCache<Integer, Integer>(size), trace),
+						hitRatio(new LFUCache<Integer, Integer>(size), trace),
+						hitRatio(new ConcurrentCache<Integer, Integer>(size, EvictionPolicy.LRU), trace),
+						hitRatio(new ConcurrentCache<Integer, Integer>(size, EvictionPolicy.LFU), trace),
+						hitRatio(new ConcurrentCache<Integer, Integer>(size, EvictionPolicy.TINY_LFU), trace)));
+			}
+			System.out.println();
+		}
+	}
+	
+	private static String hitRatio(Cache<Integer, Integer> cache, int[] trace) {
+		long hits = 0;
+		for (int key : trace) {
+			Integer k = Integer.valueOf(key);
+			if (null != cache.get(k)) {
+				hits++;
+			} else {
+				cache.set(k, k);
+			}
+		}
+		return String.format("%.2f%%", hits * 100.0 / trace.length);
+	}
+	
+	/**
+	 * 按Gray等人的方法生成Zipf分布，排名打散后作为key，避免热点都是小整数
+	 */
+	private static int[] zipfTrace(int items, double theta, int requests, long seed) {
+		double zetan = 0;
+		for (int i = 1; i <= items; i++) {
+			zetan += 1.0 / Math.pow(i, theta);
+		}
+		double zeta2 = 1.0 + 1.0 / Math.pow(2, theta);
+		double alpha = 1.0 / (1.0 - theta);
+		double eta = (1.0 - Math.pow(2.0 / items, 1.0 - theta)) / (1.0 - zeta2 / zetan);
+		
+		int[] keys = new int[items];
+		for (int i = 0; i < items; i++) {
+			keys[i] = i;
+		}
+		Random random = new Random(seed);
+		for (int i = items - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int tmp = keys[i];
+			keys[i] = keys[j];
+			keys[j] = tmp;
+		}
+		
+		int[] trace = new int[requests];
+		for (int i = 0; i < requests; i++) {
+			double u = random.nextDouble();
+			double uz = u * zetan;
+			int rank;
+			if (uz < 1.0) {
+				rank = 0;
+			} else if (uz < zeta2) {
+				rank = 1;
+			} else {
+				rank = (int) (items * Math.pow(eta * u - eta + 1.0, alpha));
+			}
+			trace[i] = keys[Math.min(rank, items - 1)];
+		}
+		return trace;
+	}
+	
+}
@@ -39,7 +39,12 @@ import com.blade.route.RouteException;
 import com.blade.route.RouteHandler;
 import com.blade.route.Routers;
 import com.blade.server.Server;
+import com.blade.server.ServerConfig;
+import com.blade.session.SessionStore;
+import com.blade.web.DispatchExecutor;
 import com.blade.web.http.HttpMethod;
+import com.blade.web.http.wrapper.ResponseCompressor;
+import com.blade.web.multipart.MultipartConfig;
 
 /**
  * Blade Core Class
@@ -99,6 +104,16 @@ public class Blade {
      */
     private Server bladeServer;
     
+    /**
+     * 异步请求线程池
+     */
+    private DispatchExecutor dispatchExecutor;
+    
+    /**
+     * 响应压缩
+     */
+    private ResponseCompressor responseCompressor;
+    
 	private Blade() {
 	}
 	
@@ -127,7 +142,7 @@ public class Blade {
 	 * @return			返回Blade封装的Server
 	 */
 	public Server createServer(int port){
-		return new Server(port, isAsyn);
+		return new Server(port, isAsyn, config.getServerConfig());
 	}
 	
 	/**
@@ -601,6 +616,113 @@ public class Blade {
 		return this;
 	}
 	
+	/**
+	 * 是否使用JDK虚拟线程执行请求，JDK不支持时使用普通线程池
+	 * 开启后请求在虚拟线程上同步执行，适合大量阻塞IO的控制器
+	 * 
+	 * @param virtualThreads	是否使用虚拟线程
+	 * @return					返回Blade单例对象
+	 */
+	public Blade virtualThreads(boolean virtualThreads){
+		config.getServerConfig().setVirtualThreads(virtualThreads);
+		return this;
+	}
+	
+	/**
+	 * 设置内嵌Jetty的配置，包括线程池、acceptor/selector数、超时和连接数等
+	 * 
+	 * @param serverConfig	Jetty配置
+	 * @return				返回Blade单例对象
+	 */
+	public Blade serverConfig(ServerConfig serverConfig){
+		config.setServerConfig(serverConfig);
+		return this;
+	}
+	
+	/**
+	 * 设置文件上传配置，包括内存阈值和临时文件目录
+	 * 
+	 * @param multipartConfig	文件上传配置
+	 * @return					返回Blade单例对象
+	 */
+	public Blade multipartConfig(MultipartConfig multipartConfig){
+		config.setMultipartConfig(multipartConfig);
+		return this;
+	}
+	
+	/**
+	 * 设置Session存储，设置后session由存储保存，不再使用容器的HttpSession
+	 * 
+	 * @param sessionStore	Session存储，如MemorySessionStore
+	 * @return				返回Blade单例对象
+	 */
+	public Blade sessionStore(SessionStore sessionStore){
+		config.setSessionStore(sessionStore);
+		return this;
+	}
+	
+	/**
+	 * 设置异步请求线程池大小
+	 * 
+	 * @param coreThreads	核心线程数
+	 * @param maxThreads	最大线程数
+	 * @return				返回Blade单例实例
+	 */
+	public Blade dispatchThreads(int coreThreads, int maxThreads){
+		config.setDispatchCoreThreads(coreThreads);
+		config.setDispatchMaxThreads(maxThreads);
+		return this;
+	}
+	
+	/**
+	 * 设置异步请求等待队列长度，队列满时新请求返回503
+	 * 
+	 * @param queueSize		队列长度
+	 * @return				返回Blade单例实例
+	 */
+	public Blade dispatchQueue(int queueSize){
+		config.setDispatchQueueSize(queueSize);
+		return this;
+	}
+	
+	/**
+	 * 设置异步请求默认超时时间，路由上可以单独设置
+	 * 
+	 * @param timeout		超时时间，单位毫秒
+	 * @return				返回Blade单例实例
+	 */
+	public Blade asyncTimeout(long timeout){
+		config.setAsyncTimeout(timeout);
+		return this;
+	}
+	
+	/**
+	 * 是否开启gzip/deflate响应压缩
+	 * 
+	 * @param enable		是否开启
+	 * @return				返回Blade单例实例
+	 */
+	public Blade compress(boolean enable){
+		config.setCompressEnabled(enable);
+		return this;
+	}
+	
+	/**
+	 * 开启响应压缩，并设置最小压缩大小和需要压缩的MIME类型
+	 * 
+	 * @param minSize		小于该大小的响应不压缩，单位字节
+	 * @param mimeTypes		需要压缩的MIME类型，如：application/json
+	 * @return				返回Blade单例实例
+	 */
+	public Blade compress(int minSize, String... mimeTypes){
+		config.setCompressEnabled(true);
+		config.setCompressMinSize(minSize);
+		if(null != mimeTypes && mimeTypes.length > 0){
+			config.setCompressMimeTypes(mimeTypes);
+		}
+		return this;
+	}
+	
 	/**
 	 * 设置jetty启动上下文
 	 * 
@@ -608,7 +730,7 @@ public class Blade {
 	 */
 	public void start(String contextPath) {
 		try {
-			bladeServer = new Server(this.port, this.isAsyn);
+			bladeServer = createServer(this.port);
 			bladeServer.start(contextPath);
 		} catch (Exception e) {
 			throw new RuntimeException(e);
@@ -745,6 +867,57 @@ public class Blade {
 		return render;
 	}
 
+	/**
+	 * @return	返回内嵌Jetty的配置
+	 */
+	public ServerConfig serverConfig(){
+		return config.getServerConfig();
+	}
+	
+	/**
+	 * @return	返回文件上传配置
+	 */
+	public MultipartConfig multipartConfig(){
+		return config.getMultipartConfig();
+	}
+	
+	/**
+	 * @return	返回Session存储，没有设置时返回null
+	 */
+	public SessionStore sessionStore(){
+		return config.getSessionStore();
+	}
+	
+	/**
+	 * @return	返回异步请求默认超时时间
+	 */
+	public long asyncTimeout(){
+		return config.getAsyncTimeout();
+	}
+	
+	/**
+	 * @return	返回异步请求线程池，第一次调用时按配置创建
+	 */
+	public synchronized DispatchExecutor executor(){
+		// Servlet销毁时线程池已关闭，重新初始化时重新创建
+		if(null == dispatchExecutor || dispatchExecutor.isShutdown()){
+			dispatchExecutor = new DispatchExecutor(config.getDispatchCoreThreads(), 
+					config.getDispatchMaxThreads(), config.getDispatchQueueSize());
+		}
+		return dispatchExecutor;
+	}
+	
+	/**
+	 * @return	返回响应压缩，没有开启压缩时返回null
+	 */
+	public synchronized ResponseCompressor compressor(){
+		if(null == responseCompressor && config.isCompressEnabled()){
+			responseCompressor = new ResponseCompressor(config.getCompressMinSize(), config.getCompressMimeTypes(), 
+					config.getCompressLevel(), config.getDispatchMaxThreads());
+		}
+		return responseCompressor;
+	}
+	
 	/**
 	 * @return	返回是否启用XSS防御
 	 */
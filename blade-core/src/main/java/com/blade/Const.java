@@ -40,6 +40,18 @@ public interface Const {
 	String VIEW_NOTFOUND = "<html><head><title>404 Not Found</title></head><body bgcolor=\"white\"><center><h1>[ %s ] Not Found</h1></center><hr><center>blade "
 			+ BLADE_VERSION +"</center></body></html>";
 	
+	/**
+	 * 上传内容超过限制时返回的HTML
+	 */
+	String REQUEST_ENTITY_TOO_LARGE = "<html><head><title>413 Request Entity Too Large</title></head><body bgcolor=\"white\"><center><h1>413 Request Entity Too Large</h1></center><hr><center>blade "
+			+ BLADE_VERSION +"</center></body></html>";
+	
+	/**
+	 * 服务繁忙、请求被拒绝或超时时返回的HTML
+	 */
+	String SERVICE_UNAVAILABLE = "<html><head><title>503 Service Unavailable</title></head><body bgcolor=\"white\"><center><h1>503 Service Unavailable</h1></center><hr><center>blade "
+			+ BLADE_VERSION +"</center></body></html>";
+	
 	/**
 	 * jetty默认端口
 	 */
@@ -49,4 +61,9 @@ public interface Const {
 	 * 请求线程池context key
 	 */
 	String BLADE_EXECUTOR = "blade-req-executor";
+	
+	/**
+	 * 使用SessionStore时保存session id的Cookie名称
+	 */
+	String SESSION_COOKIE = "BLADESESSIONID";
 }
@@ -61,4 +61,24 @@ public @interface Route {
 	 */
 	String[] values() default {};
 	
+	/**
+	 * @return 异步请求超时时间，单位毫秒，0表示使用全局配置
+	 */
+	long timeout() default 0;
+	
+	/**
+	 * @return 上传时单个部分的最大字节数，0表示使用全局配置，-1表示不限制
+	 */
+	long maxPartSize() default 0;
+	
+	/**
+	 * @return 上传时请求体的最大字节数，0表示使用全局配置，-1表示不限制
+	 */
+	long maxRequestSize() default 0;
+	
+	/**
+	 * @return 上传时最多允许的部分个数，0表示使用全局配置，-1表示不限制
+	 */
+	int maxParts() default 0;
+	
 }
\ No newline at end of file
@@ -22,6 +22,10 @@ import java.util.Map;
 import blade.kit.CollectionKit;
 import blade.kit.PatternKit;
 
+import com.blade.server.ServerConfig;
+import com.blade.session.SessionStore;
+import com.blade.web.multipart.MultipartConfig;
+
 /**
  * Blade配置类
  * 
@@ -73,6 +77,46 @@ public class Config {
 	// 是否开启XSS防御
 	private boolean enableXSS = false;
 	
+	// 异步请求线程池核心线程数
+	private int dispatchCoreThreads = Runtime.getRuntime().availableProcessors() * 2;
+	
+	// 异步请求线程池最大线程数
+	private int dispatchMaxThreads = 200;
+	
+	// 异步请求等待队列长度
+	private int dispatchQueueSize = 1024;
+	
+	// 异步请求默认超时时间，单位毫秒
+	private long asyncTimeout = 10000L;
+	
+	// 静态文件缓存的文件个数
+	private int staticCacheSize = 256;
+	
+	// 小于等于该大小的静态文件缓存在内存中，单位字节
+	private int staticCacheFileSize = 64 * 1024;
+	
+	// 是否开启响应压缩
+	private boolean compressEnabled = false;
+	
+	// 小于该大小的响应不压缩，单位字节
+	private int compressMinSize = 1024;
+	
+	// 需要压缩的MIME类型
+	private String[] compressMimeTypes = { "text/html", "text/plain", "text/xml", "text/css", "text/javascript",
+			"application/javascript", "application/json", "application/xml" };
+	
+	// 压缩级别，-1为zlib默认级别
+	private int compressLevel = -1;
+	
+	// 内嵌Jetty配置
+	private ServerConfig serverConfig = new ServerConfig();
+	
+	// 文件上传配置
+	private MultipartConfig multipartConfig = new MultipartConfig();
+	
+	// Session存储，为空时使用容器的HttpSession
+	private SessionStore sessionStore;
+	
 	public Config() {
 	}
 	
@@ -236,4 +280,108 @@ public class Config {
 		this.enableXSS = enableXSS;
 	}
 
+	public int getDispatchCoreThreads() {
+		return dispatchCoreThreads;
+	}
+
+	public void setDispatchCoreThreads(int dispatchCoreThreads) {
+		this.dispatchCoreThreads = dispatchCoreThreads;
+	}
+
+	public int getDispatchMaxThreads() {
+		return dispatchMaxThreads;
+	}
+
+	public void setDispatchMaxThreads(int dispatchMaxThreads) {
+		this.dispatchMaxThreads = dispatchMaxThreads;
+	}
+
+	public int getDispatchQueueSize() {
+		return dispatchQueueSize;
+	}
+
+	public void setDispatchQueueSize(int dispatchQueueSize) {
+		this.dispatchQueueSize = dispatchQueueSize;
+	}
+
+	public long getAsyncTimeout() {
+		return asyncTimeout;
+	}
+
+	public void setAsyncTimeout(long asyncTimeout) {
+		this.asyncTimeout = asyncTimeout;
+	}
+	
+	public int getStaticCacheSize() {
+		return staticCacheSize;
+	}
+
+	public void setStaticCacheSize(int staticCacheSize) {
+		this.staticCacheSize = staticCacheSize;
+	}
+
+	public int getStaticCacheFileSize() {
+		return staticCacheFileSize;
+	}
+
+	public void setStaticCacheFileSize(int staticCacheFileSize) {
+		this.staticCacheFileSize = staticCacheFileSize;
+	}
+	
+	public boolean isCompressEnabled() {
+		return compressEnabled;
+	}
+
+	public void setCompressEnabled(boolean compressEnabled) {
+		this.compressEnabled = compressEnabled;
+	}
+
+	public int getCompressMinSize() {
+		return compressMinSize;
+	}
+
+	public void setCompressMinSize(int compressMinSize) {
+		this.compressMinSize = compressMinSize;
+	}
+
+	public String[] getCompressMimeTypes() {
+		return compressMimeTypes;
+	}
+
+	public void setCompressMimeTypes(String... compressMimeTypes) {
+		this.compressMimeTypes = compressMimeTypes;
+	}
+
+	public int getCompressLevel() {
+		return compressLevel;
+	}
+
+	public void setCompressLevel(int compressLevel) {
+		this.compressLevel = compressLevel;
+	}
+	
+	public ServerConfig getServerConfig() {
+		return serverConfig;
+	}
+
+	public void setServerConfig(ServerConfig serverConfig) {
+		this.serverConfig = serverConfig;
+	}
+	
+	public MultipartConfig getMultipartConfig() {
+		return multipartConfig;
+	}
+
+	public void setMultipartConfig(MultipartConfig multipartConfig) {
+		this.multipartConfig = multipartConfig;
+	}
+	
+	public SessionStore getSessionStore() {
+		return sessionStore;
+	}
+
+	public void setSessionStore(SessionStore sessionStore) {
+		this.sessionStore = sessionStore;
+	}
+
 }
@@ -19,6 +19,9 @@ import java.util.Map;
 
 import blade.kit.StringKit;
 
+import com.blade.server.ServerConfig;
+import com.blade.web.multipart.MultipartConfig;
+
 /**
  * Blade配置文件注入
  * 
@@ -50,6 +53,32 @@ public class Configurator {
 	private static final String BLADE_VIEW_500 = "blade.view500";
 	private static final String BLADE_DEBUG = "blade.debug";
 	private static final String BLADE_ENABLEXSS = "blade.enableXSS";
+	private static final String BLADE_DISPATCH_CORE_THREADS = "blade.dispatch.core_threads";
+	private static final String BLADE_DISPATCH_MAX_THREADS = "blade.dispatch.max_threads";
+	private static final String BLADE_DISPATCH_QUEUE_SIZE = "blade.dispatch.queue_size";
+	private static final String BLADE_ASYNC_TIMEOUT = "blade.async.timeout";
+	private static final String BLADE_STATIC_CACHE_SIZE = "blade.static.cache_size";
+	private static final String BLADE_STATIC_CACHE_FILE_SIZE = "blade.static.cache_file_size";
+	private static final String BLADE_COMPRESS_ENABLE = "blade.compress.enable";
+	private static final String BLADE_COMPRESS_MIN_SIZE = "blade.compress.min_size";
+	private static final String BLADE_COMPRESS_MIME_TYPES = "blade.compress.mime_types";
+	private static final String BLADE_COMPRESS_LEVEL = "blade.compress.level";
+	private static final String BLADE_SERVER_MIN_THREADS = "blade.server.min_threads";
+	private static final String BLADE_SERVER_MAX_THREADS = "blade.server.max_threads";
+	private static final String BLADE_SERVER_THREAD_IDLE_TIMEOUT = "blade.server.thread_idle_timeout";
+	private static final String BLADE_SERVER_ACCEPTORS = "blade.server.acceptors";
+	private static final String BLADE_SERVER_SELECTORS = "blade.server.selectors";
+	private static final String BLADE_SERVER_IDLE_TIMEOUT = "blade.server.idle_timeout";
+	private static final String BLADE_SERVER_ACCEPT_QUEUE_SIZE = "blade.server.accept_queue_size";
+	private static final String BLADE_SERVER_OUTPUT_BUFFER_SIZE = "blade.server.output_buffer_size";
+	private static final String BLADE_SERVER_MAX_CONNECTIONS = "blade.server.max_connections";
+	private static final String BLADE_SERVER_RESOURCE_BASE = "blade.server.resource_base";
+	private static final String BLADE_SERVER_VIRTUAL_THREADS = "blade.server.virtual_threads";
+	private static final String BLADE_MULTIPART_MEMORY_THRESHOLD = "blade.multipart.memory_threshold";
+	private static final String BLADE_MULTIPART_REPOSITORY = "blade.multipart.repository";
+	private static final String BLADE_MULTIPART_MAX_PART_SIZE = "blade.multipart.max_part_size";
+	private static final String BLADE_MULTIPART_MAX_REQUEST_SIZE = "blade.multipart.max_request_size";
+	private static final String BLADE_MULTIPART_MAX_PARTS = "blade.multipart.max_parts";
 	
 	public void run() {
 		
@@ -68,6 +97,16 @@ public class Configurator {
 			String view500 = configMap.get(BLADE_VIEW_500);
 			String debug = configMap.get(BLADE_DEBUG);
 			String xss = configMap.get(BLADE_ENABLEXSS);
+			Integer coreThreads = bladeConfig.getAsInt(BLADE_DISPATCH_CORE_THREADS);
+			Integer maxThreads = bladeConfig.getAsInt(BLADE_DISPATCH_MAX_THREADS);
+			Integer queueSize = bladeConfig.getAsInt(BLADE_DISPATCH_QUEUE_SIZE);
+			Long asyncTimeout = bladeConfig.getAsLong(BLADE_ASYNC_TIMEOUT);
+			Integer staticCacheSize = bladeConfig.getAsInt(BLADE_STATIC_CACHE_SIZE);
+			Integer staticCacheFileSize = bladeConfig.getAsInt(BLADE_STATIC_CACHE_FILE_SIZE);
+			String compressEnable = configMap.get(BLADE_COMPRESS_ENABLE);
+			Integer compressMinSize = bladeConfig.getAsInt(BLADE_COMPRESS_MIN_SIZE);
+			String compressMimeTypes = configMap.get(BLADE_COMPRESS_MIME_TYPES);
+			Integer compressLevel = bladeConfig.getAsInt(BLADE_COMPRESS_LEVEL);
 			
 			if (StringKit.isNotBlank(route)) {
 				String[] blade_routes = StringKit.split(route, ",");
@@ -117,6 +156,135 @@ public class Configurator {
 				Boolean enableXssBool = Boolean.valueOf(xss);
 				bladeConfig.setEnableXSS(enableXssBool);
 			}
+			
+			if (null != coreThreads) {
+				bladeConfig.setDispatchCoreThreads(coreThreads);
+			}
+			
+			if (null != maxThreads) {
+				bladeConfig.setDispatchMaxThreads(maxThreads);
+			}
+			
+			if (null != queueSize) {
+				bladeConfig.setDispatchQueueSize(queueSize);
+			}
+			
+			if (null != asyncTimeout) {
+				bladeConfig.setAsyncTimeout(asyncTimeout);
+			}
+			
+			if (null != staticCacheSize) {
+				bladeConfig.setStaticCacheSize(staticCacheSize);
+			}
+			
+			if (null != staticCacheFileSize) {
+				bladeConfig.setStaticCacheFileSize(staticCacheFileSize);
+			}
+			
+			if (StringKit.isNotBlank(compressEnable)) {
+				bladeConfig.setCompressEnabled(Boolean.valueOf(compressEnable));
+			}
+			
+			if (null != compressMinSize) {
+				bladeConfig.setCompressMinSize(compressMinSize);
+			}
+			
+			if (StringKit.isNotBlank(compressMimeTypes)) {
+				bladeConfig.setCompressMimeTypes(StringKit.split(compressMimeTypes, ","));
+			}
+			
+			if (null != compressLevel) {
+				bladeConfig.setCompressLevel(compressLevel);
+			}
+			
+			configServer(bladeConfig.getServerConfig());
+			configMultipart(bladeConfig.getMultipartConfig());
+		}
+	}
+	
+	private void configMultipart(MultipartConfig multipartConfig) {
+		Integer memoryThreshold = bladeConfig.getAsInt(BLADE_MULTIPART_MEMORY_THRESHOLD);
+		String repository = configMap.get(BLADE_MULTIPART_REPOSITORY);
+		Long maxPartSize = bladeConfig.getAsLong(BLADE_MULTIPART_MAX_PART_SIZE);
+		Long maxRequestSize = bladeConfig.getAsLong(BLADE_MULTIPART_MAX_REQUEST_SIZE);
+		Integer maxParts = bladeConfig.getAsInt(BLADE_MULTIPART_MAX_PARTS);
+		
+		if (null != memoryThreshold) {
+			multipartConfig.setMemoryThreshold(memoryThreshold);
+		}
+		
+		if (StringKit.isNotBlank(repository)) {
+			multipartConfig.setRepository(repository);
+		}
+		
+		if (null != maxPartSize) {
+			multipartConfig.setMaxPartSize(maxPartSize);
+		}
+		
+		if (null != maxRequestSize) {
+			multipartConfig.setMaxRequestSize(maxRequestSize);
+		}
+		
+		if (null != maxParts) {
+			multipartConfig.setMaxParts(maxParts);
+		}
+	}
+	
+	private void configServer(ServerConfig serverConfig) {
+		Integer minThreads = bladeConfig.getAsInt(BLADE_SERVER_MIN_THREADS);
+		Integer maxThreads = bladeConfig.getAsInt(BLADE_SERVER_MAX_THREADS);
+		Integer threadIdleTimeout = bladeConfig.getAsInt(BLADE_SERVER_THREAD_IDLE_TIMEOUT);
+		Integer acceptors = bladeConfig.getAsInt(BLADE_SERVER_ACCEPTORS);
+		Integer selectors = bladeConfig.getAsInt(BLADE_SERVER_SELECTORS);
+		Long idleTimeout = bladeConfig.getAsLong(BLADE_SERVER_IDLE_TIMEOUT);
+		Integer acceptQueueSize = bladeConfig.getAsInt(BLADE_SERVER_ACCEPT_QUEUE_SIZE);
+		Integer outputBufferSize = bladeConfig.getAsInt(BLADE_SERVER_OUTPUT_BUFFER_SIZE);
+		Integer maxConnections = bladeConfig.getAsInt(BLADE_SERVER_MAX_CONNECTIONS);
+		String resourceBase = configMap.get(BLADE_SERVER_RESOURCE_BASE);
+		String virtualThreads = configMap.get(BLADE_SERVER_VIRTUAL_THREADS);
+		
+		if (null != minThreads) {
+			serverConfig.setMinThreads(minThreads);
+		}
+		
+		if (null != maxThreads) {
+			serverConfig.setMaxThreads(maxThreads);
+		}
+		
+		if (null != threadIdleTimeout) {
+			serverConfig.setThreadIdleTimeout(threadIdleTimeout);
+		}
+		
+		if (null != acceptors) {
+			serverConfig.setAcceptors(acceptors);
+		}
+		
+		if (null != selectors) {
+			serverConfig.setSelectors(selectors);
+		}
+		
+		if (null != idleTimeout) {
+			serverConfig.setIdleTimeout(idleTimeout);
+		}
+		
+		if (null != acceptQueueSize) {
+			serverConfig.setAcceptQueueSize(acceptQueueSize);
+		}
+		
+		if (null != outputBufferSize) {
+			serverConfig.setOutputBufferSize(outputBufferSize);
+		}
+		
+		if (null != maxConnections) {
+			serverConfig.setMaxConnections(maxConnections);
+		}
+		
+		if (StringKit.isNotBlank(resourceBase)) {
+			serverConfig.setResourceBase(resourceBase);
+		}
+		
+		if (StringKit.isNotBlank(virtualThreads)) {
+			serverConfig.setVirtualThreads(Boolean.valueOf(virtualThreads));
 		}
 	}
 }
\ No newline at end of file
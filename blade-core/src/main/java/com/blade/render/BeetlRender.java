@@ -17,8 +17,6 @@ package com.blade.render;
 
 import java.io.IOException;
 import java.io.Writer;
-import java.util.Map;
-import java.util.Set;
 
 import org.beetl.core.Configuration;
 import org.beetl.core.GroupTemplate;
@@ -29,7 +27,6 @@ import org.beetl.core.resource.WebAppResourceLoader;
 import com.blade.Blade;
 import com.blade.context.BladeWebContext;
 import com.blade.web.http.Request;
-import com.blade.web.http.wrapper.Session;
 
 import blade.kit.log.Logger;
 
@@ -96,31 +93,12 @@ public class BeetlRender implements Render {
 	@Override
 	public void render(ModelAndView modelAndView, Writer writer) throws RenderException {
 		Request request = BladeWebContext.request();
-		Session session = request.session();
 		
 		Template template = groupTemplate.getTemplate(modelAndView.getView());
 		
-		Map<String, Object> context = modelAndView.getModel();
-		if(null != context && context.size() > 0){
-			Set<String> keys = context.keySet();
-			for(String key : keys){
-				template.binding(key, context.get(key));
-			}
-		}
-		
-		Set<String> attrs = request.attributes();
-		if(null != attrs && attrs.size() > 0){
-			for(String attr : attrs){
-				template.binding(attr, request.attribute(attr));
-			}
-		}
+		// Beetl只按模板中用到的变量名取值，request和session中的属性在用到时才查找
+		template.fastBinding(new RenderContext(modelAndView.getModel(), request));
 		
-		Set<String> session_attrs = session.attributes();
-		if(null != session_attrs && session_attrs.size() > 0){
-			for(String attr : session_attrs){
-				template.binding(attr, session.attribute(attr));
-			}
-		}
 		try {
 			template.renderTo(writer);
 		} catch (BeetlException e) {
@@ -19,14 +19,12 @@ import java.io.IOException;
 import java.io.Writer;
 import java.util.Map;
 import java.util.Properties;
-import java.util.Set;
 
 import com.blade.Blade;
 import com.blade.context.BladeWebContext;
 import com.blade.render.ModelAndView;
 import com.blade.render.Render;
 import com.blade.web.http.Request;
-import com.blade.web.http.wrapper.Session;
 
 import blade.kit.log.Logger;
 import jetbrick.template.JetEngine;
@@ -128,25 +126,11 @@ public class JetbrickRender implements Render {
 	@Override
 	public void render(ModelAndView modelAndView, Writer writer) {
 		Request request = BladeWebContext.request();
-		Session session = request.session();
 		
 		JetTemplate template = jetEngine.getTemplate(modelAndView.getView());
 		
-		Map<String, Object> context = modelAndView.getModel();
-		
-		Set<String> attrs = request.attributes();
-		if(null != attrs && attrs.size() > 0){
-			for(String attr : attrs){
-				context.put(attr, request.attribute(attr));
-			}
-		}
-		
-		Set<String> session_attrs = session.attributes();
-		if(null != session_attrs && session_attrs.size() > 0){
-			for(String attr : session_attrs){
-				context.put(attr, session.attribute(attr));
-			}
-		}
+		// request和session中的属性在模板用到时才查找
+		Map<String, Object> context = new RenderContext(modelAndView.getModel(), request);
 		
 		try {
 			template.render(context, writer);
@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blade.render;
+
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.blade.web.http.Request;
+import com.blade.web.http.wrapper.Session;
+
+/**
+ *
+ * <p>
+ * 模板渲染上下文，按名称依次从数据模型、request属性、session属性中查找变量。
+ * 只在模板真正用到某个变量时才去查找，session只取已经存在的，不会因为渲染而创建
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public class RenderContext extends AbstractMap<String, Object> {
+
+	private final Map<String, Object> model;
+
+	private final Request request;
+
+	/**
+	 * 模板中设置的变量，不写回数据模型
+	 */
+	private Map<String, Object> locals;
+
+	private Session session;
+
+	private boolean sessionResolved;
+
+	public RenderContext(Map<String, Object> model, Request request) {
+		this.model = model;
+		this.request = request;
+	}
+
+	@Override
+	public Object get(Object key) {
+		if (null != locals && locals.containsKey(key)) {
+			return locals.get(key);
+		}
+		if (null != model && model.containsKey(key)) {
+			return model.get(key);
+		}
+		if (!(key instanceof String)) {
+			return null;
+		}
+		String name = (String) key;
+		if (null != request) {
+			Object value = request.attribute(name);
+			if (null != value) {
+				return value;
+			}
+		}
+		Session session = session();
+		return null != session ? session.attribute(name) : null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		if ((null != locals && locals.containsKey(key)) || (null != model && model.containsKey(key))) {
+			return true;
+		}
+		return null != get(key);
+	}
+
+	@Override
+	public Object put(String key, Object value) {
+		Object old = get(key);
+		if (null == locals) {
+			locals = new HashMap<String, Object>();
+		}
+		locals.put(key, value);
+		return old;
+	}
+
+	@Override
+	public Object remove(Object key) {
+		Object old = get(key);
+		if (null != locals) {
+			locals.remove(key);
+		}
+		return old;
+	}
+
+	/**
+	 * 遍历时才合并所有变量，优先级和{@link #get(Object)}一致
+	 */
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		Map<String, Object> all = new LinkedHashMap<String, Object>();
+		Session session = session();
+		if (null != session) {
+			for (String name : session.attributes()) {
+				all.put(name, session.attribute(name));
+			}
+		}
+		if (null != request) {
+			Set<String> attrs = request.attributes();
+			if (null != attrs) {
+				for (String name : attrs) {
+					all.put(name, request.attribute(name));
+				}
+			}
+		}
+		if (null != model) {
+			all.putAll(model);
+		}
+		if (null != locals) {
+			all.putAll(locals);
+		}
+		return all.entrySet();
+	}
+
+	/**
+	 * 取已经存在的session，只查找一次
+	 */
+	private Session session() {
+		if (!sessionResolved) {
+			sessionResolved = true;
+			if (null != request) {
+				session = request.session(false);
+			}
+		}
+		return session;
+	}
+
+}
@@ -21,7 +21,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.Writer;
 import java.util.Properties;
-import java.util.Set;
 
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
@@ -31,7 +30,6 @@ import org.apache.velocity.app.VelocityEngine;
 import com.blade.Blade;
 import com.blade.context.BladeWebContext;
 import com.blade.web.http.Request;
-import com.blade.web.http.wrapper.Session;
 
 import blade.kit.log.Logger;
 
@@ -110,23 +108,9 @@ public class VelocityRender implements Render {
 	@Override
 	public void render(ModelAndView modelAndView, Writer writer) throws RenderException {
 		Request request = BladeWebContext.request();
-		Session session = request.session();
 		
-		VelocityContext context = new VelocityContext(modelAndView.getModel());
-		
-		Set<String> attrs = request.attributes();
-		if(null != attrs && attrs.size() > 0){
-			for(String attr : attrs){
-				context.put(attr, request.attribute(attr));
-			}
-		}
-		
-		Set<String> session_attrs = session.attributes();
-		if(null != session_attrs && session_attrs.size() > 0){
-			for(String attr : session_attrs){
-				context.put(attr, session.attribute(attr));
-			}
-		}
+		// request和session中的属性在模板用到时才查找
+		VelocityContext context = new VelocityContext(new RenderContext(modelAndView.getModel(), request));
 		
 		try {
 			Template template = velocityEngine.getTemplate(modelAndView.getView());
@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blade.route;
+
+import java.lang.reflect.Method;
+
+import net.sf.cglib.reflect.FastClass;
+import net.sf.cglib.reflect.FastMethod;
+
+/**
+ *
+ * <p>
+ * 基于cglib FastClass生成的调用器，按方法下标直接调用，不走反射
+ * 只在classpath中存在cglib时使用
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+final class FastClassInvoker implements MethodInvoker {
+
+	private final FastMethod fastMethod;
+
+	FastClassInvoker(Method method) {
+		FastClass fastClass = FastClass.create(method.getDeclaringClass());
+		this.fastMethod = fastClass.getMethod(method);
+	}
+
+	@Override
+	public Object invoke(Object target, Object[] args) throws Exception {
+		return fastMethod.invoke(target, args);
+	}
+
+}
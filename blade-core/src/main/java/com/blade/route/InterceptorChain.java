@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blade.route;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ *
+ * <p>
+ * 预先计算好的拦截器链，挂在路由对象上，请求时直接遍历数组执行
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public final class InterceptorChain {
+
+	public static final InterceptorChain EMPTY = new InterceptorChain(new Route[0], new Pattern[0]);
+
+	/**
+	 * 按执行顺序排列的拦截器
+	 */
+	private final Route[] interceptors;
+
+	/**
+	 * 与拦截器一一对应的匹配条件，为null表示启动时已确定一定匹配
+	 */
+	private final Pattern[] conditions;
+
+	InterceptorChain(Route[] interceptors, Pattern[] conditions) {
+		this.interceptors = interceptors;
+		this.conditions = conditions;
+	}
+
+	static InterceptorChain of(List<Route> interceptors, List<Pattern> conditions) {
+		if (interceptors.isEmpty()) {
+			return EMPTY;
+		}
+		Route[] routeArr = interceptors.toArray(new Route[interceptors.size()]);
+		Pattern[] conditionArr = conditions.toArray(new Pattern[conditions.size()]);
+		return new InterceptorChain(routeArr, conditionArr);
+	}
+
+	/**
+	 * @return	拦截器个数
+	 */
+	public int size() {
+		return interceptors.length;
+	}
+
+	/**
+	 * @param index	下标
+	 * @return		返回下标对应的拦截器
+	 */
+	public Route get(int index) {
+		return interceptors[index];
+	}
+
+	/**
+	 * 判断下标对应的拦截器是否作用于该路径
+	 *
+	 * @param index	下标
+	 * @param path	请求路径
+	 * @return		返回是否需要执行
+	 */
+	public boolean matches(int index, String path) {
+		Pattern condition = conditions[index];
+		return null == condition || condition.matcher(path).matches();
+	}
+
+}
@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blade.route;
+
+/**
+ *
+ * <p>
+ * 路由方法调用器
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public interface MethodInvoker {
+
+	/**
+	 * 调用目标方法
+	 *
+	 * @param target	方法所在对象
+	 * @param args		参数数组
+	 * @return			返回方法执行后的返回值
+	 * @throws Exception	方法执行抛出的异常
+	 */
+	Object invoke(Object target, Object[] args) throws Exception;
+
+}
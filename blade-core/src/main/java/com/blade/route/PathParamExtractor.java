@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blade.route;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.blade.web.http.Path;
+
+/**
+ *
+ * <p>
+ * 路径参数提取器，注册路由时编译一次，请求时按段遍历路径取出参数值
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public final class PathParamExtractor {
+
+	private static final int STATIC = 0;
+
+	private static final int PARAM = 1;
+
+	private static final int SPLAT = 2;
+
+	/**
+	 * 每一段的类型
+	 */
+	private final int[] kinds;
+
+	/**
+	 * 参数段的参数名，非参数段为null
+	 */
+	private final String[] names;
+
+	/**
+	 * 参数段在参数名前、后的固定字符长度，如 :id.html 的后缀长度为5
+	 */
+	private final int[] prefixLengths;
+
+	private final int[] suffixLengths;
+
+	/**
+	 * 正则路由的参数名和预编译正则
+	 */
+	private final List<String> regexNames;
+
+	private final Pattern pattern;
+
+	private final boolean hasParams;
+
+	private PathParamExtractor(int[] kinds, String[] names, int[] prefixLengths, int[] suffixLengths,
+			List<String> regexNames, Pattern pattern) {
+		this.kinds = kinds;
+		this.names = names;
+		this.prefixLengths = prefixLengths;
+		this.suffixLengths = suffixLengths;
+		this.regexNames = regexNames;
+		this.pattern = pattern;
+		this.hasParams = null != pattern || (null != names && countParams(names) > 0);
+	}
+
+	/**
+	 * 编译一个路由路径
+	 *
+	 * @param routePath	路由路径，如：/user/:id
+	 * @return			返回参数提取器
+	 */
+	public static PathParamExtractor compile(String routePath) {
+		if (RouteTrie.isRegex(routePath)) {
+			List<String> regexNames = new ArrayList<String>();
+			Matcher matcher = Pattern.compile(Path.VAR_REGEXP).matcher(routePath);
+			while (matcher.find()) {
+				regexNames.add(matcher.group(1));
+			}
+			Pattern pattern = null;
+			if (regexNames.size() > 0) {
+				pattern = Pattern.compile("(?i)" + routePath.replaceAll(Path.VAR_REGEXP, Path.VAR_REPLACE));
+			}
+			return new PathParamExtractor(null, null, null, null, regexNames, pattern);
+		}
+
+		List<String> parts = Path.convertRouteToList(routePath);
+		int len = parts.size();
+		int[] kinds = new int[len];
+		String[] names = new String[len];
+		int[] prefixLengths = new int[len];
+		int[] suffixLengths = new int[len];
+		for (int i = 0; i < len; i++) {
+			String part = parts.get(i);
+			if (Path.isSplat(part)) {
+				kinds[i] = SPLAT;
+			} else if (part.indexOf(':') != -1) {
+				int idx = part.indexOf(':');
+				int nameEnd = idx + 1;
+				while (nameEnd < part.length() && RouteTrie.isWordChar(part.charAt(nameEnd))) {
+					nameEnd++;
+				}
+				kinds[i] = PARAM;
+				names[i] = part.substring(idx + 1, nameEnd);
+				prefixLengths[i] = idx;
+				suffixLengths[i] = part.length() - nameEnd;
+			} else {
+				kinds[i] = STATIC;
+			}
+		}
+		return new PathParamExtractor(kinds, names, prefixLengths, suffixLengths, null, null);
+	}
+
+	/**
+	 * @return	路由路径上是否有参数
+	 */
+	public boolean hasParams() {
+		return hasParams;
+	}
+
+	private static int countParams(String[] names) {
+		int count = 0;
+		for (String name : names) {
+			if (null != name) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * 从请求路径中取出参数放入params
+	 *
+	 * @param path		请求路径，不含contextPath
+	 * @param params	存放参数的map
+	 */
+	public void extract(String path, Map<String, String> params) {
+		if (null == kinds) {
+			if (null != pattern) {
+				Matcher matcher = pattern.matcher(path);
+				if (matcher.matches()) {
+					// group(0)是整个表达式，参数从1开始
+					for (int i = 1; i <= regexNames.size(); i++) {
+						params.put(regexNames.get(i - 1), matcher.group(i));
+					}
+				}
+			}
+			return;
+		}
+
+		int pos = 0;
+		int end = path.length();
+		for (int i = 0; i < kinds.length; i++) {
+			while (pos < end && path.charAt(pos) == '/') {
+				pos++;
+			}
+			if (pos == end) {
+				return;
+			}
+			int segEnd = path.indexOf('/', pos);
+			if (segEnd == -1) {
+				segEnd = end;
+			}
+			if (kinds[i] == SPLAT && i == kinds.length - 1) {
+				return;
+			}
+			if (kinds[i] == PARAM) {
+				int start = pos + prefixLengths[i];
+				int stop = segEnd - suffixLengths[i];
+				if (stop > start) {
+					params.put(names[i], path.substring(start, stop));
+				}
+			}
+			pos = segEnd;
+		}
+	}
+
+}
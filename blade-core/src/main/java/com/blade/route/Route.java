@@ -51,6 +51,40 @@ public class Route {
 	 */
 	private Method action;
 	
+	/**
+	 * 启动时计算好的前置拦截器链
+	 */
+	private InterceptorChain befores = InterceptorChain.EMPTY;
+	
+	/**
+	 * 启动时计算好的后置拦截器链
+	 */
+	private InterceptorChain afters = InterceptorChain.EMPTY;
+	
+	/**
+	 * 注册时编译好的路径参数提取器
+	 */
+	private PathParamExtractor pathExtractor;
+	
+	/**
+	 * 注册时创建好的路由执行器
+	 */
+	private RouteInvoker invoker;
+	
+	/**
+	 * 异步请求超时时间，单位毫秒，0表示使用全局配置
+	 */
+	private long timeout;
+	
+	/**
+	 * 上传限制，0表示使用全局配置
+	 */
+	private long maxPartSize;
+	
+	private long maxRequestSize;
+	
+	private int maxParts;
+	
 	public Route() {
 	}
 
@@ -94,6 +128,70 @@ public class Route {
 		this.action = action;
 	}
 	
+	public InterceptorChain getBefores() {
+		return befores;
+	}
+
+	public void setBefores(InterceptorChain befores) {
+		this.befores = befores;
+	}
+
+	public InterceptorChain getAfters() {
+		return afters;
+	}
+
+	public void setAfters(InterceptorChain afters) {
+		this.afters = afters;
+	}
+	
+	public PathParamExtractor getPathExtractor() {
+		return pathExtractor;
+	}
+
+	public void setPathExtractor(PathParamExtractor pathExtractor) {
+		this.pathExtractor = pathExtractor;
+	}
+	
+	public RouteInvoker getInvoker() {
+		return invoker;
+	}
+
+	public void setInvoker(RouteInvoker invoker) {
+		this.invoker = invoker;
+	}
+	
+	public long getTimeout() {
+		return timeout;
+	}
+
+	public void setTimeout(long timeout) {
+		this.timeout = timeout;
+	}
+	
+	public long getMaxPartSize() {
+		return maxPartSize;
+	}
+
+	public void setMaxPartSize(long maxPartSize) {
+		this.maxPartSize = maxPartSize;
+	}
+
+	public long getMaxRequestSize() {
+		return maxRequestSize;
+	}
+
+	public void setMaxRequestSize(long maxRequestSize) {
+		this.maxRequestSize = maxRequestSize;
+	}
+
+	public int getMaxParts() {
+		return maxParts;
+	}
+
+	public void setMaxParts(int maxParts) {
+		this.maxParts = maxParts;
+	}
+	
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -251,14 +251,14 @@ public class RouteBuilder {
 				
 				HttpMethod methodType = mapping.method();
 				
-				buildRoute(router, method, path, methodType);
+				buildRoute(router, method, path, methodType, mapping);
 				
 				// 构建多个路由
 				String[] paths = mapping.values();
 				if(null != paths && paths.length > 0){
 					for(String value : paths){
 						String pathV = getRoutePath(value, nameSpace, suffix);
-						buildRoute(router, method, pathV, methodType);
+						buildRoute(router, method, pathV, methodType, mapping);
 					}
 				}
 			}
@@ -284,9 +284,16 @@ public class RouteBuilder {
      * @param execMethod	路由执行方法
      * @param path			路由url
      * @param method		路由http方法
+     * @param mapping		路由注解，包含异步超时时间和上传限制
      */
-    private void buildRoute(Class<?> clazz, Method execMethod, String path, HttpMethod method){
-    	this.routers.route(path, clazz, execMethod, method);
+    private void buildRoute(Class<?> clazz, Method execMethod, String path, HttpMethod method, Route mapping){
+    	com.blade.route.Route route = this.routers.route(path, clazz, execMethod, method);
+    	if(null != route){
+    		route.setTimeout(mapping.timeout());
+    		route.setMaxPartSize(mapping.maxPartSize());
+    		route.setMaxRequestSize(mapping.maxRequestSize());
+    		route.setMaxParts(mapping.maxParts());
+    	}
     }
     
     /**
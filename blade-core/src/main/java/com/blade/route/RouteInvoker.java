@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blade.route;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+import blade.kit.ExceptionKit;
+import blade.kit.log.Logger;
+
+import com.blade.web.http.Request;
+import com.blade.web.http.Response;
+
+/**
+ *
+ * <p>
+ * 路由执行器，注册路由时确定参数注入方式和调用方式，
+ * 请求时只需按计划填充参数数组并直接调用
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public final class RouteInvoker {
+
+	private static final Logger LOGGER = Logger.getLogger(RouteInvoker.class);
+
+	private static final int ARG_NULL = 0;
+
+	private static final int ARG_REQUEST = 1;
+
+	private static final int ARG_RESPONSE = 2;
+
+	private static final Object[] NO_ARGS = new Object[0];
+
+	private static boolean FAST_CLASS = false;
+
+	static {
+		try {
+			Class.forName("net.sf.cglib.reflect.FastClass");
+			FAST_CLASS = true;
+		} catch (ClassNotFoundException e) {
+			FAST_CLASS = false;
+		}
+	}
+
+	/**
+	 * 函数式路由直接调用handle方法
+	 */
+	private final RouteHandler handler;
+
+	private final Object target;
+
+	private final MethodInvoker invoker;
+
+	/**
+	 * 每个参数的注入方式
+	 */
+	private final int[] argKinds;
+
+	private RouteInvoker(RouteHandler handler, Object target, MethodInvoker invoker, int[] argKinds) {
+		this.handler = handler;
+		this.target = target;
+		this.invoker = invoker;
+		this.argKinds = argKinds;
+	}
+
+	/**
+	 * 为一个路由创建执行器
+	 *
+	 * @param route	路由对象
+	 * @return		返回路由执行器
+	 */
+	public static RouteInvoker create(Route route) {
+		Object target = route.getTarget();
+		if (target instanceof RouteHandler) {
+			return new RouteInvoker((RouteHandler) target, target, null, null);
+		}
+
+		Method method = route.getAction();
+		Class<?>[] paramTypes = method.getParameterTypes();
+		int[] argKinds = new int[paramTypes.length];
+		for (int i = 0; i < paramTypes.length; i++) {
+			if (paramTypes[i] == Request.class) {
+				argKinds[i] = ARG_REQUEST;
+			} else if (paramTypes[i] == Response.class) {
+				argKinds[i] = ARG_RESPONSE;
+			} else {
+				argKinds[i] = ARG_NULL;
+			}
+		}
+		return new RouteInvoker(null, target, createInvoker(method), argKinds);
+	}
+
+	private static MethodInvoker createInvoker(final Method method) {
+		if (FAST_CLASS && Modifier.isPublic(method.getModifiers())
+				&& Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+			try {
+				return new FastClassInvoker(method);
+			} catch (Throwable e) {
+				LOGGER.warn("FastClass unavailable for " + method + ", fallback to reflection");
+			}
+		}
+		method.setAccessible(true);
+		return new MethodInvoker() {
+			@Override
+			public Object invoke(Object target, Object[] args) throws Exception {
+				return method.invoke(target, args);
+			}
+		};
+	}
+
+	/**
+	 * 执行路由
+	 *
+	 * @param request	Request对象，作为参数注入
+	 * @param response	Response对象，作为参数注入
+	 * @return			返回方法执行后的返回值
+	 */
+	public Object invoke(Request request, Response response) {
+		if (null != handler) {
+			handler.handle(request, response);
+			return null;
+		}
+
+		int len = argKinds.length;
+		Object[] args = NO_ARGS;
+		if (len > 0) {
+			args = new Object[len];
+			for (int i = 0; i < len; i++) {
+				switch (argKinds[i]) {
+				case ARG_REQUEST:
+					args[i] = request;
+					break;
+				case ARG_RESPONSE:
+					args[i] = response;
+					break;
+				default:
+					break;
+				}
+			}
+		}
+
+		try {
+			return invoker.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			Throwable cause = e.getTargetException();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			ExceptionKit.makeRuntime(cause);
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			ExceptionKit.makeRuntime(e);
+		}
+		return null;
+	}
+
+}
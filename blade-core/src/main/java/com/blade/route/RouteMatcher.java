@@ -15,15 +15,11 @@
  */
 package com.blade.route;
 
-import java.net.URI;
-import java.net.URISyntaxException;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.regex.Pattern;
 
 import com.blade.web.http.HttpMethod;
 import com.blade.web.http.Path;
@@ -45,17 +41,31 @@ public class RouteMatcher {
 	private Map<String, Route> routes = null;
 	private Map<String, Route> interceptors = null;
 	
-	// 存储Map Key
-	private Set<String> routeKeys = null;
+	// 按HTTP方法划分的路由前缀树
+	private Map<HttpMethod, RouteTrie> routeTries = new EnumMap<HttpMethod, RouteTrie>(HttpMethod.class);
+	
+	// 拦截器及其预编译的匹配规则，按注册顺序存放
 	private List<Route> interceptorRoutes = new ArrayList<Route>();
+	private List<Pattern> interceptorPatterns = new ArrayList<Pattern>();
 	
     public RouteMatcher(Routers routers) {
 		this.routes = routers.getRoutes();
 		this.interceptors = routers.getInterceptors();
-		this.routeKeys = routes.keySet();
-		Collection<Route> inters = interceptors.values();
-		if (null != inters && inters.size() > 0) {
-			this.interceptorRoutes.addAll(inters);
+		for (HttpMethod httpMethod : HttpMethod.values()) {
+			routeTries.put(httpMethod, new RouteTrie());
+		}
+		for (Route route : routes.values()) {
+			routeTries.get(route.getHttpMethod()).add(route);
+		}
+		for (Route interceptor : interceptors.values()) {
+			interceptorRoutes.add(interceptor);
+			interceptorPatterns.add(compile(interceptor.getPath()));
+		}
+		
+		// 为每个路由预先计算拦截器链
+		for (Route route : routes.values()) {
+			route.setBefores(buildChain(route, HttpMethod.BEFORE));
+			route.setAfters(buildChain(route, HttpMethod.AFTER));
 		}
     }
     
@@ -66,51 +76,37 @@ public class RouteMatcher {
      * @return				返回路由对象
      */
     public Route getRoute(String httpMethod, String path) {
-		String cleanPath = parsePath(path);
-		
-		String routeKey = path + "#" + httpMethod.toUpperCase();
-		Route route = routes.get(routeKey);
-		if(null != route){
-			return route;
+		HttpMethod method = parseMethod(httpMethod);
+		Route route = null;
+		if (null != method) {
+			route = routeTries.get(method).match(path);
 		}
-		route = routes.get(path + "#ALL");
-		if(null != route){
-			return route;
+		if (null == route) {
+			route = routeTries.get(HttpMethod.ALL).match(path);
 		}
-		
-		List<Route> matchRoutes = new ArrayList<Route>();
-		for(String key : routeKeys){
-			String[] keyArr = key.split("#");
-			HttpMethod routeMethod = HttpMethod.valueOf(keyArr[1]);
-			if (matchesPath(keyArr[0], cleanPath)) {
-				if (routeMethod == HttpMethod.ALL || HttpMethod.valueOf(httpMethod) == routeMethod) {
-					matchRoutes.add(route);
-				}
-			}
-		}
-		
-		// 优先匹配原则
-        giveMatch(path, matchRoutes);
-        
-        return matchRoutes.size() > 0 ? matchRoutes.get(0) : null;
+		return route;
 	}
     
+    /**
+     * 解析请求方法
+     * @param httpMethod	http请求方法
+     * @return				返回枚举类型的HttpMethod，不支持的方法返回null
+     */
+    private HttpMethod parseMethod(String httpMethod) {
+    	try {
+			return HttpMethod.valueOf(httpMethod.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+    }
+    
     /**
      * 查找所有前置拦截器
      * @param path	请求路径
      * @return		返回前置拦截器列表
      */
     public List<Route> getBefore(String path) {
-    	
-		List<Route> befores = new ArrayList<Route>();
-		String cleanPath = parsePath(path);
-		for (Route route : interceptorRoutes) {
-			if(matchesPath(route.getPath(), cleanPath) && route.getHttpMethod() == HttpMethod.BEFORE){
-				befores.add(route);
-			}
-        }
-		giveMatch(path, befores);
-		return befores;
+		return getInterceptors(path, HttpMethod.BEFORE);
 	}
 	
     /**
@@ -119,58 +115,95 @@ public class RouteMatcher {
      * @return		返回后置拦截器列表
      */
 	public List<Route> getAfter(String path) {
-		List<Route> afters = new ArrayList<Route>();
-		String cleanPath = parsePath(path);
-		for (Route route : interceptorRoutes) {
-			if(matchesPath(route.getPath(), cleanPath) && route.getHttpMethod() == HttpMethod.AFTER){
-				afters.add(route);
+		return getInterceptors(path, HttpMethod.AFTER);
+	}
+	
+	private List<Route> getInterceptors(String path, HttpMethod type) {
+		List<Route> result = new ArrayList<Route>();
+		String cleanPath = Path.fixPath(path);
+		for (int i = 0, len = interceptorRoutes.size(); i < len; i++) {
+			Route interceptor = interceptorRoutes.get(i);
+			if (interceptor.getHttpMethod() == type && interceptorPatterns.get(i).matcher(cleanPath).matches()) {
+				result.add(interceptor);
 			}
-        }
-		giveMatch(path, afters);
-		return afters;
+		}
+		return result;
 	}
-    
+	
 	/**
-	 * 对path进行排序
-	 * @param uri		请求uri	
-	 * @param routes	路由列表
+	 * 计算一个路由的拦截器链
+	 * 
+	 * 静态路由在启动时即可确定哪些拦截器匹配；带参数或通配符的路由，
+	 * 只有形如"前缀.*"且前缀覆盖路由固定部分的拦截器视为一定匹配，其余的保留规则在请求时判断
+	 * 
+	 * @param route		路由对象
+	 * @param type		BEFORE或AFTER
+	 * @return			返回拦截器链
 	 */
-    private void giveMatch(final String uri, List<Route> routes) {
-		Collections.sort(routes, new Comparator<Route>() {
-		    @Override
-		    public int compare(Route o1, Route o2) {
-				if(o2.getPath().equals(uri)){
-					return o2.getPath().indexOf(uri);
-				}
-				return -1;
+	private InterceptorChain buildChain(Route route, HttpMethod type) {
+		String routePath = route.getPath();
+		boolean isStatic = RouteTrie.isStatic(routePath);
+		
+		List<Route> chain = new ArrayList<Route>();
+		List<Pattern> conditions = new ArrayList<Pattern>();
+		for (int i = 0, len = interceptorRoutes.size(); i < len; i++) {
+			Route interceptor = interceptorRoutes.get(i);
+			if (interceptor.getHttpMethod() != type) {
+				continue;
 			}
-		});
+			Pattern pattern = interceptorPatterns.get(i);
+			if (isStatic ? pattern.matcher(routePath).matches() : covers(interceptor.getPath(), routePath)) {
+				chain.add(interceptor);
+				conditions.add(null);
+			} else if (!isStatic) {
+				chain.add(interceptor);
+				conditions.add(pattern);
+			}
+		}
+		return InterceptorChain.of(chain, conditions);
 	}
-    
-    /**
-     * 匹配路径
-     * @param routePath		路由路径
-     * @param pathToMatch	要匹配的路径
-     * @return				返回是否匹配成功
-     */
-    private boolean matchesPath(String routePath, String pathToMatch) {
-		routePath = routePath.replaceAll(Path.VAR_REGEXP, Path.VAR_REPLACE);
-		return pathToMatch.matches("(?i)" + routePath);
+	
+	/**
+	 * 判断拦截器规则是否一定匹配某个动态路由的所有请求路径
+	 * 
+	 * 拦截器规则必须是固定前缀加".*"，且路由在第一个参数或通配符所在段之前的固定部分以该前缀开头；
+	 * 正则路由的固定部分难以确定，只接受匹配任意路径的拦截器
+	 * 
+	 * @param interceptorPath	拦截器路径
+	 * @param routePath			路由路径
+	 * @return					返回是否一定匹配
+	 */
+	private boolean covers(String interceptorPath, String routePath) {
+		if (!interceptorPath.endsWith(".*")) {
+			return false;
+		}
+		String prefix = interceptorPath.substring(0, interceptorPath.length() - 2);
+		if (prefix.length() == 0 || prefix.equals("/")) {
+			return true;
+		}
+		if (!RouteTrie.isStatic(prefix) || RouteTrie.isRegex(routePath)) {
+			return false;
+		}
+		int dynamic = routePath.length();
+		int param = routePath.indexOf(':');
+		int splat = routePath.indexOf('*');
+		if (param != -1) {
+			dynamic = param;
+		}
+		if (splat != -1 && splat < dynamic) {
+			dynamic = splat;
+		}
+		String fixed = routePath.substring(0, routePath.lastIndexOf('/', dynamic) + 1);
+		return fixed.regionMatches(true, 0, prefix, 0, prefix.length());
 	}
     
     /**
-     * 解析路径
-     * @param path		路径地址
-     * @return			返回解析后的路径
+     * 编译路径匹配规则
+     * @param routePath		路由路径
+     * @return				返回忽略大小写的正则
      */
-    private String parsePath(String path) {
-		path = Path.fixPath(path);
-		try {
-			URI uri = new URI(path);
-			return uri.getPath();
-		} catch (URISyntaxException e) {
-			return null;
-		}
+    private Pattern compile(String routePath) {
+		return Pattern.compile("(?i)" + routePath.replaceAll(Path.VAR_REGEXP, Path.VAR_REPLACE));
 	}
 
 }
@@ -0,0 +1,345 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blade.route;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import com.blade.web.http.Path;
+
+/**
+ *
+ * <p>
+ * 路由前缀树，按路径段组织静态节点、参数节点(:id)和通配节点(*)，
+ * 查找时只需遍历一次请求路径，不做正则匹配
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public class RouteTrie {
+
+	/**
+	 * 正则中的特殊字符，出现则该路由无法放入前缀树
+	 */
+	private static final String REGEX_CHARS = "+?[](){}|\\^$";
+
+	private final Node root = new Node();
+
+	/**
+	 * 无法放入树中的正则路由，按注册顺序匹配
+	 */
+	private final List<Route> regexRoutes = new ArrayList<Route>();
+
+	private final List<Pattern> regexPatterns = new ArrayList<Pattern>();
+
+	/**
+	 * 添加一个路由
+	 * @param route	路由对象
+	 */
+	public void add(Route route) {
+		String path = route.getPath();
+		if (isRegex(path)) {
+			regexRoutes.add(route);
+			regexPatterns.add(Pattern.compile("(?i)" + path.replaceAll(Path.VAR_REGEXP, Path.VAR_REPLACE)));
+			return;
+		}
+
+		Node node = root;
+		for (String part : Path.convertRouteToList(path)) {
+			if (Path.isSplat(part)) {
+				if (null == node.splat) {
+					node.splat = new Node();
+				}
+				node = node.splat;
+			} else if (part.indexOf(':') != -1) {
+				node = node.paramChild(part);
+			} else {
+				node = node.staticChild(part);
+			}
+		}
+		node.route = route;
+	}
+
+	/**
+	 * 查找一个路由
+	 * @param path	请求路径
+	 * @return		返回匹配的路由，没有找到返回null
+	 */
+	public Route match(String path) {
+		int end = path.length();
+		int query = path.indexOf('?');
+		if (query != -1) {
+			end = query;
+		}
+		Route route = match(root, path, 0, end);
+		if (null != route) {
+			return route;
+		}
+
+		int len = regexRoutes.size();
+		for (int i = 0; i < len; i++) {
+			if (regexPatterns.get(i).matcher(path.substring(0, end)).matches()) {
+				return regexRoutes.get(i);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * @return	树中是否没有任何路由
+	 */
+	public boolean isEmpty() {
+		return root.isEmpty() && regexRoutes.isEmpty();
+	}
+
+	private static Route match(Node node, String path, int pos, int end) {
+		while (pos < end && path.charAt(pos) == '/') {
+			pos++;
+		}
+		if (pos == end) {
+			if (null != node.route) {
+				return node.route;
+			}
+			return null != node.splat ? node.splat.route : null;
+		}
+
+		int segEnd = path.indexOf('/', pos);
+		if (segEnd == -1 || segEnd > end) {
+			segEnd = end;
+		}
+
+		// 静态节点优先
+		Node child = node.findStatic(path, pos, segEnd);
+		if (null != child) {
+			Route route = match(child, path, segEnd, end);
+			if (null != route) {
+				return route;
+			}
+		}
+
+		// 参数节点
+		if (null != node.params) {
+			for (ParamNode param : node.params) {
+				if (param.matches(path, pos, segEnd)) {
+					Route route = match(param, path, segEnd, end);
+					if (null != route) {
+						return route;
+					}
+				}
+			}
+		}
+
+		// 通配节点，非末尾时匹配一段，末尾时匹配剩余所有路径
+		if (null != node.splat) {
+			Route route = match(node.splat, path, segEnd, end);
+			if (null != route) {
+				return route;
+			}
+			return node.splat.route;
+		}
+		return null;
+	}
+
+	/**
+	 * 判断路由路径是否为纯静态路径，不含参数、通配符和正则
+	 * @param path	路由路径
+	 * @return		返回是否为静态路径
+	 */
+	static boolean isStatic(String path) {
+		return path.indexOf(':') == -1 && path.indexOf('*') == -1 && !isRegex(path);
+	}
+
+	static boolean isRegex(String path) {
+		for (int i = 0, len = path.length(); i < len; i++) {
+			char c = path.charAt(i);
+			if (REGEX_CHARS.indexOf(c) != -1) {
+				return true;
+			}
+			// * 只有单独作为一段时才是通配符
+			if (c == '*') {
+				boolean alone = (i == 0 || path.charAt(i - 1) == '/') && (i + 1 == len || path.charAt(i + 1) == '/');
+				if (!alone) {
+					return true;
+				}
+			}
+		}
+		// 一段中有多个参数时交给正则处理
+		for (String part : Path.convertRouteToList(path)) {
+			if (part.indexOf(':') != part.lastIndexOf(':')) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 计算忽略大小写的hash，不产生新字符串
+	 */
+	static int hash(String str, int start, int end) {
+		int h = 0;
+		for (int i = start; i < end; i++) {
+			h = 31 * h + Character.toLowerCase(str.charAt(i));
+		}
+		return h;
+	}
+
+	/**
+	 * 树节点
+	 */
+	static class Node {
+
+		String segment;
+
+		Route route;
+
+		// 按hash排序的静态子节点
+		int[] hashes = new int[0];
+
+		Node[] statics = new Node[0];
+
+		List<ParamNode> params;
+
+		Node splat;
+
+		Node staticChild(String part) {
+			int h = hash(part, 0, part.length());
+			Node exist = findStatic(part, 0, part.length());
+			if (null != exist) {
+				return exist;
+			}
+			Node child = new Node();
+			child.segment = part;
+
+			int len = statics.length;
+			int idx = 0;
+			while (idx < len && hashes[idx] <= h) {
+				idx++;
+			}
+			int[] newHashes = new int[len + 1];
+			Node[] newStatics = new Node[len + 1];
+			System.arraycopy(hashes, 0, newHashes, 0, idx);
+			System.arraycopy(statics, 0, newStatics, 0, idx);
+			newHashes[idx] = h;
+			newStatics[idx] = child;
+			System.arraycopy(hashes, idx, newHashes, idx + 1, len - idx);
+			System.arraycopy(statics, idx, newStatics, idx + 1, len - idx);
+			hashes = newHashes;
+			statics = newStatics;
+			return child;
+		}
+
+		Node findStatic(String path, int start, int end) {
+			if (statics.length == 0) {
+				return null;
+			}
+			int h = hash(path, start, end);
+			int low = 0, high = hashes.length - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				if (hashes[mid] < h) {
+					low = mid + 1;
+				} else if (hashes[mid] > h) {
+					high = mid - 1;
+				} else {
+					// hash冲突时向两边查找
+					int i = mid;
+					while (i > 0 && hashes[i - 1] == h) {
+						i--;
+					}
+					for (; i < hashes.length && hashes[i] == h; i++) {
+						String segment = statics[i].segment;
+						if (segment.length() == end - start && path.regionMatches(true, start, segment, 0, segment.length())) {
+							return statics[i];
+						}
+					}
+					return null;
+				}
+			}
+			return null;
+		}
+
+		ParamNode paramChild(String part) {
+			int idx = part.indexOf(':');
+			String prefix = part.substring(0, idx);
+			int nameEnd = idx + 1;
+			while (nameEnd < part.length() && isWordChar(part.charAt(nameEnd))) {
+				nameEnd++;
+			}
+			String name = part.substring(idx + 1, nameEnd);
+			String suffix = part.substring(nameEnd);
+
+			if (null == params) {
+				params = new ArrayList<ParamNode>(2);
+			}
+			for (ParamNode param : params) {
+				if (param.prefix.equalsIgnoreCase(prefix) && param.suffix.equalsIgnoreCase(suffix)) {
+					return param;
+				}
+			}
+			ParamNode param = new ParamNode(name, prefix, suffix);
+
+			// 前后缀越长越具体，优先匹配
+			int pos = 0;
+			while (pos < params.size() && params.get(pos).fixedLength() >= param.fixedLength()) {
+				pos++;
+			}
+			params.add(pos, param);
+			return param;
+		}
+
+		boolean isEmpty() {
+			return null == route && statics.length == 0 && null == params && null == splat;
+		}
+	}
+
+	/**
+	 * 参数节点，如：:id 或 :id.html
+	 */
+	static class ParamNode extends Node {
+
+		final String name;
+
+		final String prefix;
+
+		final String suffix;
+
+		ParamNode(String name, String prefix, String suffix) {
+			this.name = name;
+			this.prefix = prefix;
+			this.suffix = suffix;
+		}
+
+		int fixedLength() {
+			return prefix.length() + suffix.length();
+		}
+
+		boolean matches(String path, int start, int end) {
+			int len = end - start;
+			if (len <= fixedLength()) {
+				return false;
+			}
+			return path.regionMatches(true, start, prefix, 0, prefix.length())
+					&& path.regionMatches(true, end - suffix.length(), suffix, 0, suffix.length());
+		}
+	}
+
+	static boolean isWordChar(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+	}
+
+}
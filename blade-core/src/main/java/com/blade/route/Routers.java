@@ -16,7 +16,7 @@
 package com.blade.route;
 
 import java.lang.reflect.Method;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -52,8 +52,8 @@ public class Routers {
 	
 	public Routers(Container container) {
 		this.container = container;
-		this.routes = new HashMap<String, Route>();
-		this.interceptors = new HashMap<String, Route>();
+		this.routes = new LinkedHashMap<String, Route>();
+		this.interceptors = new LinkedHashMap<String, Route>();
 	}
 	
 	public Map<String, Route> getRoutes() {
@@ -74,6 +74,8 @@ public class Routers {
 			LOGGER.warn("\tRoute "+ path + " -> " + httpMethod.toString() +" has exist");
 		}
 		
+		compile(route);
+		
 		if(httpMethod == HttpMethod.BEFORE || httpMethod == HttpMethod.AFTER){
 			if (null != this.interceptors.get(key)) {
 				LOGGER.warn("\tInterceptor "+ path + " -> " + httpMethod.toString() +" has exist");
@@ -86,6 +88,17 @@ public class Routers {
 		}
 	}
 	
+	/**
+	 * 注册时编译路由，生成参数提取器和执行器
+	 * @param route	路由对象
+	 */
+	private void compile(Route route) {
+		route.setPathExtractor(PathParamExtractor.compile(route.getPath()));
+		if (route.getTarget() instanceof RouteHandler || null != route.getAction()) {
+			route.setInvoker(RouteInvoker.create(route));
+		}
+	}
+	
 	public void addRoutes(List<Route> routes) {
 		for(Route route : routes){
 			this.addRoute(route);
@@ -97,7 +110,7 @@ public class Routers {
 		addRoute(httpMethod, path, controller, method);
 	}
 	
-	public void addRoute(HttpMethod httpMethod, String path, Object controller, Method method) {
+	public Route addRoute(HttpMethod httpMethod, String path, Object controller, Method method) {
 		
 		String key = path + "#" + httpMethod.toString();
 		// 存在的
@@ -106,6 +119,7 @@ public class Routers {
 		}
 		
 		Route route = new Route(httpMethod, path, controller, method);
+		compile(route);
 		if(httpMethod == HttpMethod.BEFORE || httpMethod == HttpMethod.AFTER){
 			if (null != this.interceptors.get(key)) {
 				LOGGER.warn("\tInterceptor "+ path + " -> " + httpMethod.toString() +" has exist");
@@ -116,7 +130,7 @@ public class Routers {
 			this.routes.put(key, route);
 			LOGGER.debug("Add Route：" + route);
 		}
-		
+		return route;
 	}
 	
 	public void route(String path, RouteHandler handler, HttpMethod httpMethod) {
@@ -184,17 +198,18 @@ public class Routers {
 		}
 	}
 	
-	public void route(String path, Class<?> clazz, Method method, HttpMethod httpMethod) {
+	public Route route(String path, Class<?> clazz, Method method, HttpMethod httpMethod) {
 		try {
 			Object controller = container.getBean(clazz, Scope.SINGLE);
 			if(null == controller){
 				controller = Aop.create(clazz);
 				container.registerBean(controller);
 			}
-			addRoute(httpMethod, path, controller, method);
+			return addRoute(httpMethod, path, controller, method);
 		} catch (SecurityException e) {
 			e.printStackTrace();
 		}
+		return null;
 	}
 	
 	public void route(String path, Object target, String methodName, HttpMethod httpMethod) {
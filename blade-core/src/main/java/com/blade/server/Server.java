@@ -15,9 +15,20 @@
  */
 package com.blade.server;
 
+import java.lang.reflect.Constructor;
+import java.util.Collections;
+
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.LowResourceMonitor;
+import org.eclipse.jetty.server.ServerConnector;
 import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.eclipse.jetty.servlet.ServletHolder;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
 
+import blade.kit.StringKit;
 import blade.kit.log.Logger;
 
 import com.blade.web.DispatcherServlet;
@@ -39,13 +50,20 @@ public class Server {
 	
 	private boolean async = true;
 	
+	private ServerConfig serverConfig;
+	
 	private org.eclipse.jetty.server.Server server;
 	
 	private ServletContextHandler context;
 	
 	public Server(int port, boolean async) {
+		this(port, async, new ServerConfig());
+	}
+	
+	public Server(int port, boolean async, ServerConfig serverConfig) {
 		this.port = port;
 		this.async = async;
+		this.serverConfig = serverConfig;
 	}
 	
 	public void setPort(int port){
@@ -55,23 +73,101 @@ public class Server {
 	public void setAsync(boolean async) {
 		this.async = async;
 	}
+	
+	public void setServerConfig(ServerConfig serverConfig) {
+		this.serverConfig = serverConfig;
+	}
 
 	public void start(String contextPath) throws Exception{
 		
-		server = new org.eclipse.jetty.server.Server(this.port);
+		boolean asyncSupported = this.async;
+		
+		ThreadPool threadPool = null;
+		if(serverConfig.isVirtualThreads()){
+			threadPool = VirtualThreadPool.create();
+			if(null != threadPool){
+				// 请求本身已在虚拟线程上，阻塞不占用平台线程，直接同步执行
+				asyncSupported = false;
+				LOGGER.info("Blade Server use virtual threads");
+			} else {
+				LOGGER.warn("Virtual threads are not supported by this JVM, use thread pool instead");
+			}
+		}
+		if(null == threadPool){
+			QueuedThreadPool queuedThreadPool = new QueuedThreadPool(serverConfig.getMaxThreads(),
+					serverConfig.getMinThreads(), serverConfig.getThreadIdleTimeout());
+			queuedThreadPool.setName("blade-server");
+			threadPool = queuedThreadPool;
+		}
+		
+		server = new org.eclipse.jetty.server.Server(threadPool);
+		server.addConnector(createConnector());
 		
 	    context = new ServletContextHandler(ServletContextHandler.SESSIONS);
 	    context.setContextPath(contextPath);
-	    context.setResourceBase(System.getProperty("java.io.tmpdir"));
+	    
+	    String resourceBase = serverConfig.getResourceBase();
+	    if(StringKit.isBlank(resourceBase)){
+	    	resourceBase = System.getProperty("java.io.tmpdir");
+	    }
+	    context.setResourceBase(resourceBase);
 	    
 	    ServletHolder servletHolder = new ServletHolder(DispatcherServlet.class);
-	    servletHolder.setAsyncSupported(async);
+	    servletHolder.setAsyncSupported(asyncSupported);
 	    
 	    context.addServlet(servletHolder, "/");
         server.setHandler(this.context);
 	    server.start();
 //	    server.dump(System.err);
 	    LOGGER.info("Blade Server Listen on 0.0.0.0:" + this.port);
+	    LOGGER.debug(serverConfig.toString());
+	}
+	
+	/**
+	 * 按配置创建HTTP连接器
+	 */
+	private ServerConnector createConnector() {
+		HttpConfiguration httpConfig = new HttpConfiguration();
+		if(serverConfig.getOutputBufferSize() > 0){
+			httpConfig.setOutputBufferSize(serverConfig.getOutputBufferSize());
+		}
+		
+		ServerConnector connector = new ServerConnector(server, serverConfig.getAcceptors(), 
+				serverConfig.getSelectors(), new HttpConnectionFactory(httpConfig));
+		connector.setPort(this.port);
+		if(serverConfig.getIdleTimeout() > 0){
+			connector.setIdleTimeout(serverConfig.getIdleTimeout());
+		}
+		if(serverConfig.getAcceptQueueSize() > 0){
+			connector.setAcceptQueueSize(serverConfig.getAcceptQueueSize());
+		}
+		if(serverConfig.getMaxConnections() > 0){
+			limitConnections(connector, serverConfig.getMaxConnections());
+		}
+		return connector;
+	}
+	
+	/**
+	 * 限制最大连接数，Jetty9.4以上使用ConnectionLimit，达到上限后暂停accept；
+	 * 低版本使用LowResourceMonitor，超过上限时缩短空闲连接的超时时间
+	 */
+	private void limitConnections(ServerConnector connector, int maxConnections) {
+		try {
+			Class<?> limitClass = Class.forName("org.eclipse.jetty.server.ConnectionLimit");
+			Constructor<?> constructor = limitClass.getConstructor(int.class, org.eclipse.jetty.server.Server.class);
+			server.addBean(constructor.newInstance(maxConnections, server));
+			return;
+		} catch (ClassNotFoundException e) {
+			// Jetty9.4以下没有ConnectionLimit
+		} catch (Exception e) {
+			LOGGER.warn("Create ConnectionLimit error: " + e.getMessage());
+		}
+		
+		LowResourceMonitor monitor = new LowResourceMonitor(server);
+		monitor.setMonitoredConnectors(Collections.<Connector>singletonList(connector));
+		monitor.setMaxConnections(maxConnections);
+		monitor.setLowResourcesIdleTimeout(1000);
+		server.addBean(monitor);
 	}
 	
 	public void join() throws InterruptedException {
@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blade.server;
+
+/**
+ * 
+ * <p>
+ * 内嵌Jetty的配置，线程池、连接器、连接数等，值小于等于0时使用Jetty默认值
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public class ServerConfig {
+	
+	// 线程池最小线程数
+	private int minThreads = 8;
+	
+	// 线程池最大线程数
+	private int maxThreads = 200;
+	
+	// 线程空闲回收时间，单位毫秒
+	private int threadIdleTimeout = 60000;
+	
+	// acceptor线程数，-1表示按CPU核数自动计算
+	private int acceptors = -1;
+	
+	// selector线程数，-1表示按CPU核数自动计算
+	private int selectors = -1;
+	
+	// 连接空闲超时时间，单位毫秒
+	private long idleTimeout = 30000L;
+	
+	// 等待accept的连接队列长度，0表示使用系统默认值
+	private int acceptQueueSize = 0;
+	
+	// 响应输出缓冲区大小，单位字节
+	private int outputBufferSize = 32768;
+	
+	// 最大连接数，0表示不限制
+	private int maxConnections = 0;
+	
+	// 静态资源根目录，为空时使用临时目录
+	private String resourceBase;
+	
+	// 是否使用虚拟线程执行请求
+	private boolean virtualThreads = false;
+	
+	public ServerConfig() {
+	}
+	
+	public int getMinThreads() {
+		return minThreads;
+	}
+
+	public void setMinThreads(int minThreads) {
+		this.minThreads = minThreads;
+	}
+
+	public int getMaxThreads() {
+		return maxThreads;
+	}
+
+	public void setMaxThreads(int maxThreads) {
+		this.maxThreads = maxThreads;
+	}
+
+	public int getThreadIdleTimeout() {
+		return threadIdleTimeout;
+	}
+
+	public void setThreadIdleTimeout(int threadIdleTimeout) {
+		this.threadIdleTimeout = threadIdleTimeout;
+	}
+
+	public int getAcceptors() {
+		return acceptors;
+	}
+
+	public void setAcceptors(int acceptors) {
+		this.acceptors = acceptors;
+	}
+
+	public int getSelectors() {
+		return selectors;
+	}
+
+	public void setSelectors(int selectors) {
+		this.selectors = selectors;
+	}
+
+	public long getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	public void setIdleTimeout(long idleTimeout) {
+		this.idleTimeout = idleTimeout;
+	}
+
+	public int getAcceptQueueSize() {
+		return acceptQueueSize;
+	}
+
+	public void setAcceptQueueSize(int acceptQueueSize) {
+		this.acceptQueueSize = acceptQueueSize;
+	}
+
+	public int getOutputBufferSize() {
+		return outputBufferSize;
+	}
+
+	public void setOutputBufferSize(int outputBufferSize) {
+		this.outputBufferSize = outputBufferSize;
+	}
+
+	public int getMaxConnections() {
+		return maxConnections;
+	}
+
+	public void setMaxConnections(int maxConnections) {
+		this.maxConnections = maxConnections;
+	}
+
+	public String getResourceBase() {
+		return resourceBase;
+	}
+
+	public void setResourceBase(String resourceBase) {
+		this.resourceBase = resourceBase;
+	}
+
+	public boolean isVirtualThreads() {
+		return virtualThreads;
+	}
+
+	public void setVirtualThreads(boolean virtualThreads) {
+		this.virtualThreads = virtualThreads;
+	}
+
+	@Override
+	public String toString() {
+		return "ServerConfig [threads=" + minThreads + "-" + maxThreads + ", acceptors=" + acceptors
+				+ ", selectors=" + selectors + ", idleTimeout=" + idleTimeout + ", acceptQueueSize=" + acceptQueueSize
+				+ ", outputBufferSize=" + outputBufferSize + ", maxConnections=" + maxConnections
+				+ ", virtualThreads=" + virtualThreads + "]";
+	}
+	
+}
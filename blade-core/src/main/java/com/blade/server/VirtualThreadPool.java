@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blade.server;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+import blade.kit.log.Logger;
+
+/**
+ * 
+ * <p>
+ * 基于JDK虚拟线程的Jetty线程池，每个任务一个虚拟线程，
+ * 阻塞IO不会占满平台线程。运行时不支持虚拟线程时{@link #create()}返回null
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public class VirtualThreadPool extends AbstractLifeCycle implements ThreadPool {
+	
+	private static final Logger LOGGER = Logger.getLogger(VirtualThreadPool.class);
+	
+	private final ExecutorService executor;
+	
+	/**
+	 * 正在执行的任务数
+	 */
+	private final AtomicInteger running = new AtomicInteger();
+	
+	private VirtualThreadPool(ExecutorService executor) {
+		this.executor = executor;
+	}
+	
+	/**
+	 * 创建虚拟线程池
+	 * 
+	 * @return	返回线程池，JDK不支持虚拟线程时返回null
+	 */
+	public static VirtualThreadPool create() {
+		try {
+			// JDK21+: Executors.newVirtualThreadPerTaskExecutor()
+			Method method = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			ExecutorService executor = (ExecutorService) method.invoke(null);
+			return new VirtualThreadPool(executor);
+		} catch (NoSuchMethodException e) {
+			return null;
+		} catch (Exception e) {
+			LOGGER.warn("Virtual threads unavailable: " + e.getMessage());
+			return null;
+		}
+	}
+	
+	@Override
+	public void execute(final Runnable task) {
+		running.incrementAndGet();
+		executor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					task.run();
+				} finally {
+					running.decrementAndGet();
+				}
+			}
+		});
+	}
+	
+	@Override
+	public void join() throws InterruptedException {
+		while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+			// 等待线程池停止
+		}
+	}
+	
+	@Override
+	public int getThreads() {
+		return running.get();
+	}
+	
+	@Override
+	public int getIdleThreads() {
+		return 0;
+	}
+	
+	@Override
+	public boolean isLowOnThreads() {
+		return false;
+	}
+	
+	@Override
+	protected void doStop() throws Exception {
+		executor.shutdownNow();
+		super.doStop();
+	}
+	
+}
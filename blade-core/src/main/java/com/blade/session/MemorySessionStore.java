@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blade.session;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 
+ * <p>
+ * 内存中的SessionStore，定时清理过期的session
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public class MemorySessionStore implements SessionStore {
+	
+	private final ConcurrentMap<String, MemorySessionData> sessions = new ConcurrentHashMap<String, MemorySessionData>();
+	
+	private final int maxInactiveInterval;
+	
+	private final ScheduledExecutorService sweeper;
+	
+	/**
+	 * session 30分钟不活动过期，每分钟清理一次
+	 */
+	public MemorySessionStore() {
+		this(30 * 60, 60);
+	}
+	
+	/**
+	 * @param maxInactiveInterval	session最大不活动时间，单位秒
+	 * @param sweepInterval			清理过期session的间隔，单位秒
+	 */
+	public MemorySessionStore(int maxInactiveInterval, int sweepInterval) {
+		this.maxInactiveInterval = maxInactiveInterval;
+		this.sweeper = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "blade-session-sweeper");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		this.sweeper.scheduleWithFixedDelay(new Runnable() {
+			@Override
+			public void run() {
+				sweep();
+			}
+		}, sweepInterval, sweepInterval, TimeUnit.SECONDS);
+	}
+	
+	@Override
+	public SessionData create() {
+		long now = System.currentTimeMillis();
+		MemorySessionData session = new MemorySessionData(SessionData.newId(), now, maxInactiveInterval);
+		sessions.put(session.getId(), session);
+		return session;
+	}
+
+	@Override
+	public SessionData load(String id) {
+		MemorySessionData session = sessions.get(id);
+		if (null == session) {
+			return null;
+		}
+		long now = System.currentTimeMillis();
+		if (session.isExpired(now) || !session.isValid()) {
+			sessions.remove(id, session);
+			return null;
+		}
+		session.access(now);
+		return session;
+	}
+
+	@Override
+	public void save(SessionData session) {
+		// 数据一直在内存中，只需要删除失效的session
+		if (!session.isValid()) {
+			sessions.remove(session.getId());
+		}
+	}
+
+	@Override
+	public void remove(String id) {
+		sessions.remove(id);
+	}
+	
+	/**
+	 * 删除所有过期的session
+	 * 
+	 * @return	返回删除的个数
+	 */
+	public int sweep() {
+		long now = System.currentTimeMillis();
+		int count = 0;
+		Iterator<MemorySessionData> it = sessions.values().iterator();
+		while (it.hasNext()) {
+			MemorySessionData session = it.next();
+			if (session.isExpired(now) || !session.isValid()) {
+				it.remove();
+				count++;
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * @return	返回当前保存的session个数
+	 */
+	public int size() {
+		return sessions.size();
+	}
+	
+	/**
+	 * 停止清理线程
+	 */
+	@Override
+	public void close() {
+		sweeper.shutdownNow();
+	}
+	
+	static class MemorySessionData extends SessionData {
+		
+		private final ConcurrentMap<String, Object> attributes = new ConcurrentHashMap<String, Object>();
+		
+		MemorySessionData(String id, long now, int maxInactiveInterval) {
+			super(id, now, now, maxInactiveInterval, true);
+		}
+
+		@Override
+		public Object getAttribute(String name) {
+			return attributes.get(name);
+		}
+
+		@Override
+		public void setAttribute(String name, Object value) {
+			if (null == value) {
+				attributes.remove(name);
+			} else {
+				attributes.put(name, value);
+			}
+		}
+
+		@Override
+		public void removeAttribute(String name) {
+			attributes.remove(name);
+		}
+
+		@Override
+		public Set<String> getAttributeNames() {
+			return Collections.unmodifiableSet(attributes.keySet());
+		}
+	}
+	
+}
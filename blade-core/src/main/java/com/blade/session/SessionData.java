@@ -0,0 +1,135 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blade.session;
+
+import java.security.SecureRandom;
+import java.util.Set;
+
+/**
+ * 
+ * <p>
+ * SessionStore中保存的一个session，属性的读写由具体的存储实现
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public abstract class SessionData {
+	
+	private static final SecureRandom RANDOM = new SecureRandom();
+	
+	private static final char[] HEX = "0123456789abcdef".toCharArray();
+	
+	private final String id;
+	
+	private final long creationTime;
+	
+	private volatile long lastAccessedTime;
+	
+	// 最大不活动时间，单位秒，小于等于0表示不过期
+	private volatile int maxInactiveInterval;
+	
+	private volatile boolean isNew;
+	
+	private volatile boolean valid = true;
+	
+	protected SessionData(String id, long creationTime, long lastAccessedTime, int maxInactiveInterval, boolean isNew) {
+		this.id = id;
+		this.creationTime = creationTime;
+		this.lastAccessedTime = lastAccessedTime;
+		this.maxInactiveInterval = maxInactiveInterval;
+		this.isNew = isNew;
+	}
+	
+	/**
+	 * @return	返回一个新的随机session id
+	 */
+	public static String newId() {
+		byte[] bytes = new byte[16];
+		RANDOM.nextBytes(bytes);
+		char[] chars = new char[bytes.length * 2];
+		for (int i = 0; i < bytes.length; i++) {
+			chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+			chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+		}
+		return new String(chars);
+	}
+	
+	public abstract Object getAttribute(String name);
+	
+	/**
+	 * 设置属性，value为null时删除该属性
+	 */
+	public abstract void setAttribute(String name, Object value);
+	
+	public abstract void removeAttribute(String name);
+	
+	public abstract Set<String> getAttributeNames();
+	
+	public String getId() {
+		return id;
+	}
+
+	public long getCreationTime() {
+		return creationTime;
+	}
+
+	public long getLastAccessedTime() {
+		return lastAccessedTime;
+	}
+
+	public int getMaxInactiveInterval() {
+		return maxInactiveInterval;
+	}
+
+	public void setMaxInactiveInterval(int maxInactiveInterval) {
+		this.maxInactiveInterval = maxInactiveInterval;
+	}
+	
+	public boolean isNew() {
+		return isNew;
+	}
+	
+	public boolean isValid() {
+		return valid;
+	}
+	
+	/**
+	 * 标记为失效，请求结束时由SessionStore删除
+	 */
+	public void invalidate() {
+		this.valid = false;
+	}
+	
+	/**
+	 * 被一个新的请求访问
+	 * 
+	 * @param now	当前时间
+	 */
+	public void access(long now) {
+		this.lastAccessedTime = now;
+		this.isNew = false;
+	}
+	
+	/**
+	 * @param now	当前时间
+	 * @return		是否已经过期
+	 */
+	public boolean isExpired(long now) {
+		return maxInactiveInterval > 0 && now - lastAccessedTime > maxInactiveInterval * 1000L;
+	}
+	
+}
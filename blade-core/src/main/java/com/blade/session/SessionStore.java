@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blade.session;
+
+/**
+ * 
+ * <p>
+ * Session存储接口，设置后Request.session()不再使用容器的HttpSession，
+ * session id通过Cookie传递，数据由存储实现保存，可以放在进程外实现多节点共享
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public interface SessionStore {
+	
+	/**
+	 * 创建一个新的session
+	 * 
+	 * @return	返回新创建的session数据
+	 */
+	SessionData create();
+	
+	/**
+	 * 加载一个session，并更新最后访问时间
+	 * 
+	 * @param id	session id
+	 * @return		返回session数据，不存在或已过期返回null
+	 */
+	SessionData load(String id);
+	
+	/**
+	 * 写响应内容前和请求结束时调用，保存修改过的内容，已失效的session被删除，
+	 * 同一个请求中可能调用多次
+	 * 
+	 * @param session	session数据
+	 */
+	void save(SessionData session);
+	
+	/**
+	 * 删除一个session
+	 * 
+	 * @param id	session id
+	 */
+	void remove(String id);
+	
+	/**
+	 * 应用停止时调用，释放存储占用的线程、连接等资源
+	 */
+	void close();
+	
+}
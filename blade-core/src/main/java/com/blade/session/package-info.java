@@ -0,0 +1,4 @@
+/**
+ * Session存储
+ */
+package com.blade.session;
@@ -1,14 +1,43 @@
 package com.blade.web;
 
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.Future;
 
+import javax.servlet.AsyncContext;
 import javax.servlet.AsyncEvent;
 import javax.servlet.AsyncListener;
-import javax.servlet.annotation.WebListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import com.blade.Const;
+import com.blade.web.http.HttpStatus;
  
-@WebListener
 public class AppAsyncListener implements AsyncListener {
 	
+	private final DispatchExecutor executor;
+	
+	private final AsyncResponse response;
+	
+	private volatile Future<?> future;
+	
+	/**
+	 * @param executor	异步请求线程池
+	 * @param response	处理线程和监听器共用的响应，超时时只有取得响应才输出
+	 */
+	public AppAsyncListener(DispatchExecutor executor, AsyncResponse response) {
+		this.executor = executor;
+		this.response = response;
+	}
+	
+	/**
+	 * 设置正在执行的请求任务，超时时取消
+	 * @param future	请求任务
+	 */
+	public void setFuture(Future<?> future) {
+		this.future = future;
+	}
+	
     @Override
     public void onComplete(AsyncEvent asyncEvent) throws IOException {
 //        System.out.println("AppAsyncListener onComplete");
@@ -26,10 +55,32 @@ public class AppAsyncListener implements AsyncListener {
  
     @Override
     public void onTimeout(AsyncEvent asyncEvent) throws IOException {
-//        System.out.println("AppAsyncListener onTimeout");
-//        ServletResponse response = asyncEvent.getAsyncContext().getResponse();
-//        PrintWriter out = response.getWriter();
-//        out.write("TimeOut Error in Processing");
+    	// 处理线程已经取得响应并正在结束请求，由它complete
+    	if(!response.close()){
+    		return;
+    	}
+    	if(null != executor){
+    		executor.timeout();
+    	}
+    	Future<?> task = future;
+    	if(null != task){
+    		task.cancel(true);
+    	}
+    	AsyncContext asyncContext = asyncEvent.getAsyncContext();
+    	HttpServletResponse response = (HttpServletResponse) asyncContext.getResponse();
+    	// 超时响应不经过压缩，直接写入原始响应
+    	while(response instanceof HttpServletResponseWrapper){
+    		response = (HttpServletResponse) ((HttpServletResponseWrapper) response).getResponse();
+    	}
+    	if(!response.isCommitted()){
+    		response.reset();
+    		response.setStatus(HttpStatus.SERVICE_UNAVAILABLE);
+    		response.setContentType("text/html;charset=utf-8");
+    		PrintWriter out = response.getWriter();
+    		out.print(Const.SERVICE_UNAVAILABLE);
+    		out.flush();
+    	}
+    	asyncContext.complete();
     }
  
 }
\ No newline at end of file
@@ -1,8 +1,5 @@
 package com.blade.web;
 
-import java.lang.reflect.Method;
-import java.util.List;
-
 import javax.servlet.AsyncContext;
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
@@ -17,13 +14,16 @@ import com.blade.Blade;
 import com.blade.Const;
 import com.blade.context.BladeWebContext;
 import com.blade.render.ModelAndView;
+import com.blade.route.InterceptorChain;
 import com.blade.route.Route;
-import com.blade.route.RouteHandler;
+import com.blade.route.RouteInvoker;
 import com.blade.route.RouteMatcher;
+import com.blade.web.http.HttpException;
 import com.blade.web.http.HttpStatus;
 import com.blade.web.http.Path;
 import com.blade.web.http.Request;
 import com.blade.web.http.Response;
+import com.blade.web.http.wrapper.ResponseCompressor;
 import com.blade.web.http.wrapper.ServletRequest;
 import com.blade.web.http.wrapper.ServletResponse;
 
@@ -47,6 +47,13 @@ public class AsynRequestHandler implements Runnable {
 	
 	private AsyncContext asyncContext;
 	
+	/**
+	 * 请求的uri和匹配的路由，分发前已经查找过时不再查找
+	 */
+	private String uri;
+	
+	private Route route;
+	
 	public AsynRequestHandler(ServletContext servletContext, AsyncContext asyncCtx) {
 		this.asyncContext = asyncCtx;
 		this.servletContext = servletContext;
@@ -54,21 +61,37 @@ public class AsynRequestHandler implements Runnable {
 		this.httpResponse = (HttpServletResponse) asyncCtx.getResponse();
 	}
 	
+	/**
+	 * @param servletContext	ServletContext
+	 * @param asyncCtx			异步上下文
+	 * @param uri				请求的uri，不含contextPath
+	 * @param route				分发前匹配到的路由，没有找到时为null
+	 */
+	public AsynRequestHandler(ServletContext servletContext, AsyncContext asyncCtx, String uri, Route route) {
+		this(servletContext, asyncCtx);
+		this.uri = uri;
+		this.route = route;
+	}
+	
 	@Override
 	public void run(){
 		
 		Response response = null;
+		ServletRequest servletRequest = null;
         try {
         	// http方法, GET/POST ...
             String method = httpRequest.getMethod();
             
             // 请求的uri
-            String uri = Path.getRelativePath(httpRequest.getRequestURI(), servletContext.getContextPath());
+            boolean resolved = null != uri;
+            if(!resolved){
+            	uri = Path.getRelativePath(httpRequest.getRequestURI(), servletContext.getContextPath());
+            }
             
             // 如果是静态资源则交给filter处理
             if(null != blade.staticFolder() && blade.staticFolder().length > 0){
             	if(!filterStaticFolder(uri)){
-            		asyncContext.complete();
+            		complete();
             		return;
             	}
             }
@@ -78,7 +101,8 @@ public class AsynRequestHandler implements Runnable {
             }
             
             // 创建请求对象
-    		Request request = new ServletRequest(httpRequest);
+    		servletRequest = new ServletRequest(httpRequest);
+    		Request request = servletRequest;
             
     		// 创建响应对象
             response = new ServletResponse(httpResponse, blade.render());
@@ -86,28 +110,28 @@ public class AsynRequestHandler implements Runnable {
             // 初始化context
          	BladeWebContext.setContext(servletContext, request, response);
          	
-			Route route = routeMatcher.getRoute(method, uri);
+			if(!resolved){
+				route = routeMatcher.getRoute(method, uri);
+			}
 			
 			// 如果找到
 			if (route != null) {
 				request.setRoute(route);
 				// 执行before拦截
-				List<Route> befores = routeMatcher.getBefore(uri);
-				invokeInterceptor(request, response, befores);
+				invokeInterceptor(request, response, route.getBefores(), uri);
 				
 				// 实际执行方法
 				handle(request, response, route);
 				
 				// 执行after拦截
-				List<Route> afters = routeMatcher.getAfter(uri);
-				invokeInterceptor(request, response, afters);
-				asyncContext.complete();
+				invokeInterceptor(request, response, route.getAfters(), uri);
+				complete();
 				return;
 			}
 			
 			// 没有找到
 			render404(response, uri);
-			asyncContext.complete();
+			complete();
 			return;
 		} catch (BladeException bex) {
 			
@@ -119,10 +143,28 @@ public class AsynRequestHandler implements Runnable {
             // 写入内容到浏览器
             if (!httpResponse.isCommitted()) {
                 response.html(Const.INTERNAL_ERROR);
-                asyncContext.complete();
+                complete();
                 return;
             }
             
+        } catch (HttpException hex) {
+        	
+        	// 超时后响应已交给监听器，后续写入失败是预期的；上传超过限制时直接返回413，不再读取剩余的请求体
+        	if (timedOut()) {
+        		LOGGER.debug("Request timed out: " + hex.getMessage());
+        	} else if (hex.getStatus() == HttpStatus.REQUEST_ENTITY_TOO_LARGE && null != response) {
+        		LOGGER.warn(hex.getMessage());
+        		if (!httpResponse.isCommitted()) {
+        			response.status(HttpStatus.REQUEST_ENTITY_TOO_LARGE);
+        			response.html(Const.REQUEST_ENTITY_TOO_LARGE);
+        			complete();
+        			return;
+        		}
+        	} else {
+        		String error = ThrowableKit.getStackTraceAsString(hex);
+        		LOGGER.error(error);
+        		ThrowableKit.propagate(hex);
+        	}
         } catch (Exception e) {
         	
         	String error = ThrowableKit.getStackTraceAsString(e);
@@ -133,14 +175,46 @@ public class AsynRequestHandler implements Runnable {
         	// 写入内容到浏览器
             if (!httpResponse.isCommitted()) {
                 response.html(Const.INTERNAL_ERROR);
-                asyncContext.complete();
+                complete();
                 return;
             }
+        } finally {
+        	// 删除上传文件产生的临时文件
+        	if (null != servletRequest) {
+        		servletRequest.cleanup();
+        	}
         }
-        asyncContext.complete();
+        complete();
         return;
 	}
 	
+	/**
+	 * @return	返回响应是否已被超时监听器取得
+	 */
+	private boolean timedOut() {
+		return httpResponse instanceof AsyncResponse && !((AsyncResponse) httpResponse).isOpen();
+	}
+	
+	/**
+	 * 结束异步请求，请求已超时被监听器取得响应时忽略
+	 */
+	private void complete() {
+		HttpServletResponse target = httpResponse;
+		if (target instanceof AsyncResponse) {
+			AsyncResponse asyncResponse = (AsyncResponse) target;
+			if (!asyncResponse.close()) {
+				return;
+			}
+			target = asyncResponse.target();
+		}
+		try {
+			ResponseCompressor.finish(target);
+			asyncContext.complete();
+		} catch (IllegalStateException e) {
+			LOGGER.debug("AsyncContext already completed: " + e.getMessage());
+		}
+	}
+	
 	/**
 	 * 404视图渲染
 	 * 
@@ -165,11 +239,14 @@ public class AsynRequestHandler implements Runnable {
 	 * @param request		请求对象
 	 * @param response		响应对象
 	 * @param current		当前请求的路由
-	 * @param interceptors	要执行的拦截器列表
+	 * @param interceptors	要执行的拦截器链
+	 * @param uri			请求的uri
 	 */
-	private void invokeInterceptor(Request request, Response response, List<Route> interceptors) {
-		for(Route route : interceptors){
-			handle(request, response, route);
+	private void invokeInterceptor(Request request, Response response, InterceptorChain interceptors, String uri) {
+		for(int i=0, len=interceptors.size(); i<len; i++){
+			if(interceptors.matches(i, uri)){
+				handle(request, response, interceptors.get(i));
+			}
 		}
 	}
 
@@ -182,20 +259,18 @@ public class AsynRequestHandler implements Runnable {
 	 * @param route		路由对象
 	 */
 	private void handle(Request request, Response response, Route route){
-		Object target = route.getTarget();
-		request.initPathParams(route.getPath());
+		request.initPathParams(route);
 		
 		// 初始化context
 		BladeWebContext.setContext(servletContext, request, response);
-		if(target instanceof RouteHandler){
-			RouteHandler routeHandler = (RouteHandler)target;
-			routeHandler.handle(request, response);
-		} else {
-			// 要执行的路由方法
-			Method actionMethod = route.getAction();
-			// 执行route方法
-			RouteArgument.executeMethod(target, actionMethod, request, response);
+		
+		RouteInvoker invoker = route.getInvoker();
+		if(null == invoker){
+			invoker = RouteInvoker.create(route);
+			route.setInvoker(invoker);
 		}
+		// 执行route方法
+		invoker.invoke(request, response);
 	}
 
 	/**
@@ -0,0 +1,348 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blade.web;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Locale;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * 
+ * <p>
+ * 异步请求的响应，决定由处理线程还是超时监听器输出响应。
+ * 处理线程的每次写入和修改都在本对象的锁内检查响应是否还属于它；
+ * 超时监听器或处理线程结束时通过{@link #close()}取得响应，只有一方能成功，
+ * 之后处理线程的写入抛出IOException，修改被忽略，不会和超时响应交错输出
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public final class AsyncResponse extends HttpServletResponseWrapper {
+	
+	private boolean open = true;
+	
+	private ServletOutputStream outputStream;
+	
+	private PrintWriter writer;
+	
+	public AsyncResponse(HttpServletResponse response) {
+		super(response);
+	}
+	
+	/**
+	 * 取得响应，处理线程结束或超时时调用
+	 * 
+	 * @return	返回是否取得，已被另一方取得时返回false
+	 */
+	public synchronized boolean close() {
+		if (!open) {
+			return false;
+		}
+		open = false;
+		return true;
+	}
+	
+	/**
+	 * @return	返回响应是否还没有被取得
+	 */
+	public synchronized boolean isOpen() {
+		return open;
+	}
+	
+	/**
+	 * @return	返回被包装的响应
+	 */
+	public HttpServletResponse target() {
+		return (HttpServletResponse) getResponse();
+	}
+	
+	private void ensureOpen() throws IOException {
+		if (!open) {
+			throw new IOException("Async request has timed out");
+		}
+	}
+	
+	@Override
+	public synchronized ServletOutputStream getOutputStream() throws IOException {
+		ensureOpen();
+		if (null == outputStream) {
+			outputStream = new GuardedOutputStream(super.getOutputStream());
+		}
+		return outputStream;
+	}
+	
+	@Override
+	public synchronized PrintWriter getWriter() throws IOException {
+		ensureOpen();
+		if (null == writer) {
+			writer = new PrintWriter(new GuardedWriter(super.getWriter()));
+		}
+		return writer;
+	}
+	
+	@Override
+	public synchronized void flushBuffer() throws IOException {
+		ensureOpen();
+		if (null != writer) {
+			writer.flush();
+		}
+		super.flushBuffer();
+	}
+	
+	@Override
+	public synchronized void sendError(int sc, String msg) throws IOException {
+		ensureOpen();
+		super.sendError(sc, msg);
+	}
+	
+	@Override
+	public synchronized void sendError(int sc) throws IOException {
+		ensureOpen();
+		super.sendError(sc);
+	}
+	
+	@Override
+	public synchronized void sendRedirect(String location) throws IOException {
+		ensureOpen();
+		super.sendRedirect(location);
+	}
+	
+	@Override
+	public synchronized void reset() {
+		if (open) {
+			super.reset();
+			outputStream = null;
+			writer = null;
+		}
+	}
+	
+	@Override
+	public synchronized void resetBuffer() {
+		if (open) {
+			super.resetBuffer();
+		}
+	}
+	
+	@Override
+	public synchronized void setStatus(int sc) {
+		if (open) {
+			super.setStatus(sc);
+		}
+	}
+	
+	@SuppressWarnings("deprecation")
+	@Override
+	public synchronized void setStatus(int sc, String sm) {
+		if (open) {
+			super.setStatus(sc, sm);
+		}
+	}
+	
+	@Override
+	public synchronized void setHeader(String name, String value) {
+		if (open) {
+			super.setHeader(name, value);
+		}
+	}
+	
+	@Override
+	public synchronized void addHeader(String name, String value) {
+		if (open) {
+			super.addHeader(name, value);
+		}
+	}
+	
+	@Override
+	public synchronized void setIntHeader(String name, int value) {
+		if (open) {
+			super.setIntHeader(name, value);
+		}
+	}
+	
+	@Override
+	public synchronized void addIntHeader(String name, int value) {
+		if (open) {
+			super.addIntHeader(name, value);
+		}
+	}
+	
+	@Override
+	public synchronized void setDateHeader(String name, long date) {
+		if (open) {
+			super.setDateHeader(name, date);
+		}
+	}
+	
+	@Override
+	public synchronized void addDateHeader(String name, long date) {
+		if (open) {
+			super.addDateHeader(name, date);
+		}
+	}
+	
+	@Override
+	public synchronized void addCookie(Cookie cookie) {
+		if (open) {
+			super.addCookie(cookie);
+		}
+	}
+	
+	@Override
+	public synchronized void setContentType(String type) {
+		if (open) {
+			super.setContentType(type);
+		}
+	}
+	
+	@Override
+	public synchronized void setCharacterEncoding(String charset) {
+		if (open) {
+			super.setCharacterEncoding(charset);
+		}
+	}
+	
+	@Override
+	public synchronized void setContentLength(int len) {
+		if (open) {
+			super.setContentLength(len);
+		}
+	}
+	
+	@Override
+	public synchronized void setContentLengthLong(long len) {
+		if (open) {
+			super.setContentLengthLong(len);
+		}
+	}
+	
+	@Override
+	public synchronized void setLocale(Locale loc) {
+		if (open) {
+			super.setLocale(loc);
+		}
+	}
+	
+	@Override
+	public synchronized void setBufferSize(int size) {
+		if (open) {
+			super.setBufferSize(size);
+		}
+	}
+	
+	/**
+	 * 每次写入前检查响应是否还属于处理线程
+	 */
+	private final class GuardedOutputStream extends ServletOutputStream {
+		
+		private final ServletOutputStream out;
+		
+		GuardedOutputStream(ServletOutputStream out) {
+			this.out = out;
+		}
+		
+		@Override
+		public void write(int b) throws IOException {
+			synchronized (AsyncResponse.this) {
+				ensureOpen();
+				out.write(b);
+			}
+		}
+		
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			synchronized (AsyncResponse.this) {
+				ensureOpen();
+				out.write(b, off, len);
+			}
+		}
+		
+		@Override
+		public void flush() throws IOException {
+			synchronized (AsyncResponse.this) {
+				ensureOpen();
+				out.flush();
+			}
+		}
+		
+		@Override
+		public void close() throws IOException {
+			synchronized (AsyncResponse.this) {
+				ensureOpen();
+				out.close();
+			}
+		}
+		
+		@Override
+		public boolean isReady() {
+			return out.isReady();
+		}
+		
+		@Override
+		public void setWriteListener(WriteListener writeListener) {
+			out.setWriteListener(writeListener);
+		}
+	}
+	
+	private final class GuardedWriter extends Writer {
+		
+		private final Writer out;
+		
+		GuardedWriter(Writer out) {
+			this.out = out;
+		}
+		
+		@Override
+		public void write(char[] cbuf, int off, int len) throws IOException {
+			synchronized (AsyncResponse.this) {
+				ensureOpen();
+				out.write(cbuf, off, len);
+			}
+		}
+		
+		@Override
+		public void write(String str, int off, int len) throws IOException {
+			synchronized (AsyncResponse.this) {
+				ensureOpen();
+				out.write(str, off, len);
+			}
+		}
+		
+		@Override
+		public void flush() throws IOException {
+			synchronized (AsyncResponse.this) {
+				ensureOpen();
+				out.flush();
+			}
+		}
+		
+		@Override
+		public void close() throws IOException {
+			synchronized (AsyncResponse.this) {
+				ensureOpen();
+				out.close();
+			}
+		}
+	}
+	
+}
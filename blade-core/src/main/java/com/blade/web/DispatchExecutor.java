@@ -0,0 +1,204 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blade.web;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.blade.Const;
+
+/**
+ * 
+ * <p>
+ * 异步请求线程池，线程数和等待队列都有上限，队列满时拒绝请求，并记录运行指标
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public class DispatchExecutor {
+	
+	private final ThreadPoolExecutor executor;
+	
+	private final int queueSize;
+	
+	/**
+	 * 被拒绝的请求数
+	 */
+	private final AtomicLong rejectedCount = new AtomicLong();
+	
+	/**
+	 * 超时的请求数
+	 */
+	private final AtomicLong timeoutCount = new AtomicLong();
+	
+	public DispatchExecutor(int coreThreads, int maxThreads, int queueSize) {
+		this.queueSize = queueSize;
+		final DispatchQueue queue = new DispatchQueue(queueSize);
+		this.executor = new ThreadPoolExecutor(coreThreads, Math.max(coreThreads, maxThreads), 60L, TimeUnit.SECONDS,
+				queue, new DispatchThreadFactory(), new RejectedExecutionHandler() {
+					@Override
+					public void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+						// 线程数已到上限，再放入队列，队列也满时拒绝
+						if (executor.isShutdown() || !queue.force(task)) {
+							throw new RejectedExecutionException("Dispatch queue is full");
+						}
+					}
+				});
+		queue.executor = this.executor;
+	}
+	
+	/**
+	 * 提交一个请求任务
+	 * 
+	 * @param task	请求任务
+	 * @return		返回任务的Future，线程池已满时返回null
+	 */
+	public Future<?> submit(Runnable task) {
+		try {
+			return executor.submit(task);
+		} catch (RejectedExecutionException e) {
+			rejectedCount.incrementAndGet();
+			return null;
+		}
+	}
+	
+	/**
+	 * 记录一次超时
+	 */
+	public void timeout() {
+		timeoutCount.incrementAndGet();
+	}
+	
+	/**
+	 * @return	返回队列中等待的请求数
+	 */
+	public int queueDepth() {
+		return executor.getQueue().size();
+	}
+	
+	/**
+	 * @return	返回队列容量
+	 */
+	public int queueSize() {
+		return queueSize;
+	}
+	
+	/**
+	 * @return	返回正在处理请求的线程数
+	 */
+	public int activeWorkers() {
+		return executor.getActiveCount();
+	}
+	
+	/**
+	 * @return	返回当前线程池中的线程数
+	 */
+	public int poolSize() {
+		return executor.getPoolSize();
+	}
+	
+	/**
+	 * @return	返回已完成的请求数
+	 */
+	public long completedCount() {
+		return executor.getCompletedTaskCount();
+	}
+	
+	/**
+	 * @return	返回被拒绝的请求数
+	 */
+	public long rejectedCount() {
+		return rejectedCount.get();
+	}
+	
+	/**
+	 * @return	返回超时的请求数
+	 */
+	public long timeoutCount() {
+		return timeoutCount.get();
+	}
+	
+	/**
+	 * 停止线程池
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+	
+	/**
+	 * @return	返回线程池是否已经停止
+	 */
+	public boolean isShutdown() {
+		return executor.isShutdown();
+	}
+	
+	@Override
+	public String toString() {
+		return "DispatchExecutor [queue=" + queueDepth() + "/" + queueSize + ", active=" + activeWorkers()
+				+ ", pool=" + poolSize() + ", completed=" + completedCount() + ", rejected=" + rejectedCount()
+				+ ", timeout=" + timeoutCount() + "]";
+	}
+	
+	/**
+	 * 线程数未到上限且没有空闲线程时拒绝入队，让线程池先扩容到最大线程数，
+	 * 否则ThreadPoolExecutor只有在队列满后才会创建核心线程以外的线程
+	 */
+	private static class DispatchQueue extends ArrayBlockingQueue<Runnable> {
+		
+		private static final long serialVersionUID = 1L;
+		
+		volatile ThreadPoolExecutor executor;
+		
+		DispatchQueue(int capacity) {
+			super(capacity);
+		}
+		
+		@Override
+		public boolean offer(Runnable task) {
+			ThreadPoolExecutor pool = executor;
+			if (null != pool && pool.getPoolSize() < pool.getMaximumPoolSize()
+					&& pool.getActiveCount() >= pool.getPoolSize()) {
+				return false;
+			}
+			return super.offer(task);
+		}
+		
+		boolean force(Runnable task) {
+			return super.offer(task);
+		}
+	}
+	
+	private static class DispatchThreadFactory implements ThreadFactory {
+		
+		private final AtomicInteger counter = new AtomicInteger();
+		
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, Const.BLADE_EXECUTOR + "-" + counter.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+	
+}
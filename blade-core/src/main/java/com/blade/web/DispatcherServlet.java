@@ -16,6 +16,7 @@
 package com.blade.web;
 
 import java.io.IOException;
+import java.util.concurrent.Future;
 
 import javax.servlet.AsyncContext;
 import javax.servlet.ServletConfig;
@@ -31,8 +32,14 @@ import blade.kit.log.Logger;
 import com.blade.Aop;
 import com.blade.Blade;
 import com.blade.Bootstrap;
+import com.blade.Const;
+import com.blade.route.Route;
 import com.blade.route.RouteBuilder;
 import com.blade.route.RouteMatcher;
+import com.blade.session.SessionStore;
+import com.blade.web.http.HttpStatus;
+import com.blade.web.http.Path;
+import com.blade.web.http.wrapper.ResponseCompressor;
 
 /**
  * Blade核心调度器
@@ -54,6 +61,14 @@ public class DispatcherServlet extends HttpServlet {
 	
 	private SyncRequestHandler syncRequestHandler;
 	
+	private RouteMatcher routeMatcher;
+	
+	private DispatchExecutor executor;
+	
+	private StaticFileHandler staticFileHandler;
+	
+	private ResponseCompressor compressor;
+	
 	public DispatcherServlet() {
 	}
 	
@@ -92,7 +107,18 @@ public class DispatcherServlet extends HttpServlet {
 		    servletContext = config.getServletContext();
 		    
 		    syncRequestHandler = new SyncRequestHandler(servletContext, blade.routers());
-		    AsynRequestHandler.routeMatcher = new RouteMatcher(blade.routers());
+		    routeMatcher = new RouteMatcher(blade.routers());
+		    AsynRequestHandler.routeMatcher = routeMatcher;
+		    
+		    // 异步请求线程池
+		    executor = blade.executor();
+		    servletContext.setAttribute(Const.BLADE_EXECUTOR, executor);
+		    
+		    // 静态资源处理器
+		    staticFileHandler = createStaticFileHandler();
+		    
+		    // 响应压缩
+		    compressor = blade.compressor();
 		    
 		    blade.setInit(true);
 		    LOGGER.info("blade init complete!");
@@ -104,14 +130,102 @@ public class DispatcherServlet extends HttpServlet {
 		httpRequest.setCharacterEncoding(blade.encoding());
 		httpResponse.setCharacterEncoding(blade.encoding());
 		
+		String uri = Path.getRelativePath(httpRequest.getRequestURI(), servletContext.getContextPath());
+		
+		// 静态资源直接在容器线程中输出，不占用异步线程池
+		if (null != staticFileHandler) {
+			if (staticFileHandler.isStatic(uri)) {
+				staticFileHandler.handle(httpRequest, httpResponse, uri);
+				return;
+			}
+		}
+		
+		// 客户端支持时压缩响应，ServletResponse和Render都通过包装后的响应输出
+		if (null != compressor) {
+			httpResponse = compressor.wrap(httpRequest, httpResponse);
+		}
+		
 		boolean isAsync = httpRequest.isAsyncSupported();
 		if (isAsync) {
-			AsyncContext asyncCtx = httpRequest.startAsync();
-			asyncCtx.addListener(new AppAsyncListener());
-			asyncCtx.setTimeout(10000L);
-			asyncCtx.start(new AsynRequestHandler(servletContext, asyncCtx));
+			// 路由只查找一次，超时时间和请求处理都使用它
+			Route route = routeMatcher.getRoute(httpRequest.getMethod(), uri);
+			AsyncResponse asyncResponse = new AsyncResponse(httpResponse);
+			AsyncContext asyncCtx = httpRequest.startAsync(httpRequest, asyncResponse);
+			AppAsyncListener listener = new AppAsyncListener(executor, asyncResponse);
+			asyncCtx.addListener(listener);
+			asyncCtx.setTimeout(getTimeout(route));
+			
+			Future<?> future = executor.submit(new AsynRequestHandler(servletContext, asyncCtx, uri, route));
+			if (null == future) {
+				// 线程池已满，拒绝请求
+				LOGGER.warn("Request rejected, " + executor);
+				asyncResponse.close();
+				httpResponse.setStatus(HttpStatus.SERVICE_UNAVAILABLE);
+				httpResponse.setContentType("text/html;charset=utf-8");
+				httpResponse.getWriter().print(Const.SERVICE_UNAVAILABLE);
+				ResponseCompressor.finish(httpResponse);
+				asyncCtx.complete();
+				return;
+			}
+			listener.setFuture(future);
 		} else {
-			syncRequestHandler.handle(httpRequest, httpResponse);
+			try {
+				syncRequestHandler.handle(httpRequest, httpResponse);
+			} finally {
+				ResponseCompressor.finish(httpResponse);
+			}
+		}
+	}
+	
+	/**
+	 * 获取异步请求超时时间，路由上设置了超时则使用路由的配置
+	 * 
+	 * @param route		匹配到的路由，可以为null
+	 * @return			返回超时时间，单位毫秒
+	 */
+	private long getTimeout(Route route) {
+		if (null != route && route.getTimeout() > 0) {
+			return route.getTimeout();
+		}
+		return blade.asyncTimeout();
+	}
+	
+	/**
+	 * 配置了静态目录时创建静态资源处理器，文件根目录为webRoot
+	 * 
+	 * @return	返回静态资源处理器，没有静态目录或找不到根目录时返回null
+	 */
+	private StaticFileHandler createStaticFileHandler() {
+		String[] folders = blade.staticFolder();
+		if (null == folders || folders.length == 0) {
+			return null;
+		}
+		String root = blade.webRoot();
+		if (StringKit.isBlank(root)) {
+			root = servletContext.getRealPath("/");
+		}
+		if (null == root) {
+			LOGGER.warn("Can not find web root, static folders will not be served by blade");
+			return null;
+		}
+		try {
+			return new StaticFileHandler(servletContext, root, folders, 
+					blade.config().getStaticCacheSize(), blade.config().getStaticCacheFileSize());
+		} catch (IOException e) {
+			LOGGER.warn("Create static file handler error: " + e.getMessage());
+			return null;
+		}
+	}
+	
+	@Override
+	public void destroy() {
+		super.destroy();
+		if (null != executor) {
+			executor.shutdown();
+		}
+		SessionStore sessionStore = blade.sessionStore();
+		if (null != sessionStore) {
+			sessionStore.close();
 		}
 	}
 	
@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blade.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import org.eclipse.jetty.server.HttpOutput;
+
+/**
+ * 
+ * <p>
+ * 运行在Jetty中时直接把ByteBuffer交给HttpOutput发送，不经过字节数组拷贝。
+ * 只有检测到Jetty时才会加载这个类
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+final class JettyContentWriter {
+	
+	private JettyContentWriter() {
+	}
+	
+	static boolean accept(OutputStream out) {
+		return out instanceof HttpOutput;
+	}
+	
+	static void write(OutputStream out, ByteBuffer buffer) throws IOException {
+		((HttpOutput) out).sendContent(buffer);
+	}
+	
+}
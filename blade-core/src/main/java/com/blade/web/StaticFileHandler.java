@@ -0,0 +1,486 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blade.web;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import blade.kit.IOKit;
+import blade.kit.log.Logger;
+
+import com.blade.web.http.HttpStatus;
+import com.blade.web.http.wrapper.ResponseCompressor;
+
+/**
+ * 
+ * <p>
+ * 静态资源处理器，处理Blade.staticFolder配置的目录。
+ * 小文件缓存在内存LRU中，大文件通过FileChannel发送；
+ * 支持ETag、Last-Modified、Range请求以及预压缩的.br/.gz文件
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public class StaticFileHandler {
+	
+	private static final Logger LOGGER = Logger.getLogger(StaticFileHandler.class);
+	
+	/**
+	 * 缓存的文件多久检查一次是否修改，单位毫秒
+	 */
+	private static final long CHECK_INTERVAL = 1000L;
+	
+	private static final long[] UNSATISFIABLE = new long[0];
+	
+	private static final boolean JETTY_OUTPUT;
+	
+	static {
+		boolean jetty = false;
+		try {
+			Class.forName("org.eclipse.jetty.server.HttpOutput");
+			jetty = true;
+		} catch (ClassNotFoundException e) {
+		}
+		JETTY_OUTPUT = jetty;
+	}
+	
+	private final ServletContext servletContext;
+	
+	private final String[] folders;
+	
+	private final File root;
+	
+	/**
+	 * 每个静态目录的规范路径，文件必须在匹配到的目录中
+	 */
+	private final String[] folderPaths;
+	
+	/**
+	 * 小于等于这个大小的文件内容缓存在内存中
+	 */
+	private final int maxCachedFileSize;
+	
+	private final Map<String, StaticResource> cache;
+	
+	public StaticFileHandler(ServletContext servletContext, String root, String[] folders, 
+			final int cacheSize, int maxCachedFileSize) throws IOException {
+		this.servletContext = servletContext;
+		this.folders = folders;
+		this.root = new File(root);
+		this.folderPaths = new String[folders.length];
+		for (int i = 0; i < folders.length; i++) {
+			folderPaths[i] = new File(root, folders[i]).getCanonicalPath();
+		}
+		this.maxCachedFileSize = maxCachedFileSize;
+		this.cache = Collections.synchronizedMap(new LinkedHashMap<String, StaticResource>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, StaticResource> eldest) {
+				return size() > cacheSize;
+			}
+		});
+	}
+	
+	/**
+	 * 判断是否为静态资源路径
+	 * 
+	 * @param uri	请求的uri，不含contextPath
+	 * @return		返回是否在静态目录中
+	 */
+	public boolean isStatic(String uri) {
+		return folderIndex(uri) != -1;
+	}
+	
+	private int folderIndex(String uri) {
+		for (int i = 0, len = folders.length; i < len; i++) {
+			if (uri.startsWith(folders[i])) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * 输出静态资源
+	 * 
+	 * @param request	请求对象
+	 * @param response	响应对象
+	 * @param uri		请求的uri，不含contextPath
+	 * @throws IOException
+	 */
+	public void handle(HttpServletRequest request, HttpServletResponse response, String uri) throws IOException {
+		String method = request.getMethod();
+		boolean head = "HEAD".equals(method);
+		if (!head && !"GET".equals(method)) {
+			response.setHeader("Allow", "GET, HEAD");
+			response.sendError(HttpStatus.METHOD_NOT_ALLOWED);
+			return;
+		}
+		
+		StaticResource resource = getResource(uri);
+		if (null == resource) {
+			response.sendError(HttpStatus.NOT_FOUND);
+			return;
+		}
+		
+		String range = request.getHeader("Range");
+		
+		// 选择预压缩的文件，Range请求只针对原文件
+		StaticResource target = resource;
+		String encoding = null;
+		if (null != resource.brotli || null != resource.gzip) {
+			response.setHeader("Vary", "Accept-Encoding");
+			String accept = request.getHeader("Accept-Encoding");
+			if (null == range && null != accept) {
+				if (null != resource.brotli && ResponseCompressor.accepts(accept, "br")) {
+					target = resource.brotli;
+					encoding = "br";
+				} else if (null != resource.gzip && ResponseCompressor.accepts(accept, ResponseCompressor.GZIP)) {
+					target = resource.gzip;
+					encoding = "gzip";
+				}
+			}
+		}
+		
+		response.setHeader("ETag", target.etag);
+		response.setDateHeader("Last-Modified", resource.lastModified);
+		response.setHeader("Accept-Ranges", "bytes");
+		
+		if (notModified(request, target)) {
+			response.setStatus(HttpStatus.NOT_MODIFIED);
+			return;
+		}
+		
+		response.setContentType(resource.contentType);
+		if (null != encoding) {
+			response.setHeader("Content-Encoding", encoding);
+		}
+		
+		long start = 0;
+		long length = target.length;
+		if (null != range && ifRange(request, target)) {
+			long[] bounds = parseRange(range, target.length);
+			if (bounds == UNSATISFIABLE) {
+				response.setHeader("Content-Range", "bytes */" + target.length);
+				response.setStatus(HttpStatus.RANGE_NOT_SATISFIABLE);
+				return;
+			}
+			if (null != bounds) {
+				start = bounds[0];
+				length = bounds[1] - bounds[0] + 1;
+				response.setStatus(HttpStatus.PARTIAL_CONTENT);
+				response.setHeader("Content-Range", "bytes " + bounds[0] + "-" + bounds[1] + "/" + target.length);
+			}
+		}
+		
+		response.setHeader("Content-Length", String.valueOf(length));
+		if (head) {
+			return;
+		}
+		write(response.getOutputStream(), target, start, length);
+	}
+	
+	/**
+	 * 获取静态资源，优先从缓存中读取，文件修改后重新加载
+	 */
+	private StaticResource getResource(String uri) throws IOException {
+		StaticResource resource = cache.get(uri);
+		long now = System.currentTimeMillis();
+		if (null != resource) {
+			if (now - resource.checkedAt < CHECK_INTERVAL) {
+				return resource;
+			}
+			if (resource.file.lastModified() == resource.lastModified && resource.file.length() == resource.length) {
+				resource.checkedAt = now;
+				return resource;
+			}
+			cache.remove(uri);
+		}
+		
+		int index = folderIndex(uri);
+		File file = index == -1 ? null : resolve(uri, folderPaths[index]);
+		if (null == file) {
+			return null;
+		}
+		resource = load(file, "");
+		resource.contentType = getContentType(file.getName());
+		resource.gzip = loadSibling(file, ".gz", "-gz");
+		resource.brotli = loadSibling(file, ".br", "-br");
+		cache.put(uri, resource);
+		return resource;
+	}
+	
+	/**
+	 * 把uri转换为文件，不允许访问匹配到的静态目录以外的文件。
+	 * uri在DispatcherServlet中已经解码过，这里不再解码，否则%252e%252e这样的路径会被还原成..
+	 * 
+	 * @param uri		已解码的uri
+	 * @param folder	匹配到的静态目录的规范路径
+	 */
+	private File resolve(String uri, String folder) throws IOException {
+		if (uri.indexOf('\0') != -1 || hasParentSegment(uri)) {
+			LOGGER.warn("Illegal static path: " + uri);
+			return null;
+		}
+		File file = new File(root, uri);
+		String canonical = file.getCanonicalPath();
+		if (!canonical.startsWith(folder + File.separator)) {
+			LOGGER.warn("Illegal static path: " + uri);
+			return null;
+		}
+		return file.isFile() ? file : null;
+	}
+	
+	/**
+	 * 是否有..路径段，/和反斜杠都作为分隔符
+	 */
+	private static boolean hasParentSegment(String uri) {
+		int start = 0;
+		for (int i = 0, len = uri.length(); i <= len; i++) {
+			if (i == len || uri.charAt(i) == '/' || uri.charAt(i) == '\\') {
+				if (i - start == 2 && uri.charAt(start) == '.' && uri.charAt(start + 1) == '.') {
+					return true;
+				}
+				start = i + 1;
+			}
+		}
+		return false;
+	}
+	
+	private StaticResource loadSibling(File file, String ext, String etagSuffix) throws IOException {
+		File sibling = new File(file.getPath() + ext);
+		if (sibling.isFile() && sibling.lastModified() >= file.lastModified()) {
+			return load(sibling, etagSuffix);
+		}
+		return null;
+	}
+	
+	private StaticResource load(File file, String etagSuffix) throws IOException {
+		StaticResource resource = new StaticResource();
+		resource.file = file;
+		resource.length = file.length();
+		resource.lastModified = file.lastModified();
+		resource.etag = "\"" + Long.toHexString(resource.lastModified) + "-" + Long.toHexString(resource.length) + etagSuffix + "\"";
+		resource.checkedAt = System.currentTimeMillis();
+		if (resource.length <= maxCachedFileSize) {
+			resource.content = readFully(file, (int) resource.length);
+		}
+		return resource;
+	}
+	
+	private String getContentType(String fileName) {
+		String contentType = servletContext.getMimeType(fileName);
+		return null != contentType ? contentType : "application/octet-stream";
+	}
+	
+	private static byte[] readFully(File file, int length) throws IOException {
+		byte[] content = new byte[length];
+		FileInputStream in = new FileInputStream(file);
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(content);
+			FileChannel channel = in.getChannel();
+			while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+			}
+		} finally {
+			IOKit.closeQuietly(in);
+		}
+		return content;
+	}
+	
+	/**
+	 * 输出文件内容，缓存的文件直接写出，大文件在Jetty中使用缓存的内存映射，否则使用transferTo
+	 */
+	private static void write(OutputStream out, StaticResource resource, long start, long length) throws IOException {
+		if (null != resource.content) {
+			out.write(resource.content, (int) start, (int) length);
+			return;
+		}
+		if (JETTY_OUTPUT && resource.length <= Integer.MAX_VALUE && JettyContentWriter.accept(out)) {
+			ByteBuffer buffer = map(resource).duplicate();
+			buffer.position((int) start);
+			buffer.limit((int) (start + length));
+			JettyContentWriter.write(out, buffer);
+			return;
+		}
+		FileInputStream in = new FileInputStream(resource.file);
+		try {
+			FileChannel channel = in.getChannel();
+			WritableByteChannel target = Channels.newChannel(out);
+			long position = start;
+			long end = start + length;
+			while (position < end) {
+				long count = channel.transferTo(position, end - position, target);
+				if (count <= 0) {
+					break;
+				}
+				position += count;
+			}
+		} finally {
+			IOKit.closeQuietly(in);
+		}
+	}
+	
+	/**
+	 * 获取文件的只读内存映射，每个版本的文件只映射一次。
+	 * 映射在缓存项被替换或淘汰后随垃圾回收释放，不会每个请求都新建一个
+	 */
+	private static MappedByteBuffer map(StaticResource resource) throws IOException {
+		synchronized (resource) {
+			if (null == resource.mapped) {
+				FileInputStream in = new FileInputStream(resource.file);
+				try {
+					resource.mapped = in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, resource.length);
+				} finally {
+					IOKit.closeQuietly(in);
+				}
+			}
+			return resource.mapped;
+		}
+	}
+	
+	/**
+	 * 判断是否可以返回304
+	 */
+	private static boolean notModified(HttpServletRequest request, StaticResource resource) {
+		String ifNoneMatch = request.getHeader("If-None-Match");
+		if (null != ifNoneMatch) {
+			for (String tag : ifNoneMatch.split(",")) {
+				tag = tag.trim();
+				if (tag.startsWith("W/")) {
+					tag = tag.substring(2);
+				}
+				if ("*".equals(tag) || resource.etag.equals(tag)) {
+					return true;
+				}
+			}
+			return false;
+		}
+		try {
+			long ifModifiedSince = request.getDateHeader("If-Modified-Since");
+			return ifModifiedSince != -1 && ifModifiedSince >= resource.lastModified / 1000 * 1000;
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * If-Range与当前文件一致时Range才生效
+	 */
+	private static boolean ifRange(HttpServletRequest request, StaticResource resource) {
+		String ifRange = request.getHeader("If-Range");
+		if (null == ifRange) {
+			return true;
+		}
+		ifRange = ifRange.trim();
+		if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+			return resource.etag.equals(ifRange);
+		}
+		try {
+			return request.getDateHeader("If-Range") >= resource.lastModified / 1000 * 1000;
+		} catch (IllegalArgumentException e) {
+			return false;
+		}
+	}
+	
+	/**
+	 * 解析单个Range，格式错误或多个Range时返回null，按完整文件输出
+	 * 
+	 * @return	返回[start, end]，无法满足时返回UNSATISFIABLE
+	 */
+	static long[] parseRange(String range, long length) {
+		if (!range.startsWith("bytes=") || range.indexOf(',') != -1) {
+			return null;
+		}
+		String spec = range.substring(6).trim();
+		int dash = spec.indexOf('-');
+		if (dash == -1) {
+			return null;
+		}
+		try {
+			long start, end;
+			if (dash == 0) {
+				// bytes=-500，最后500个字节
+				long suffix = Long.parseLong(spec.substring(1));
+				if (suffix <= 0) {
+					return UNSATISFIABLE;
+				}
+				start = Math.max(0, length - suffix);
+				end = length - 1;
+			} else {
+				start = Long.parseLong(spec.substring(0, dash));
+				if (start >= length) {
+					return UNSATISFIABLE;
+				}
+				end = dash == spec.length() - 1 ? length - 1 : Long.parseLong(spec.substring(dash + 1));
+				if (end < start) {
+					return null;
+				}
+				end = Math.min(end, length - 1);
+			}
+			return new long[] { start, end };
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+	
+	/**
+	 * 缓存的静态文件信息
+	 */
+	static final class StaticResource {
+		
+		File file;
+		
+		long length;
+		
+		long lastModified;
+		
+		String etag;
+		
+		String contentType;
+		
+		/**
+		 * 小文件的内容，大文件为null
+		 */
+		byte[] content;
+		
+		/**
+		 * 大文件在Jetty中输出时的内存映射，第一次输出时创建
+		 */
+		MappedByteBuffer mapped;
+		
+		StaticResource gzip;
+		
+		StaticResource brotli;
+		
+		volatile long checkedAt;
+	}
+	
+}
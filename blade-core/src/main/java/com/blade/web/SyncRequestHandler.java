@@ -1,8 +1,5 @@
 package com.blade.web;
 
-import java.lang.reflect.Method;
-import java.util.List;
-
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -16,10 +13,12 @@ import com.blade.Blade;
 import com.blade.Const;
 import com.blade.context.BladeWebContext;
 import com.blade.render.ModelAndView;
+import com.blade.route.InterceptorChain;
 import com.blade.route.Route;
-import com.blade.route.RouteHandler;
+import com.blade.route.RouteInvoker;
 import com.blade.route.RouteMatcher;
 import com.blade.route.Routers;
+import com.blade.web.http.HttpException;
 import com.blade.web.http.HttpStatus;
 import com.blade.web.http.Path;
 import com.blade.web.http.Request;
@@ -49,6 +48,7 @@ public class SyncRequestHandler {
 	public void handle(HttpServletRequest httpRequest, HttpServletResponse httpResponse){
 		
 		Response response = null;
+		ServletRequest servletRequest = null;
         try {
         	// http方法, GET/POST ...
             String method = httpRequest.getMethod();
@@ -68,7 +68,8 @@ public class SyncRequestHandler {
             }
             
             // 创建请求对象
-    		Request request = new ServletRequest(httpRequest);
+    		servletRequest = new ServletRequest(httpRequest);
+    		Request request = servletRequest;
             
     		// 创建响应对象
             response = new ServletResponse(httpResponse, blade.render());
@@ -82,15 +83,13 @@ public class SyncRequestHandler {
 			if (route != null) {
 				request.setRoute(route);
 				// 执行before拦截
-				List<Route> befores = routeMatcher.getBefore(uri);
-				invokeInterceptor(request, response, befores);
+				invokeInterceptor(request, response, route.getBefores(), uri);
 				
 				// 实际执行方法
 				handle(request, response, route);
 				
 				// 执行after拦截
-				List<Route> afters = routeMatcher.getAfter(uri);
-				invokeInterceptor(request, response, afters);
+				invokeInterceptor(request, response, route.getAfters(), uri);
 				return;
 			}
 			
@@ -110,6 +109,21 @@ public class SyncRequestHandler {
                 return;
             }
             
+        } catch (HttpException hex) {
+        	
+        	// 上传超过限制时直接返回413，不再读取剩余的请求体
+        	if (hex.getStatus() == HttpStatus.REQUEST_ENTITY_TOO_LARGE && null != response) {
+        		LOGGER.warn(hex.getMessage());
+        		if (!httpResponse.isCommitted()) {
+        			response.status(HttpStatus.REQUEST_ENTITY_TOO_LARGE);
+        			response.html(Const.REQUEST_ENTITY_TOO_LARGE);
+        			return;
+        		}
+        	} else {
+        		String error = ThrowableKit.getStackTraceAsString(hex);
+        		LOGGER.error(error);
+        		ThrowableKit.propagate(hex);
+        	}
         } catch (Exception e) {
         	
         	String error = ThrowableKit.getStackTraceAsString(e);
@@ -122,6 +136,11 @@ public class SyncRequestHandler {
                 response.html(Const.INTERNAL_ERROR);
                 return;
             }
+        } finally {
+        	// 删除上传文件产生的临时文件
+        	if (null != servletRequest) {
+        		servletRequest.cleanup();
+        	}
         }
         return;
 	}
@@ -150,11 +169,14 @@ public class SyncRequestHandler {
 	 * @param request		请求对象
 	 * @param response		响应对象
 	 * @param current	当前请求的路由
-	 * @param interceptors	要执行的拦截器列表
+	 * @param interceptors	要执行的拦截器链
+	 * @param uri			请求的uri
 	 */
-	private void invokeInterceptor(Request request, Response response, List<Route> interceptors) {
-		for(Route route : interceptors){
-			handle(request, response, route);
+	private void invokeInterceptor(Request request, Response response, InterceptorChain interceptors, String uri) {
+		for(int i=0, len=interceptors.size(); i<len; i++){
+			if(interceptors.matches(i, uri)){
+				handle(request, response, interceptors.get(i));
+			}
 		}
 	}
 
@@ -167,20 +189,18 @@ public class SyncRequestHandler {
 	 * @param route		路由对象
 	 */
 	private void handle(Request request, Response response, Route route){
-		Object target = route.getTarget();
-		request.initPathParams(route.getPath());
+		request.initPathParams(route);
 		
 		// 初始化context
 		BladeWebContext.setContext(servletContext, request, response);
-		if(target instanceof RouteHandler){
-			RouteHandler routeHandler = (RouteHandler)target;
-			routeHandler.handle(request, response);
-		} else {
-			// 要执行的路由方法
-			Method actionMethod = route.getAction();
-			// 执行route方法
-			RouteArgument.executeMethod(target, actionMethod, request, response);
+		
+		RouteInvoker invoker = route.getInvoker();
+		if(null == invoker){
+			invoker = RouteInvoker.create(route);
+			route.setInvoker(invoker);
 		}
+		// 执行route方法
+		invoker.invoke(request, response);
 	}
 	
 	
@@ -28,10 +28,18 @@ public class HttpException extends RuntimeException {
 
 	private static final long serialVersionUID = 1L;
 
+	// 要返回给客户端的状态码，0表示未指定
+	private int status;
+	
 	public HttpException() {
 		super();
 	}
 
+	public HttpException(int status, String message, Throwable throwable) {
+		super(message, throwable);
+		this.status = status;
+	}
+
 	public HttpException(String message, Throwable throwable) {
 		super(message, throwable);
 	}
@@ -44,4 +52,8 @@ public class HttpException extends RuntimeException {
 		super(throwable);
 	}
 
+	public int getStatus() {
+		return status;
+	}
+
 }
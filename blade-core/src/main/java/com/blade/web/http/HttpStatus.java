@@ -31,6 +31,7 @@ public final class HttpStatus {
 	public static final int ACCEPTED = 202;
 	public static final int PARTIAL_INFO = 203;
 	public static final int NO_RESPONSE = 204;
+	public static final int PARTIAL_CONTENT = 206;
 	public static final int MOVED = 301;
 	public static final int FOUND = 302;
 	public static final int METHOD = 303;
@@ -40,10 +41,14 @@ public final class HttpStatus {
 	public static final int PAYMENT_REQUIRED = 402;
 	public static final int FORBIDDEN = 403;
 	public static final int NOT_FOUND = 404;
+	public static final int METHOD_NOT_ALLOWED = 405;
 	public static final int CONFLICT = 409;
+	public static final int REQUEST_ENTITY_TOO_LARGE = 413;
+	public static final int RANGE_NOT_SATISFIABLE = 416;
 	public static final int INTERNAL_ERROR = 500;
 	public static final int NOT_IMPLEMENTED = 501;
 	public static final int OVERLOADED = 502;
 	public static final int GATEWAY_TIMEOUT = 503;
+	public static final int SERVICE_UNAVAILABLE = 503;
 	
 }
@@ -23,9 +23,12 @@ import javax.servlet.ServletContext;
 import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
 
+import blade.kit.json.JsonValue;
+
 import com.blade.route.Route;
 import com.blade.web.http.wrapper.Session;
 import com.blade.web.multipart.FileItem;
+import com.blade.web.multipart.MultipartHandler;
 
 /**
  * 
@@ -49,6 +52,12 @@ public interface Request {
 	 */
 	void initPathParams(String routePath);
 	
+	/**
+	 * 使用路由上预编译的提取器初始化URL参数
+	 * @param route	路由对象
+	 */
+	void initPathParams(Route route);
+	
 	/**
 	 * @return	返回客户端请求主机
 	 */
@@ -303,6 +312,14 @@ public interface Request {
 	 */
 	FileItem[] files();
 	
+	/**
+	 * 以流的方式读取multipart请求体，必须在读取参数和文件之前调用。
+	 * 处理器实现MultipartStreamHandler时，文件内容直接以输入流交给处理器，不写入内存或临时文件
+	 * 
+	 * @param handler	multipart处理器
+	 */
+	void multipart(MultipartHandler handler);
+	
 	/**
 	 * @return	返回请求体
 	 */
@@ -328,6 +345,12 @@ public interface Request {
 		String asString();
 		InputStream asInputStream();
 		byte[] asByte();
+		
+		/**
+		 * 直接按UTF-8字节解析请求体为JSON，不先转换为字符串
+		 * @return	返回解析后的JsonValue
+		 */
+		JsonValue asJson();
 	}
 	
 }
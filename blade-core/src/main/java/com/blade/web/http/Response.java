@@ -81,6 +81,15 @@ public interface Response {
 	
 	Response json(String output);
 	
+	/**
+	 * 把对象序列化为JSON直接写入输出流，不生成完整的JSON字符串；
+	 * 已经是JSON文本的字符串请使用{@link #json(String)}
+	 * 
+	 * @param bean	要输出的对象，可以是JsonValue、Map、集合、数组或JavaBean
+	 * @return		返回Response
+	 */
+	Response jsonObject(Object bean);
+	
 	Response xml(String output);
 	
 	OutputStream outputStream() throws IOException;
@@ -0,0 +1,253 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blade.web.http.wrapper;
+
+import java.io.IOException;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+/**
+ * 
+ * <p>
+ * 流式压缩输出，先缓冲到最小压缩大小，超过后再决定是否压缩，
+ * 之后边写边压缩，不缓冲整个响应体
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+class CompressionOutputStream extends ServletOutputStream {
+	
+	private static final int UNDECIDED = 0;
+	
+	private static final int IDENTITY = 1;
+	
+	private static final int COMPRESS = 2;
+	
+	private static final int CLOSED = 3;
+	
+	private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0 };
+	
+	private final CompressionResponse response;
+	
+	private final ResponseCompressor compressor;
+	
+	private final String encoding;
+	
+	private final boolean gzip;
+	
+	private int state = UNDECIDED;
+	
+	/**
+	 * 未决定是否压缩前的缓冲
+	 */
+	private byte[] buffer;
+	
+	private int count;
+	
+	private ServletOutputStream target;
+	
+	private DeflaterPool pool;
+	
+	private Deflater deflater;
+	
+	private byte[] deflateBuffer;
+	
+	private CRC32 crc;
+	
+	CompressionOutputStream(CompressionResponse response, ResponseCompressor compressor, String encoding) {
+		this.response = response;
+		this.compressor = compressor;
+		this.encoding = encoding;
+		this.gzip = ResponseCompressor.GZIP.equals(encoding);
+	}
+	
+	boolean isIdentity() {
+		return state == IDENTITY;
+	}
+	
+	@Override
+	public void write(int b) throws IOException {
+		write(new byte[] { (byte) b }, 0, 1);
+	}
+	
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		switch (state) {
+		case UNDECIDED:
+			if (null == buffer) {
+				buffer = new byte[compressor.minSize()];
+			}
+			if (count + len <= buffer.length) {
+				System.arraycopy(b, off, buffer, count, len);
+				count += len;
+				return;
+			}
+			decide(false);
+			write(b, off, len);
+			return;
+		case IDENTITY:
+			target.write(b, off, len);
+			return;
+		case COMPRESS:
+			deflate(b, off, len);
+			return;
+		default:
+			throw new IOException("Stream closed");
+		}
+	}
+	
+	@Override
+	public void flush() throws IOException {
+		if (state == UNDECIDED) {
+			// 流式输出不压缩的类型时不再等待缓冲满
+			if (compressor.isCompressible(response.getContentType())) {
+				return;
+			}
+			decide(false);
+		}
+		if (state == IDENTITY || state == COMPRESS) {
+			target.flush();
+		}
+	}
+	
+	@Override
+	public void close() throws IOException {
+		if (state == CLOSED) {
+			return;
+		}
+		try {
+			if (state == UNDECIDED) {
+				decide(true);
+			}
+			if (state == COMPRESS) {
+				deflater.finish();
+				while (!deflater.finished()) {
+					int len = deflater.deflate(deflateBuffer, 0, deflateBuffer.length);
+					if (len > 0) {
+						target.write(deflateBuffer, 0, len);
+					}
+				}
+				if (gzip) {
+					writeTrailer();
+				}
+			}
+			target.close();
+		} finally {
+			state = CLOSED;
+			releaseDeflater();
+		}
+	}
+	
+	/**
+	 * 响应被重置，丢弃缓冲数据
+	 */
+	void discard() {
+		state = CLOSED;
+		releaseDeflater();
+	}
+	
+	private void decide(boolean complete) throws IOException {
+		decide(complete, true);
+	}
+	
+	private void decide(boolean complete, boolean blocking) throws IOException {
+		boolean compress = response.startCompress(count, complete, blocking);
+		target = response.target();
+		if (compress) {
+			state = COMPRESS;
+			pool = compressor.pool(encoding);
+			deflater = pool.acquire();
+			deflateBuffer = new byte[8192];
+			if (gzip) {
+				crc = new CRC32();
+				target.write(GZIP_HEADER);
+			}
+			if (count > 0) {
+				deflate(buffer, 0, count);
+			}
+		} else {
+			state = IDENTITY;
+			if (count > 0) {
+				target.write(buffer, 0, count);
+			}
+		}
+		buffer = null;
+		count = 0;
+	}
+	
+	private void deflate(byte[] b, int off, int len) throws IOException {
+		if (gzip) {
+			crc.update(b, off, len);
+		}
+		deflater.setInput(b, off, len);
+		while (!deflater.needsInput()) {
+			int n = deflater.deflate(deflateBuffer, 0, deflateBuffer.length);
+			if (n > 0) {
+				target.write(deflateBuffer, 0, n);
+			}
+		}
+	}
+	
+	private void writeTrailer() throws IOException {
+		byte[] trailer = new byte[8];
+		writeInt((int) crc.getValue(), trailer, 0);
+		writeInt((int) deflater.getBytesRead(), trailer, 4);
+		target.write(trailer);
+	}
+	
+	private static void writeInt(int value, byte[] b, int offset) {
+		b[offset] = (byte) value;
+		b[offset + 1] = (byte) (value >> 8);
+		b[offset + 2] = (byte) (value >> 16);
+		b[offset + 3] = (byte) (value >> 24);
+	}
+	
+	private void releaseDeflater() {
+		if (null != deflater) {
+			pool.release(deflater);
+			deflater = null;
+		}
+	}
+	
+	@Override
+	public boolean isReady() {
+		return null == target || target.isReady();
+	}
+	
+	/**
+	 * 非阻塞输出时不压缩：还没开始压缩的响应写出缓冲后直接交给容器的输出流，
+	 * 已经开始压缩的响应无法再切换为非阻塞输出
+	 */
+	@Override
+	public void setWriteListener(WriteListener writeListener) {
+		if (state == UNDECIDED) {
+			try {
+				decide(false, false);
+			} catch (IOException e) {
+				throw new IllegalStateException("Can not write buffered response", e);
+			}
+		}
+		if (state != IDENTITY) {
+			throw new IllegalStateException("Non-blocking write is not supported after compression started");
+		}
+		target.setWriteListener(writeListener);
+	}
+	
+}
@@ -0,0 +1,207 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blade.web.http.wrapper;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * 
+ * <p>
+ * 压缩响应包装，getWriter和getOutputStream都经过压缩输出流，
+ * ServletResponse和Render的输出都会被压缩
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public class CompressionResponse extends HttpServletResponseWrapper {
+	
+	private static final String CONTENT_LENGTH = "Content-Length";
+	
+	private final ResponseCompressor compressor;
+	
+	private final String encoding;
+	
+	private CompressionOutputStream outputStream;
+	
+	private PrintWriter writer;
+	
+	/**
+	 * 业务设置的Content-Length，决定是否压缩之前先保存
+	 */
+	private long contentLength = -1;
+	
+	CompressionResponse(HttpServletResponse response, ResponseCompressor compressor, String encoding) {
+		super(response);
+		this.compressor = compressor;
+		this.encoding = encoding;
+	}
+	
+	@Override
+	public ServletOutputStream getOutputStream() throws IOException {
+		if (null != writer) {
+			throw new IllegalStateException("getWriter() has already been called");
+		}
+		return stream();
+	}
+	
+	@Override
+	public PrintWriter getWriter() throws IOException {
+		if (null == writer) {
+			if (null != outputStream) {
+				throw new IllegalStateException("getOutputStream() has already been called");
+			}
+			writer = new PrintWriter(new OutputStreamWriter(stream(), getCharacterEncoding()));
+		}
+		return writer;
+	}
+	
+	private CompressionOutputStream stream() {
+		if (null == outputStream) {
+			outputStream = new CompressionOutputStream(this, compressor, encoding);
+		}
+		return outputStream;
+	}
+	
+	@Override
+	public void setContentLength(int len) {
+		setLength(len);
+	}
+	
+	public void setContentLengthLong(long len) {
+		setLength(len);
+	}
+	
+	@Override
+	public void setHeader(String name, String value) {
+		if (CONTENT_LENGTH.equalsIgnoreCase(name)) {
+			setLength(null == value ? -1 : Long.parseLong(value));
+		} else {
+			super.setHeader(name, value);
+		}
+	}
+	
+	@Override
+	public void addHeader(String name, String value) {
+		if (CONTENT_LENGTH.equalsIgnoreCase(name)) {
+			setLength(null == value ? -1 : Long.parseLong(value));
+		} else {
+			super.addHeader(name, value);
+		}
+	}
+	
+	@Override
+	public void setIntHeader(String name, int value) {
+		if (CONTENT_LENGTH.equalsIgnoreCase(name)) {
+			setLength(value);
+		} else {
+			super.setIntHeader(name, value);
+		}
+	}
+	
+	private void setLength(long len) {
+		if (null != outputStream && outputStream.isIdentity()) {
+			super.setHeader(CONTENT_LENGTH, String.valueOf(len));
+		} else {
+			contentLength = len;
+		}
+	}
+	
+	@Override
+	public void flushBuffer() throws IOException {
+		if (null != writer) {
+			writer.flush();
+		} else if (null != outputStream) {
+			outputStream.flush();
+		}
+	}
+	
+	@Override
+	public void reset() {
+		super.reset();
+		resetOutput();
+	}
+	
+	@Override
+	public void resetBuffer() {
+		super.resetBuffer();
+		resetOutput();
+	}
+	
+	private void resetOutput() {
+		if (null != outputStream) {
+			outputStream.discard();
+		}
+		outputStream = null;
+		writer = null;
+		contentLength = -1;
+	}
+	
+	/**
+	 * 决定是否压缩，需要压缩时设置响应头
+	 * 
+	 * @param buffered	已缓冲的字节数
+	 * @param complete	响应是否已经全部写完
+	 * @param blocking	是否为阻塞输出，非阻塞输出时不压缩
+	 * @return			返回是否压缩
+	 */
+	boolean startCompress(int buffered, boolean complete, boolean blocking) {
+		boolean compressible = compressor.isCompressible(getContentType());
+		if (compressible) {
+			super.addHeader("Vary", "Accept-Encoding");
+		}
+		int status = getStatus();
+		boolean compress = compressible && blocking
+				&& !(complete && buffered < compressor.minSize())
+				&& !(contentLength >= 0 && contentLength < compressor.minSize())
+				&& status >= 200 && status != HttpServletResponse.SC_NO_CONTENT && status != HttpServletResponse.SC_NOT_MODIFIED
+				&& null == getHeader("Content-Encoding");
+		if (compress) {
+			super.setHeader("Content-Encoding", encoding);
+		} else if (contentLength >= 0) {
+			super.setHeader(CONTENT_LENGTH, String.valueOf(contentLength));
+		} else if (complete) {
+			super.setHeader(CONTENT_LENGTH, String.valueOf(buffered));
+		}
+		return compress;
+	}
+	
+	ServletOutputStream target() throws IOException {
+		return super.getOutputStream();
+	}
+	
+	/**
+	 * 写完剩余数据并结束压缩
+	 */
+	void finish() {
+		try {
+			if (null != writer) {
+				writer.close();
+			} else if (null != outputStream) {
+				outputStream.close();
+			}
+		} catch (IOException e) {
+			// 客户端断开连接
+		}
+	}
+	
+}
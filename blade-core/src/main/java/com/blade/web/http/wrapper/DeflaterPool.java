@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blade.web.http.wrapper;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * 
+ * <p>
+ * Deflater对象池，Deflater持有本地zlib内存，复用可以避免每个请求都创建和释放
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public class DeflaterPool {
+	
+	private final BlockingQueue<Deflater> pool;
+	
+	private final int level;
+	
+	private final boolean nowrap;
+	
+	/**
+	 * @param capacity	池中最多保留的Deflater个数
+	 * @param level		压缩级别
+	 * @param nowrap	true输出原始deflate数据(用于gzip)，false输出zlib格式
+	 */
+	public DeflaterPool(int capacity, int level, boolean nowrap) {
+		this.pool = new ArrayBlockingQueue<Deflater>(capacity);
+		this.level = level;
+		this.nowrap = nowrap;
+	}
+	
+	/**
+	 * @return	返回一个可用的Deflater，池为空时新建
+	 */
+	public Deflater acquire() {
+		Deflater deflater = pool.poll();
+		if (null == deflater) {
+			deflater = new Deflater(level, nowrap);
+		}
+		return deflater;
+	}
+	
+	/**
+	 * 归还Deflater，池已满时释放本地内存
+	 * 
+	 * @param deflater	用完的Deflater
+	 */
+	public void release(Deflater deflater) {
+		deflater.reset();
+		if (!pool.offer(deflater)) {
+			deflater.end();
+		}
+	}
+	
+	/**
+	 * @return	返回池中空闲的Deflater个数
+	 */
+	public int idle() {
+		return pool.size();
+	}
+	
+}
@@ -0,0 +1,142 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blade.web.http.wrapper;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 
+ * <p>
+ * 响应压缩，根据Accept-Encoding选择gzip或deflate，
+ * 只压缩配置的MIME类型且大小达到阈值的响应
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public class ResponseCompressor {
+	
+	public static final String GZIP = "gzip";
+	
+	public static final String DEFLATE = "deflate";
+	
+	/**
+	 * 小于这个大小的响应不压缩
+	 */
+	private final int minSize;
+	
+	private final Set<String> mimeTypes;
+	
+	private final DeflaterPool gzipPool;
+	
+	private final DeflaterPool deflatePool;
+	
+	/**
+	 * @param minSize		最小压缩大小，单位字节
+	 * @param mimeTypes		需要压缩的MIME类型
+	 * @param level			压缩级别，0-9或-1
+	 * @param poolSize		Deflater池大小
+	 */
+	public ResponseCompressor(int minSize, String[] mimeTypes, int level, int poolSize) {
+		this.minSize = Math.max(1, minSize);
+		this.mimeTypes = new HashSet<String>();
+		for (String mimeType : mimeTypes) {
+			this.mimeTypes.add(mimeType.trim().toLowerCase());
+		}
+		this.gzipPool = new DeflaterPool(poolSize, level, true);
+		this.deflatePool = new DeflaterPool(poolSize, level, false);
+	}
+	
+	/**
+	 * 客户端支持压缩时返回包装后的响应，否则返回原响应
+	 * 
+	 * @param request	请求对象
+	 * @param response	响应对象
+	 * @return			返回响应对象
+	 */
+	public HttpServletResponse wrap(HttpServletRequest request, HttpServletResponse response) {
+		if ("HEAD".equals(request.getMethod())) {
+			return response;
+		}
+		String accept = request.getHeader("Accept-Encoding");
+		if (null == accept) {
+			return response;
+		}
+		if (accepts(accept, GZIP)) {
+			return new CompressionResponse(response, this, GZIP);
+		}
+		if (accepts(accept, DEFLATE)) {
+			return new CompressionResponse(response, this, DEFLATE);
+		}
+		return response;
+	}
+	
+	/**
+	 * 结束压缩输出，写出缓冲的数据并归还Deflater，未包装的响应忽略
+	 * 
+	 * @param response	响应对象
+	 */
+	public static void finish(HttpServletResponse response) {
+		if (response instanceof CompressionResponse) {
+			((CompressionResponse) response).finish();
+		}
+	}
+	
+	/**
+	 * 判断Accept-Encoding是否接受某种编码
+	 * 
+	 * @param acceptEncoding	请求头Accept-Encoding的值
+	 * @param encoding			编码，如gzip
+	 * @return					返回是否接受，q=0表示不接受
+	 */
+	public static boolean accepts(String acceptEncoding, String encoding) {
+		for (String item : acceptEncoding.split(",")) {
+			item = item.trim();
+			int semi = item.indexOf(';');
+			String name = semi == -1 ? item : item.substring(0, semi).trim();
+			if (name.equalsIgnoreCase(encoding)) {
+				return semi == -1 || !item.substring(semi + 1).replace(" ", "").matches("q=0(\\.0*)?");
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * @param contentType	响应的Content-Type
+	 * @return				返回是否需要压缩
+	 */
+	boolean isCompressible(String contentType) {
+		if (null == contentType) {
+			return false;
+		}
+		int semi = contentType.indexOf(';');
+		String mimeType = semi == -1 ? contentType : contentType.substring(0, semi);
+		return mimeTypes.contains(mimeType.trim().toLowerCase());
+	}
+	
+	int minSize() {
+		return minSize;
+	}
+	
+	DeflaterPool pool(String encoding) {
+		return GZIP.equals(encoding) ? gzipPool : deflatePool;
+	}
+	
+}
@@ -15,21 +15,18 @@
  */
 package com.blade.web.http.wrapper;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import javax.servlet.ServletContext;
 import javax.servlet.http.Cookie;
@@ -37,17 +34,28 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpSession;
 
 import com.blade.Blade;
+import com.blade.Const;
+import com.blade.context.BladeWebContext;
+import com.blade.route.PathParamExtractor;
 import com.blade.route.Route;
+import com.blade.session.SessionData;
+import com.blade.session.SessionStore;
 import com.blade.web.http.HttpException;
 import com.blade.web.http.HttpMethod;
+import com.blade.web.http.HttpStatus;
 import com.blade.web.http.Path;
 import com.blade.web.http.Request;
+import com.blade.web.http.Response;
 import com.blade.web.multipart.FileItem;
 import com.blade.web.multipart.Multipart;
 import com.blade.web.multipart.MultipartException;
+import com.blade.web.multipart.MultipartConfig;
 import com.blade.web.multipart.MultipartHandler;
+import com.blade.web.multipart.MultipartLimitException;
 
 import blade.kit.IOKit;
+import blade.kit.json.Json;
+import blade.kit.json.JsonValue;
 import blade.kit.text.HTMLFilter;
 
 /**
@@ -69,47 +77,166 @@ public class ServletRequest implements Request {
 	
 	protected Map<String,String> pathParams = new HashMap<String,String>();
 	
+	private String relativePath;
+	
 	private Map<String,String> multipartParams = new HashMap<String,String>();
 
 	private List<FileItem> files = new ArrayList<FileItem>();
 	
+	// multipart请求体是否已经解析，第一次读取参数或文件时解析
+	private boolean multipartParsed = false;
+	
 	private Session session = null;
 	
+	// 使用SessionStore时本次请求访问的session，请求结束时写回
+	private SessionData sessionData;
+	
+	private SessionStore sessionStore;
+	
 	private Blade blade = Blade.me();
 	
+	// 以下内容每个请求最多解析一次，第一次访问时创建
+	private Map<String,String> queryParams;
+	
+	private Map<String,String> querys;
+	
+	private Map<String,String> headers;
+	
+	private Map<String,Cookie> cookieIndex;
+	
+	private Map<String,Cookie> cookies;
+	
+	private Set<String> attributeNames;
+	
+	// 开启XSS过滤时，原始值到转义后的值
+	private Map<String,String> escaped;
+	
 	public ServletRequest(HttpServletRequest request) throws MultipartException, IOException {
 		this.request = request;
-		init();
 	}
 	
+	/**
+	 * 解析multipart/form-data请求体，已经解析过时直接返回
+	 * 
+	 * @return	返回当前请求对象
+	 * @throws IOException
+	 * @throws MultipartException
+	 */
 	public ServletRequest init() throws IOException, MultipartException {
 		// retrieve multipart/form-data parameters
-		if (Multipart.isMultipartContent(request)) {
-			Multipart multipart = new Multipart();
-			multipart.parse(request, new MultipartHandler() {
-
-				@Override
-				public void handleFormItem(String name, String value) {
-					multipartParams.put( name, value );
-				}
-
-				@Override
-				public void handleFileItem(String name, FileItem fileItem) {
-					files.add(fileItem);
-				}
-
-			});
+		if (!multipartParsed) {
+			multipartParsed = true;
+			if (Multipart.isMultipartContent(request)) {
+				Multipart multipart = new Multipart(multipartConfig());
+				multipart.parse(request, new MultipartHandler() {
+	
+					@Override
+					public void handleFormItem(String name, String value) {
+						multipartParams.put( name, value );
+					}
+	
+					@Override
+					public void handleFileItem(String name, FileItem fileItem) {
+						files.add(fileItem);
+					}
+	
+				});
+			}
 		}
 		return this;
 	}
 	
+	@Override
+	public void multipart(final MultipartHandler handler) {
+		if (multipartParsed) {
+			throw new IllegalStateException("The multipart body has already been read");
+		}
+		multipartParsed = true;
+		if (!Multipart.isMultipartContent(request)) {
+			return;
+		}
+		try {
+			new Multipart(multipartConfig()).parse(request, handler);
+		} catch (MultipartLimitException e) {
+			throw new HttpException(HttpStatus.REQUEST_ENTITY_TOO_LARGE, e.getMessage(), e);
+		} catch (IOException e) {
+			throw new HttpException(e);
+		} catch (MultipartException e) {
+			throw new HttpException(e);
+		}
+	}
+	
+	/**
+	 * @return	全局上传配置，路由上配置了上传限制时用路由的限制覆盖
+	 */
+	private MultipartConfig multipartConfig() {
+		MultipartConfig config = blade.multipartConfig();
+		if (null != route) {
+			config = config.override(route.getMaxPartSize(), route.getMaxRequestSize(), route.getMaxParts());
+		}
+		return config;
+	}
+	
+	private Map<String, String> multipartParams() {
+		try {
+			init();
+		} catch (MultipartLimitException e) {
+			throw new HttpException(HttpStatus.REQUEST_ENTITY_TOO_LARGE, e.getMessage(), e);
+		} catch (IOException e) {
+			throw new HttpException(e);
+		} catch (MultipartException e) {
+			throw new HttpException(e);
+		}
+		return multipartParams;
+	}
+	
+	/**
+	 * 请求结束时调用，删除上传文件产生的临时文件，把修改过的session写回SessionStore
+	 */
+	public void cleanup() {
+		for (FileItem fileItem : files) {
+			fileItem.delete();
+		}
+		saveSession();
+	}
+	
+	/**
+	 * 把本次请求访问的session写回SessionStore，写响应内容前和请求结束时调用
+	 */
+	public void saveSession() {
+		if (null != sessionData) {
+			sessionStore.save(sessionData);
+		}
+	}
+	
 	private String join(String[] arr) {
-		String ret = "";
-		for (String item : arr) {
-			ret += "," + item;
+		if (arr.length == 1) {
+			return arr[0];
+		}
+		StringBuilder ret = new StringBuilder();
+		for (int i = 0; i < arr.length; i++) {
+			if (i > 0) {
+				ret.append(',');
+			}
+			ret.append(arr[i]);
+		}
+		return ret.toString();
+	}
+	
+	/**
+	 * 开启XSS过滤时返回转义后的值，同一个值只转义一次
+	 */
+	private String escape(String val) {
+		if (null == val || !blade.enableXSS()) {
+			return val;
 		}
-		if (ret.length() > 0) {
-			ret = ret.substring(1);
+		if (null == escaped) {
+			escaped = new HashMap<String,String>();
+		}
+		String ret = escaped.get(val);
+		if (null == ret) {
+			ret = HTMLFilter.htmlSpecialChars(val);
+			escaped.put(val, ret);
 		}
 		return ret;
 	}
@@ -117,27 +244,48 @@ public class ServletRequest implements Request {
 	@Override
 	public void initPathParams(String routePath) {
 		pathParams.clear();
-		
-		List<String> variables = getPathParam(routePath);
-		String regexPath = routePath.replaceAll(Path.VAR_REGEXP, Path.VAR_REPLACE);
-
-		Matcher matcher = Pattern.compile("(?i)" + regexPath).matcher(path());
-		matcher.matches();
-		
-		// start index at 1 as group(0) always stands for the entire expression
-		for (int i=1; i <= variables.size(); i++) {
-			String value = matcher.group(i);
-			pathParams.put(variables.get(i-1), value);
+		PathParamExtractor extractor = PathParamExtractor.compile(routePath);
+		if(extractor.hasParams()){
+			extractor.extract(relativePath(), pathParams);
 		}
 	}
 	
-	private List<String> getPathParam(String routePath) {
-		List<String> variables = new ArrayList<String>();
-		Matcher matcher = Pattern.compile(Path.VAR_REGEXP).matcher(routePath);
-		while (matcher.find()) {
-			variables.add(matcher.group(1));
+	@Override
+	public void initPathParams(Route route) {
+		PathParamExtractor extractor = route.getPathExtractor();
+		if(null == extractor){
+			extractor = PathParamExtractor.compile(route.getPath());
+			route.setPathExtractor(extractor);
+		}
+		if(!extractor.hasParams()){
+			if(!pathParams.isEmpty()){
+				pathParams.clear();
+			}
+			return;
+		}
+		pathParams.clear();
+		extractor.extract(relativePath(), pathParams);
+	}
+	
+	/**
+	 * @return	返回去掉contextPath的请求路径，和路由匹配时使用的路径一致
+	 */
+	private String relativePath() {
+		if(null == relativePath){
+			relativePath = Path.getRelativePath(request.getRequestURI(), servletContextPath());
 		}
-		return variables;
+		return relativePath;
+	}
+	
+	private String servletContextPath() {
+		String contextPath = request.getContextPath();
+		if(null == contextPath){
+			// 异步执行时容器已经退出请求的上下文，使用分发时设置的ServletContext
+			BladeWebContext webContext = BladeWebContext.me();
+			ServletContext servletContext = null != webContext ? webContext.getContext() : null;
+			contextPath = null != servletContext ? servletContext.getContextPath() : "";
+		}
+		return contextPath;
 	}
 	
 	@Override
@@ -197,11 +345,7 @@ public class ServletRequest implements Request {
 
 	@Override
 	public String param(String name) {
-		String val = pathParams.get(name);
-		if(null != val && blade.enableXSS()){
-			return HTMLFilter.htmlSpecialChars(val);
-		}
-		return val;
+		return escape(pathParams.get(name));
 	}
 	
 	@Override
@@ -210,10 +354,7 @@ public class ServletRequest implements Request {
 		if(null == val){
 			val = defaultValue;
 		}
-		if (null != val && blade.enableXSS()) {
-			return HTMLFilter.htmlSpecialChars(val);
-		}
-		return val;
+		return escape(val);
 	}
 
 	@Override
@@ -250,45 +391,52 @@ public class ServletRequest implements Request {
 
 	@Override
 	public Map<String, String> querys() {
-		Map<String,String> params = new HashMap<String,String>();
-
-		Map<String,String[]> requestParams = request.getParameterMap();
-		for (Map.Entry<String,String[]> entry : requestParams.entrySet()) {
-			params.put( entry.getKey(), join(entry.getValue()) );
+		if (null == querys) {
+			Map<String,String> multipart = multipartParams();
+			if (multipart.isEmpty()) {
+				querys = queryParams();
+			} else {
+				Map<String,String> params = new HashMap<String,String>(queryParams());
+				params.putAll(multipart);
+				querys = Collections.unmodifiableMap(params);
+			}
 		}
-		params.putAll(multipartParams);
-		return Collections.unmodifiableMap(params);
+		return querys;
+	}
+	
+	/**
+	 * @return	返回url和表单中的参数，多个值用逗号连接
+	 */
+	private Map<String,String> queryParams() {
+		if (null == queryParams) {
+			Map<String,String[]> requestParams = request.getParameterMap();
+			if (requestParams.isEmpty()) {
+				queryParams = Collections.emptyMap();
+			} else {
+				Map<String,String> params = new HashMap<String,String>(requestParams.size() * 4 / 3 + 1);
+				for (Map.Entry<String,String[]> entry : requestParams.entrySet()) {
+					params.put( entry.getKey(), join(entry.getValue()) );
+				}
+				queryParams = Collections.unmodifiableMap(params);
+			}
+		}
+		return queryParams;
 	}
 
 	@Override
 	public String query(String name) {
-		String[] param = request.getParameterValues(name);
-		String val = null;
-		if (param != null) {
-			val = join(param);
-		} else {
-			val = multipartParams.get(name);
+		String val = queryParams().get(name);
+		if (null == val) {
+			val = multipartParams().get(name);
 		}
-		if(null != val && blade.enableXSS()){
-			return HTMLFilter.htmlSpecialChars(val);
-		}
-		return val;
+		return escape(val);
 	}
 	
 	@Override
 	public String query(String name, String defaultValue) {
-		String[] param = request.getParameterValues(name);
-		String val = null;
-		if (param != null) {
-			val = join(param);
-		} else {
-			val = multipartParams.get(name);
-		}
-		if(null == val){
-			val = defaultValue;
-		}
-		if(blade.enableXSS()){
-			return HTMLFilter.htmlSpecialChars(val);
+		String val = query(name);
+		if (null == val) {
+			val = escape(defaultValue);
 		}
 		return val;
 	}
@@ -355,15 +503,20 @@ public class ServletRequest implements Request {
 
 	@Override
 	public Session session() {
-		if (session == null) {
-            session = new Session(request.getSession());
-        }
-        return session;
+		return session(true);
 	}
 	
 	@Override
 	public Session session(boolean create) {
+		if (null != sessionData && !sessionData.isValid()) {
+			// 已经失效的session，重新获取
+			session = null;
+		}
 		if (session == null) {
+			SessionStore store = blade.sessionStore();
+			if (null != store) {
+				return storedSession(store, create);
+			}
             HttpSession httpSession = request.getSession(create);
             if (httpSession != null) {
                 session = new Session(httpSession);
@@ -371,6 +524,36 @@ public class ServletRequest implements Request {
         }
         return session;
 	}
+	
+	/**
+	 * 从SessionStore中按Cookie里的session id加载session，需要时创建新的session并写入Cookie
+	 */
+	private Session storedSession(SessionStore store, boolean create) {
+		SessionData data = null;
+		String id = cookie(Const.SESSION_COOKIE);
+		if (null != id && (null == sessionData || !id.equals(sessionData.getId()))) {
+			data = store.load(id);
+		}
+		if (null == data) {
+			if (!create) {
+				return null;
+			}
+			data = store.create();
+			Response response = BladeWebContext.response();
+			if (null != response) {
+				Cookie cookie = new Cookie(Const.SESSION_COOKIE, data.getId());
+				String contextPath = servletContextPath();
+				cookie.setPath(contextPath.length() == 0 ? "/" : contextPath);
+				cookie.setHttpOnly(true);
+				cookie.setSecure(request.isSecure());
+				response.cookie(cookie);
+			}
+		}
+		this.sessionStore = store;
+		this.sessionData = data;
+		this.session = new Session(data);
+		return session;
+	}
 
 	@Override
 	public void attribute(String name, Object value) {
@@ -389,12 +572,10 @@ public class ServletRequest implements Request {
 
 	@Override
 	public Set<String> attributes() {
-		Set<String> attrList = new HashSet<String>();
-        Enumeration<String> attributes = (Enumeration<String>) request.getAttributeNames();
-        while (attributes.hasMoreElements()) {
-            attrList.add(attributes.nextElement());
-        }
-        return attrList;
+		if (null == attributeNames) {
+			attributeNames = new AttributeNames(request);
+		}
+		return attributeNames;
 	}
 
 	@Override
@@ -422,14 +603,40 @@ public class ServletRequest implements Request {
 
 	@Override
 	public Map<String, Cookie> cookies() {
-		javax.servlet.http.Cookie[] servletCookies = request.getCookies();
-
-		Map<String,Cookie> cookies = new HashMap<String,Cookie>();
-		for (javax.servlet.http.Cookie c : servletCookies) {
-			cookies.put( c.getName(), map(c) );
+		if (null == cookies) {
+			Map<String,Cookie> index = cookieIndex();
+			if (index.isEmpty()) {
+				cookies = Collections.emptyMap();
+			} else {
+				Map<String,Cookie> map = new HashMap<String,Cookie>(index.size() * 4 / 3 + 1);
+				for (Map.Entry<String,Cookie> entry : index.entrySet()) {
+					map.put( entry.getKey(), map(entry.getValue()) );
+				}
+				cookies = Collections.unmodifiableMap(map);
+			}
 		}
-
-		return Collections.unmodifiableMap(cookies);
+		return cookies;
+	}
+	
+	/**
+	 * @return	按名称索引的原始Cookie，同名Cookie取第一个
+	 */
+	private Map<String,Cookie> cookieIndex() {
+		if (null == cookieIndex) {
+			javax.servlet.http.Cookie[] servletCookies = request.getCookies();
+			if (null == servletCookies || servletCookies.length == 0) {
+				cookieIndex = Collections.emptyMap();
+			} else {
+				Map<String,Cookie> index = new HashMap<String,Cookie>(servletCookies.length * 4 / 3 + 1);
+				for (javax.servlet.http.Cookie c : servletCookies) {
+					if (!index.containsKey(c.getName())) {
+						index.put(c.getName(), c);
+					}
+				}
+				cookieIndex = index;
+			}
+		}
+		return cookieIndex;
 	}
 	
 	private Cookie map(Cookie servletCookie) {
@@ -450,7 +657,7 @@ public class ServletRequest implements Request {
 	
 	@Override
 	public String cookie(String name) {
-		Cookie cookie = cookieRaw(name);
+		Cookie cookie = cookieIndex().get(name);
 		if(null != cookie){
 			return cookie.getValue();
 		}
@@ -459,27 +666,23 @@ public class ServletRequest implements Request {
 	
 	@Override
 	public Cookie cookieRaw(String name) {
-		javax.servlet.http.Cookie[] servletCookies = request.getCookies();
-
-		if (servletCookies == null) {
-			return null;
-		}
-
-		for (javax.servlet.http.Cookie c : servletCookies) {
-			if (c.getName().equals(name)) {
-				return map(c);
-			}
+		Cookie cookie = cookieIndex().get(name);
+		if(null != cookie){
+			return map(cookie);
 		}
 		return null;
 	}
 
 	@Override
 	public Map<String, String> headers() {
-		Enumeration<String> servletHeaders = request.getHeaderNames();
-		Map<String,String> headers = new HashMap<String,String>();
-		while(servletHeaders.hasMoreElements()) {
-			String headerName = servletHeaders.nextElement();
-			headers.put(headerName, request.getHeader(headerName));
+		if (null == headers) {
+			Enumeration<String> servletHeaders = request.getHeaderNames();
+			Map<String,String> map = new HashMap<String,String>();
+			while(servletHeaders.hasMoreElements()) {
+				String headerName = servletHeaders.nextElement();
+				map.put(headerName, request.getHeader(headerName));
+			}
+			headers = Collections.unmodifiableMap(map);
 		}
 		return headers;
 	}
@@ -493,6 +696,9 @@ public class ServletRequest implements Request {
 	public void encoding(String encoding) {
 		try {
 			request.setCharacterEncoding(encoding);
+			// 编码改变后参数需要重新解析
+			queryParams = null;
+			querys = null;
 		} catch (UnsupportedEncodingException e) {
 			e.printStackTrace();
 		}
@@ -500,6 +706,7 @@ public class ServletRequest implements Request {
 	
 	@Override
 	public FileItem[] files() {
+		multipartParams();
 		FileItem[] fileParts = new FileItem[files.size()];
 		for (int i=0; i < files.size(); i++) {
 			fileParts[i] = files.get(i);
@@ -513,17 +720,10 @@ public class ServletRequest implements Request {
 			@Override
 			public String asString() throws HttpException {
 				try {
-					BufferedReader reader = new BufferedReader( new InputStreamReader(request.getInputStream()) );
-					StringBuilder sb = new StringBuilder();
-					String line = reader.readLine();
-					while (line != null) {
-						sb.append(line + "\n");
-						line = reader.readLine();
-					}
-					reader.close();
-					String data = sb.toString();
-
-					return data;
+					// 按请求编码一次性解码，保留原始换行
+					String encoding = request.getCharacterEncoding();
+					byte[] data = IOKit.toByteArray(request.getInputStream());
+					return new String(data, null != encoding ? encoding : "UTF-8");
 				} catch (IOException e) {
 					throw new HttpException(e);
 				}
@@ -547,18 +747,74 @@ public class ServletRequest implements Request {
 				}
 				return null;
 			}
+
+			@Override
+			public JsonValue asJson() throws HttpException {
+				try {
+					return Json.parse(request.getInputStream());
+				} catch (IOException e) {
+					throw new HttpException(e);
+				}
+			}
 		};
 	}
 
 	@Override
 	public void setRoute(Route route) {
 		this.route = route;
-		initPathParams(route.getPath());
+		initPathParams(route);
 	}
 	
 	@Override
 	public Route route() {
 		return this.route;
 	}
+	/**
+	 * 请求属性名的只读视图，直接读取HttpServletRequest，不复制属性名
+	 */
+	private static final class AttributeNames extends AbstractSet<String> {
+		
+		private final HttpServletRequest request;
+		
+		AttributeNames(HttpServletRequest request) {
+			this.request = request;
+		}
+		
+		@Override
+		public boolean contains(Object o) {
+			return o instanceof String && null != request.getAttribute((String) o);
+		}
+		
+		@Override
+		public Iterator<String> iterator() {
+			final Enumeration<String> names = request.getAttributeNames();
+			return new Iterator<String>() {
+				
+				@Override
+				public boolean hasNext() {
+					return names.hasMoreElements();
+				}
+				
+				@Override
+				public String next() {
+					return names.nextElement();
+				}
+				
+				@Override
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			};
+		}
+		
+		@Override
+		public int size() {
+			int size = 0;
+			for (Enumeration<String> names = request.getAttributeNames(); names.hasMoreElements(); names.nextElement()) {
+				size++;
+			}
+			return size;
+		}
+	}
 
 }
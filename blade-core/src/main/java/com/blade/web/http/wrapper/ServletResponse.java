@@ -16,6 +16,7 @@
 package com.blade.web.http.wrapper;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.UnsupportedEncodingException;
 import java.util.HashMap;
@@ -36,6 +37,7 @@ import com.blade.web.http.Request;
 import com.blade.web.http.Response;
 
 import blade.kit.Assert;
+import blade.kit.json.Json;
 
 /**
  * 
@@ -196,6 +198,7 @@ public class ServletResponse implements Response {
 
 	@Override
 	public Response text(String text) {
+		beforeWrite();
 		try {
 			response.setHeader("Cache-Control", "no-cache");
     		response.setContentType("text/plain;charset=utf-8");
@@ -209,6 +212,7 @@ public class ServletResponse implements Response {
 
 	@Override
 	public Response html(String html) {
+		beforeWrite();
 		try {
 			response.setHeader("Cache-Control", "no-cache");
 			response.setContentType("text/html;charset=utf-8");
@@ -231,13 +235,8 @@ public class ServletResponse implements Response {
 
 	@Override
 	public Response json(String json) {
-		Request request = BladeWebContext.request();
-		String userAgent = request.userAgent();
-		if (userAgent.contains("MSIE")) {
-			response.setContentType("text/html;charset=utf-8");
-		} else {
-			response.setContentType("application/json;charset=utf-8");
-		}
+		beforeWrite();
+		jsonContentType();
 		try {
 			response.setHeader("Cache-Control", "no-cache");
 			PrintWriter out = response.getWriter();
@@ -255,8 +254,45 @@ public class ServletResponse implements Response {
 		return null;
 	}
 
+	@Override
+	public Response jsonObject(Object bean) {
+		beforeWrite();
+		jsonContentType();
+		response.setHeader("Cache-Control", "no-cache");
+		try {
+			OutputStream out;
+			try {
+				out = response.getOutputStream();
+			} catch (IllegalStateException e) {
+				// 已经使用过getWriter
+				Json.writeTo(bean, response.getWriter());
+				this.written = true;
+				return this;
+			}
+			Json.writeTo(bean, out);
+			this.written = true;
+			return this;
+		} catch (IOException e) {
+			throw new HttpException(e);
+		}
+	}
+	
+	/**
+	 * 设置JSON的Content-Type，IE下使用text/html
+	 */
+	private void jsonContentType() {
+		Request request = BladeWebContext.request();
+		String userAgent = null != request ? request.userAgent() : null;
+		if (null != userAgent && userAgent.contains("MSIE")) {
+			response.setContentType("text/html;charset=utf-8");
+		} else {
+			response.setContentType("application/json;charset=utf-8");
+		}
+	}
+
 	@Override
 	public Response xml(String xml) {
+		beforeWrite();
 		try {
 			response.setHeader("Cache-Control", "no-cache");
 			response.setContentType("text/xml;charset=utf-8");
@@ -279,11 +315,13 @@ public class ServletResponse implements Response {
 
 	@Override
 	public ServletOutputStream outputStream() throws IOException {
+		beforeWrite();
 		return response.getOutputStream();
 	}
 
 	@Override
 	public Response render(String view) {
+		beforeWrite();
 		try {
 			Assert.notBlank(view, "view not is null");
 			
@@ -305,6 +343,7 @@ public class ServletResponse implements Response {
 	
 	@Override
 	public Response render(ModelAndView modelAndView) {
+		beforeWrite();
 		try {
 			Assert.notNull(modelAndView, "ModelAndView not is null!");
 			Assert.notBlank(modelAndView.getView(), "view not is null");
@@ -327,6 +366,7 @@ public class ServletResponse implements Response {
 
 	@Override
 	public void redirect(String path) {
+		beforeWrite();
 		try {
 			response.sendRedirect(path);
 		} catch (IOException e) {
@@ -336,6 +376,7 @@ public class ServletResponse implements Response {
 	
 	@Override
 	public void go(String path) {
+		beforeWrite();
 		try {
 			String ctx = BladeWebContext.servletContext().getContextPath();
         	String location = Path.fixPath(ctx + path);
@@ -345,6 +386,16 @@ public class ServletResponse implements Response {
 		}
 	}
 
+	/**
+	 * 写入响应内容之前把session写回SessionStore，保证客户端收到响应后的下一个请求能读到
+	 */
+	private void beforeWrite() {
+		Request request = BladeWebContext.request();
+		if (request instanceof ServletRequest) {
+			((ServletRequest) request).saveSession();
+		}
+	}
+	
 	@Override
 	public boolean isWritten() {
 		return written;
@@ -21,10 +21,12 @@ import java.util.TreeSet;
 
 import javax.servlet.http.HttpSession;
 
+import com.blade.session.SessionData;
+
 /**
  * 
  * <p>
- * HttpSession包装
+ * HttpSession包装，设置了SessionStore时包装的是存储中的session
  * </p>
  *
  * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
@@ -33,6 +35,8 @@ import javax.servlet.http.HttpSession;
 public class Session {
 
     private HttpSession session;
+    
+    private SessionData data;
 
     public Session(HttpSession session) {
         if (session == null) {
@@ -40,21 +44,48 @@ public class Session {
         }
         this.session = session;
     }
+    
+    public Session(SessionData data) {
+        if (data == null) {
+            throw new IllegalArgumentException("session cannot be null");
+        }
+        this.data = data;
+    }
 
+    /**
+     * @return	返回容器的HttpSession，使用SessionStore时返回null
+     */
     public HttpSession raw() {
         return session;
     }
+    
+    /**
+     * @return	返回SessionStore中的session，使用容器的HttpSession时返回null
+     */
+    public SessionData data() {
+        return data;
+    }
 
     @SuppressWarnings("unchecked")
     public <T> T attribute(String name) {
+        if (null != data) {
+            return (T) data.getAttribute(name);
+        }
         return (T) session.getAttribute(name);
     }
 
     public void attribute(String name, Object value) {
-        session.setAttribute(name, value);
+        if (null != data) {
+            data.setAttribute(name, value);
+        } else {
+            session.setAttribute(name, value);
+        }
     }
 
     public Set<String> attributes() {
+        if (null != data) {
+            return new TreeSet<String>(data.getAttributeNames());
+        }
         TreeSet<String> attributes = new TreeSet<String>();
         Enumeration<String> enumeration = session.getAttributeNames();
         while (enumeration.hasMoreElements()) {
@@ -64,34 +95,61 @@ public class Session {
     }
 
     public long creationTime() {
+        if (null != data) {
+            return data.getCreationTime();
+        }
         return session.getCreationTime();
     }
 
     public String id() {
+        if (null != data) {
+            return data.getId();
+        }
         return session.getId();
     }
 
     public long lastAccessedTime() {
+        if (null != data) {
+            return data.getLastAccessedTime();
+        }
         return session.getLastAccessedTime();
     }
 
     public int maxInactiveInterval() {
+        if (null != data) {
+            return data.getMaxInactiveInterval();
+        }
         return session.getMaxInactiveInterval();
     }
 
     public void maxInactiveInterval(int interval) {
-        session.setMaxInactiveInterval(interval);
+        if (null != data) {
+            data.setMaxInactiveInterval(interval);
+        } else {
+            session.setMaxInactiveInterval(interval);
+        }
     }
 
     public void invalidate() {
-        session.invalidate();
+        if (null != data) {
+            data.invalidate();
+        } else {
+            session.invalidate();
+        }
     }
 
     public boolean isNew() {
+        if (null != data) {
+            return data.isNew();
+        }
         return session.isNew();
     }
 
     public void removeAttribute(String name) {
-        session.removeAttribute(name);
+        if (null != data) {
+            data.removeAttribute(name);
+        } else {
+            session.removeAttribute(name);
+        }
     }
 }
\ No newline at end of file
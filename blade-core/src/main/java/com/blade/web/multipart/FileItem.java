@@ -15,14 +15,24 @@
  */
 package com.blade.web.multipart;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.HashMap;
 import java.util.Map;
 
+import blade.kit.IOKit;
+
 /**
  * 
  * <p>
- * HTTP multipart/form-data 请求
+ * HTTP multipart/form-data 请求中的文件，小文件内容保存在内存中，大文件保存在临时文件中
  * </p>
  *
  * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
@@ -42,8 +52,17 @@ public class FileItem {
 
 	private Map<String,String> headers;
 
+	// 保存在内存中的文件内容，文件写入磁盘时为null
+	private byte[] data;
+	
+	// 内存中的文件需要转为文件时使用的目录
+	private File repository;
+	
+	// 文件是否为解析时创建的临时文件，请求结束时删除
+	private boolean temporary;
+
 	public FileItem(String fieldName, String fileName, String contentType, long contentLength, File file, Map<String,String> headers) {
-		
+		this.name = fieldName;
 		this.fileName = fileName;
 		this.contentType = contentType;
 		this.contentLength = contentLength;
@@ -53,6 +72,11 @@ public class FileItem {
 			this.headers = new HashMap<String,String>();
 		}
 	}
+	
+	public FileItem(String fieldName, String fileName, String contentType, byte[] data, Map<String,String> headers) {
+		this(fieldName, fileName, contentType, data.length, null, headers);
+		this.data = data;
+	}
 
 	public String getName() {
 		return name;
@@ -70,12 +94,164 @@ public class FileItem {
 		return contentLength;
 	}
 
+	/**
+	 * 返回文件，内容在内存中时先写入临时文件，该文件同样会在请求结束时删除
+	 * 
+	 * @return	返回文件
+	 */
 	public File getFile() {
+		if (null == file && null != data) {
+			try {
+				File tempFile = File.createTempFile("com.blade.file_", null, repository);
+				FileOutputStream out = new FileOutputStream(tempFile);
+				try {
+					out.write(data);
+				} finally {
+					out.close();
+				}
+				this.file = tempFile;
+				this.temporary = true;
+				this.data = null;
+			} catch (IOException e) {
+				throw new IllegalStateException("Can not write upload to temp file", e);
+			}
+		}
 		return file;
 	}
+	
+	/**
+	 * @return	文件内容是否保存在内存中
+	 */
+	public boolean isInMemory() {
+		return null != data;
+	}
+	
+	/**
+	 * @return	返回文件内容
+	 * @throws IOException
+	 */
+	public byte[] get() throws IOException {
+		if (null != data) {
+			return data;
+		}
+		if (null == file) {
+			return new byte[0];
+		}
+		InputStream in = new FileInputStream(file);
+		try {
+			return IOKit.toByteArray(in);
+		} finally {
+			in.close();
+		}
+	}
+	
+	/**
+	 * @return	返回读取文件内容的输入流，由调用者关闭
+	 * @throws IOException
+	 */
+	public InputStream getInputStream() throws IOException {
+		if (null != data) {
+			return new ByteArrayInputStream(data);
+		}
+		if (null == file) {
+			return new ByteArrayInputStream(new byte[0]);
+		}
+		return new FileInputStream(file);
+	}
+
+	/**
+	 * 把文件移动到目标位置，在同一文件系统上时直接重命名，
+	 * 否则通过FileChannel拷贝后删除原文件，之后该FileItem指向目标文件
+	 * 
+	 * @param dest	目标文件
+	 * @return		返回目标文件
+	 * @throws IOException
+	 */
+	public File moveTo(File dest) throws IOException {
+		if (null == dest) {
+			throw new IllegalArgumentException("dest can not be null");
+		}
+		if (null != file && file.getAbsoluteFile().equals(dest.getAbsoluteFile())) {
+			return dest;
+		}
+		if (null != file && file.renameTo(dest)) {
+			this.file = dest;
+			this.temporary = false;
+			return dest;
+		}
+		
+		FileOutputStream out = new FileOutputStream(dest);
+		try {
+			transferTo(out.getChannel());
+		} catch (IOException e) {
+			try { out.close(); } catch (IOException ignore) {}
+			dest.delete();
+			throw e;
+		} finally {
+			out.close();
+		}
+		if (null != file) {
+			file.delete();
+		}
+		this.data = null;
+		this.file = dest;
+		this.temporary = false;
+		return dest;
+	}
+	
+	/**
+	 * 把文件内容写入目标通道，磁盘上的文件使用FileChannel.transferTo，不经过堆内存
+	 * 
+	 * @param target	目标通道，由调用者关闭
+	 * @return			返回写入的字节数
+	 * @throws IOException
+	 */
+	public long transferTo(WritableByteChannel target) throws IOException {
+		if (null != data) {
+			ByteBuffer buffer = ByteBuffer.wrap(data);
+			while (buffer.hasRemaining()) {
+				target.write(buffer);
+			}
+			return data.length;
+		}
+		if (null == file) {
+			return 0;
+		}
+		FileInputStream in = new FileInputStream(file);
+		try {
+			FileChannel channel = in.getChannel();
+			long size = channel.size();
+			long position = 0;
+			while (position < size) {
+				position += channel.transferTo(position, size - position, target);
+			}
+			return size;
+		} finally {
+			in.close();
+		}
+	}
 
 	public Map<String, String> getHeaders() {
 		return headers;
 	}
+	
+	/**
+	 * 删除解析时创建的临时文件并释放内存中的内容，应用自己的文件不会被删除
+	 */
+	public void delete() {
+		data = null;
+		if (temporary && null != file) {
+			file.delete();
+			temporary = false;
+		}
+	}
+	
+	void setRepository(File repository) {
+		this.repository = repository;
+	}
+	
+	void setTemporary(boolean temporary) {
+		this.temporary = temporary;
+	}
 
 }
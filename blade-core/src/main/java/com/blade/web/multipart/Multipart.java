@@ -19,8 +19,11 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -53,6 +56,16 @@ public class Multipart {
 
 	public static final String MULTIPART_MIXED = "multipart/mixed";
 
+	private final MultipartConfig config;
+
+	public Multipart() {
+		this(new MultipartConfig());
+	}
+
+	public Multipart(MultipartConfig config) {
+		this.config = null != config ? config : new MultipartConfig();
+	}
+
 	public static boolean isMultipartContent(HttpServletRequest request) {
 		if (!"post".equals(request.getMethod().toLowerCase())) {
 			return false;
@@ -75,7 +88,21 @@ public class Multipart {
 					"Content-Type 'multipart/form-data' or 'multipart/mixed'.");
 		}
 
+		// 声明的长度已经超过限制时不读取请求体，直接拒绝
+		long maxRequestSize = config.getMaxRequestSize();
+		if (maxRequestSize >= 0) {
+			long contentLength = getContentLength(request);
+			if (contentLength > maxRequestSize) {
+				throw new MultipartLimitException("The request size " + contentLength
+						+ " exceeds the configured maximum of " + maxRequestSize + " bytes");
+			}
+		}
+
 		InputStream inputStream = request.getInputStream();
+		if (maxRequestSize >= 0) {
+			// 长度未知或客户端少报时，读取过程中同样检查
+			inputStream = new LimitedInputStream(inputStream, maxRequestSize, "request");
+		}
 
 		String contentType = request.getContentType();
 		String charEncoding = request.getCharacterEncoding();
@@ -91,6 +118,7 @@ public class Multipart {
 
 		String currentFieldName = null;
 		boolean skipPreamble = true;
+		int parts = 0;
 
 		for (;;) {
 			boolean nextPart;
@@ -113,6 +141,11 @@ public class Multipart {
 			String headersString = multipartReader.readHeaders();
 			Map<String,String> headers = getHeadersMap(headersString);
 
+			if (config.getMaxParts() >= 0 && ++parts > config.getMaxParts()) {
+				throw new MultipartLimitException("The request has more than the configured maximum of "
+						+ config.getMaxParts() + " parts");
+			}
+
 			if (currentFieldName == null) {
 
 				// we're parsing the outer multipart
@@ -133,16 +166,10 @@ public class Multipart {
 					String fileName = getFileName( headers.get(CONTENT_DISPOSITION) );
 					if (fileName == null) {
 						// call the part handler
-						String value = IOKit.toString(multipartReader.newInputStream());
+						String value = IOKit.toString(partInputStream(multipartReader));
 						partHandler.handleFormItem(fieldName, value);
 					} else {
-
-						// create the temp file
-						File tempFile = createTempFile(multipartReader);
-
-						// call the part handler
-						FileItem fileItem = new FileItem(fieldName, fileName, partContentType, tempFile.length(), tempFile, headers);
-						partHandler.handleFileItem(fieldName, fileItem);
+						handleFile(multipartReader, partHandler, fieldName, fileName, partContentType, headers);
 					}
 
 					continue;
@@ -151,14 +178,7 @@ public class Multipart {
 				String fileName = getFileName( headers.get(CONTENT_DISPOSITION) );
 				String partContentType = headers.get(CONTENT_TYPE);
 				if (fileName != null) {
-
-					// create the temp file
-					File tempFile = createTempFile(multipartReader);
-
-					// call the part handler
-					FileItem fileItem = new FileItem(currentFieldName, fileName, partContentType, tempFile.length(),
-							tempFile, headers);
-					partHandler.handleFileItem(currentFieldName, fileItem);
+					handleFile(multipartReader, partHandler, currentFieldName, fileName, partContentType, headers);
 					continue;
 				}
 			}
@@ -167,35 +187,110 @@ public class Multipart {
 
 	}
 
-	private File createTempFile(MultipartReader multipartReader) throws IOException {
-		File tempFile = File.createTempFile("com.blade.file_", null);
+	/**
+	 * 处理一个文件部分，流式处理器直接拿到输入流，否则小文件保存在内存中，大文件写入临时文件
+	 */
+	private void handleFile(MultipartReader multipartReader, MultipartHandler partHandler, String fieldName,
+			String fileName, String contentType, Map<String,String> headers) throws IOException {
+		InputStream in = partInputStream(multipartReader);
+		if (partHandler instanceof MultipartStreamHandler) {
+			((MultipartStreamHandler) partHandler).handleFileStream(fieldName, fileName, contentType, headers, in);
+			// 丢弃应用没有读完的内容，出错时直接中止，不再读取剩余内容
+			in.close();
+			return;
+		}
+		partHandler.handleFileItem(fieldName, readFileItem(in, fieldName, fileName, contentType, headers));
+	}
+
+	/**
+	 * 当前部分的输入流，配置了单个部分大小时读取超过限制立即中止
+	 */
+	private InputStream partInputStream(MultipartReader multipartReader) {
+		InputStream in = multipartReader.newInputStream();
+		if (config.getMaxPartSize() >= 0) {
+			in = new LimitedInputStream(in, config.getMaxPartSize(), "part size");
+		}
+		return in;
+	}
+
+	private static long getContentLength(HttpServletRequest request) {
+		String value = request.getHeader(CONTENT_LENGTH);
+		if (value != null) {
+			try {
+				return Long.parseLong(value.trim());
+			} catch (NumberFormatException e) {
+				// 交给读取时的检查
+			}
+		}
+		return request.getContentLength();
+	}
+
+	private FileItem readFileItem(InputStream in, String fieldName, String fileName, String contentType,
+			Map<String,String> headers) throws IOException {
+		int threshold = Math.min(Math.max(0, config.getMemoryThreshold()), Integer.MAX_VALUE - 1);
+		// 先读到内存中，多读一个字节判断是否超过阈值，超过时再写入临时文件
+		int limit = threshold + 1;
+		byte[] buffer = new byte[Math.min(limit, DEFAULT_BUFFER_SIZE)];
+		int count = 0;
+		while (count < limit) {
+			if (count == buffer.length) {
+				byte[] grown = new byte[(int) Math.min(buffer.length * 2L, limit)];
+				System.arraycopy(buffer, 0, grown, 0, count);
+				buffer = grown;
+			}
+			int n = in.read(buffer, count, buffer.length - count);
+			if (n == EOF) {
+				break;
+			}
+			count += n;
+		}
+		File repository = config.repositoryDir();
+		if (count <= threshold) {
+			byte[] data = new byte[count];
+			System.arraycopy(buffer, 0, data, 0, count);
+			FileItem fileItem = new FileItem(fieldName, fileName, contentType, data, headers);
+			fileItem.setRepository(repository);
+			return fileItem;
+		}
+
+		File tempFile = File.createTempFile("com.blade.file_", null, repository);
 		FileOutputStream outputStream = null;
 		try {
 			outputStream = new FileOutputStream(tempFile);
-			copy( multipartReader.newInputStream(), outputStream );
+			FileChannel channel = outputStream.getChannel();
+			ByteBuffer head = ByteBuffer.wrap(buffer, 0, count);
+			while (head.hasRemaining()) {
+				channel.write(head);
+			}
+			// 剩余内容由FileChannel通过直接缓冲区写入文件，不再经过这里的byte[]
+			ReadableByteChannel source = Channels.newChannel(in);
+			long position = count;
+			long n;
+			while ((n = channel.transferFrom(source, position, TRANSFER_SIZE)) > 0) {
+				position += n;
+			}
+		} catch (IOException e) {
+			if (outputStream != null) {
+				try { outputStream.close(); } catch (Exception ignore) {}
+				outputStream = null;
+			}
+			tempFile.delete();
+			throw e;
 		} finally {
 			if (outputStream != null) {
 				try { outputStream.close(); } catch (Exception e) {}
 			}
 		}
-
-		return tempFile;
+		FileItem fileItem = new FileItem(fieldName, fileName, contentType, tempFile.length(), tempFile, headers);
+		fileItem.setRepository(repository);
+		fileItem.setTemporary(true);
+		return fileItem;
 	}
 
 	private static final int DEFAULT_BUFFER_SIZE = 1024 * 4;
+	private static final int TRANSFER_SIZE = 1024 * 64;
 	private static final int EOF = -1;
 
-	private long copy(InputStream input, OutputStream output) throws IOException {
-		long count = 0;
-		int n = 0;
-		byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
-		while (EOF != (n = input.read(buffer))) {
-			output.write(buffer, 0, n);
-			count += n;
-		}
-		return count;
-	}
-
 	protected Map<String,String> getHeadersMap(String headerPart) {
 		final int len = headerPart.length();
 		final Map<String,String> headers = new HashMap<String,String>();
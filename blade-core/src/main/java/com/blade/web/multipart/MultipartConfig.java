@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blade.web.multipart;
+
+import java.io.File;
+
+/**
+ * 
+ * <p>
+ * 文件上传配置，小文件保存在内存中，超过阈值的文件写入临时目录，
+ * 单个部分大小、请求总大小和部分个数超过限制时中止解析
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public class MultipartConfig {
+	
+	// 小于等于该大小的文件保存在内存中，单位字节
+	private int memoryThreshold = 10 * 1024;
+	
+	// 超过阈值的文件写入的目录，为空时使用系统临时目录
+	private String repository;
+	
+	// 单个部分的最大字节数，-1表示不限制
+	private long maxPartSize = -1;
+	
+	// 整个请求体的最大字节数，-1表示不限制
+	private long maxRequestSize = -1;
+	
+	// 最多允许的部分个数，-1表示不限制
+	private int maxParts = -1;
+	
+	public MultipartConfig() {
+	}
+	
+	public int getMemoryThreshold() {
+		return memoryThreshold;
+	}
+
+	public void setMemoryThreshold(int memoryThreshold) {
+		this.memoryThreshold = memoryThreshold;
+	}
+
+	public String getRepository() {
+		return repository;
+	}
+
+	public void setRepository(String repository) {
+		this.repository = repository;
+	}
+	
+	public long getMaxPartSize() {
+		return maxPartSize;
+	}
+
+	public void setMaxPartSize(long maxPartSize) {
+		this.maxPartSize = maxPartSize;
+	}
+
+	public long getMaxRequestSize() {
+		return maxRequestSize;
+	}
+
+	public void setMaxRequestSize(long maxRequestSize) {
+		this.maxRequestSize = maxRequestSize;
+	}
+
+	public int getMaxParts() {
+		return maxParts;
+	}
+
+	public void setMaxParts(int maxParts) {
+		this.maxParts = maxParts;
+	}
+	
+	/**
+	 * 用路由上的限制覆盖全局限制，参数为0时沿用当前配置
+	 * 
+	 * @param maxPartSize		单个部分的最大字节数
+	 * @param maxRequestSize	请求体的最大字节数
+	 * @param maxParts			最多允许的部分个数
+	 * @return					所有参数都为0时返回当前配置，否则返回新的配置
+	 */
+	public MultipartConfig override(long maxPartSize, long maxRequestSize, int maxParts) {
+		if (maxPartSize == 0 && maxRequestSize == 0 && maxParts == 0) {
+			return this;
+		}
+		MultipartConfig config = new MultipartConfig();
+		config.memoryThreshold = this.memoryThreshold;
+		config.repository = this.repository;
+		config.maxPartSize = maxPartSize != 0 ? maxPartSize : this.maxPartSize;
+		config.maxRequestSize = maxRequestSize != 0 ? maxRequestSize : this.maxRequestSize;
+		config.maxParts = maxParts != 0 ? maxParts : this.maxParts;
+		return config;
+	}
+	
+	/**
+	 * @return	返回临时文件目录，没有配置时返回null，使用系统临时目录
+	 */
+	public File repositoryDir() {
+		if (null == repository || repository.length() == 0) {
+			return null;
+		}
+		File dir = new File(repository);
+		if (!dir.exists()) {
+			dir.mkdirs();
+		}
+		return dir;
+	}
+	
+}
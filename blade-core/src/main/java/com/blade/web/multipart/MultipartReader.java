@@ -261,8 +261,9 @@ public class MultipartReader {
 	 * @return <code>true</code> if there are more encapsulations in this stream; <code>false</code> otherwise.
 	 *
 	 * @throws MalformedStreamException if the stream ends unexpecetedly or fails to follow required syntax.
+	 * @throws MultipartLimitException if the underlying stream exceeds a configured upload limit.
 	 */
-	public boolean readBoundary() throws MalformedStreamException {
+	public boolean readBoundary() throws MalformedStreamException, MultipartLimitException {
 		byte[] marker = new byte[2];
 		boolean nextChunk = false;
 
@@ -277,6 +278,8 @@ public class MultipartReader {
 			} else {
 				throw new MalformedStreamException("Unexpected characters follow a boundary");
 			}
+		} catch (MultipartLimitException e) {
+			throw e;
 		} catch (IOException e) {
 			throw new MalformedStreamException("Stream ended unexpectedly");
 		}
@@ -315,8 +318,9 @@ public class MultipartReader {
 	 *
 	 * @return The <code>header-part</code> of the current encapsulation.
 	 * @throws MalformedStreamException if the stream ends unexpecetedly.
+	 * @throws MultipartLimitException if the underlying stream exceeds a configured upload limit.
 	 */
-	public String readHeaders() throws MalformedStreamException {
+	public String readHeaders() throws MalformedStreamException, MultipartLimitException {
 		int i = 0;
 		byte b;
 		// to support multi-byte characters
@@ -325,6 +329,8 @@ public class MultipartReader {
 		while (i < HEADER_SEPARATOR.length) {
 			try {
 				b = readByte();
+			} catch (MultipartLimitException e) {
+				throw e;
 			} catch (IOException e) {
 				throw new MalformedStreamException("Stream ended unexpectedly");
 			}
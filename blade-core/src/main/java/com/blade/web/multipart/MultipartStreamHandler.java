@@ -0,0 +1,46 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.blade.web.multipart;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * 
+ * <p>
+ * 流式处理上传文件，文件内容不写入内存或临时文件，直接以输入流交给应用，
+ * 可以边接收边写入存储。使用该处理器时不会调用handleFileItem
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public interface MultipartStreamHandler extends MultipartHandler {
+
+	/**
+	 * 处理一个文件部分，输入流只在方法内有效，方法返回后未读完的内容会被丢弃
+	 * 
+	 * @param name			表单字段名
+	 * @param fileName		文件名
+	 * @param contentType	文件的Content-Type
+	 * @param headers		该部分的头信息
+	 * @param in			文件内容输入流
+	 * @throws IOException
+	 */
+	void handleFileStream(String name, String fileName, String contentType, Map<String, String> headers, InputStream in) throws IOException;
+	
+}
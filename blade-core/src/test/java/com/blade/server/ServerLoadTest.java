@@ -0,0 +1,101 @@
+package com.blade.server;
+
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.blade.Blade;
+import com.blade.route.RouteHandler;
+import com.blade.web.http.Request;
+import com.blade.web.http.Response;
+
+/**
+ * 对比线程池和虚拟线程两种模式的压测程序，每次运行测试一种模式
+ * 
+ * 用法：ServerLoadTest [pool|virtual] [并发数] [请求数] [阻塞毫秒数]
+ */
+public class ServerLoadTest {
+
+	public static void main(String[] args) throws Exception {
+		final boolean virtual = args.length > 0 && "virtual".equals(args[0]);
+		int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+		int total = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+		final long blockMillis = args.length > 3 ? Long.parseLong(args[3]) : 50;
+		int port = 9123;
+		
+		Blade blade = Blade.me();
+		blade.debug(false).listen(port).virtualThreads(virtual);
+		
+		// 模拟阻塞IO的控制器，如sql2o、jedis调用
+		blade.get("/io", new RouteHandler() {
+			@Override
+			public void handle(Request request, Response response) {
+				try {
+					Thread.sleep(blockMillis);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				response.text("ok");
+			}
+		});
+		blade.start();
+		
+		final URL url = new URL("http://127.0.0.1:" + port + "/io");
+		final AtomicInteger success = new AtomicInteger();
+		final AtomicInteger failed = new AtomicInteger();
+		final AtomicLong latency = new AtomicLong();
+		final CountDownLatch latch = new CountDownLatch(total);
+		
+		ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+		long start = System.currentTimeMillis();
+		for (int i = 0; i < total; i++) {
+			clients.execute(new Runnable() {
+				@Override
+				public void run() {
+					long begin = System.nanoTime();
+					try {
+						HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+						int code = conn.getResponseCode();
+						InputStream in = code < 400 ? conn.getInputStream() : conn.getErrorStream();
+						if (null != in) {
+							while (in.read() != -1) {
+							}
+							in.close();
+						}
+						if (code == 200) {
+							success.incrementAndGet();
+						} else {
+							failed.incrementAndGet();
+						}
+					} catch (Exception e) {
+						failed.incrementAndGet();
+					} finally {
+						latency.addAndGet(System.nanoTime() - begin);
+						latch.countDown();
+					}
+				}
+			});
+		}
+		latch.await();
+		long elapsed = System.currentTimeMillis() - start;
+		clients.shutdown();
+		
+		System.out.println("mode        : " + (virtual ? "virtual threads" : "thread pool"));
+		System.out.println("concurrency : " + concurrency + ", requests: " + total + ", block: " + blockMillis + "ms");
+		System.out.println("success     : " + success.get() + ", failed: " + failed.get());
+		System.out.println("throughput  : " + (total * 1000L / Math.max(1, elapsed)) + " req/s");
+		System.out.println("avg latency : " + (latency.get() / total / 1000000L) + " ms");
+		if (!virtual) {
+			System.out.println("executor    : " + blade.executor());
+		}
+		
+		blade.stop();
+		System.exit(0);
+	}
+	
+}
@@ -0,0 +1,238 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blade.kit.json;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JavaBean序列化器，每个类只解析一次getter，之后直接写入JsonWriter，
+ * 不生成中间的JsonObject。存在cglib时使用FastClass调用getter
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+final class BeanSerializer {
+
+	private static final Map<Class<?>, BeanSerializer> CACHE = new ConcurrentHashMap<Class<?>, BeanSerializer>();
+
+	private static boolean FAST_CLASS = false;
+
+	static {
+		try {
+			Class.forName("net.sf.cglib.reflect.FastClass");
+			FAST_CLASS = true;
+		} catch (ClassNotFoundException e) {
+			FAST_CLASS = false;
+		}
+	}
+
+	/**
+	 * 属性名，和accessors一一对应
+	 */
+	private final String[] names;
+
+	private final PropertyAccessor[] accessors;
+
+	private BeanSerializer(String[] names, PropertyAccessor[] accessors) {
+		this.names = names;
+		this.accessors = accessors;
+	}
+
+	/**
+	 * 获取一个类的序列化器，第一次使用时创建
+	 *
+	 * @param type	JavaBean的类型
+	 * @return		返回序列化器
+	 */
+	static BeanSerializer of(Class<?> type) {
+		BeanSerializer serializer = CACHE.get(type);
+		if (null == serializer) {
+			serializer = create(type);
+			CACHE.put(type, serializer);
+		}
+		return serializer;
+	}
+
+	/**
+	 * 把bean的属性写入JsonWriter，值为null的属性不输出
+	 */
+	void write(JsonWriter writer, Object bean) throws IOException {
+		writer.writeObjectOpen();
+		boolean first = true;
+		for (int i = 0; i < accessors.length; i++) {
+			Object value = get(i, bean);
+			if (null == value) {
+				continue;
+			}
+			if (!first) {
+				writer.writeObjectSeparator();
+			}
+			writer.writeMemberName(names[i]);
+			writer.writeMemberSeparator();
+			Json.write(writer, value);
+			first = false;
+		}
+		writer.writeObjectClose();
+	}
+
+	/**
+	 * 把bean转换为JsonObject，值为null的属性不添加
+	 */
+	JsonObject toJsonObject(Object bean) {
+		JsonObject json = new JsonObject();
+		for (int i = 0; i < accessors.length; i++) {
+			Object value = get(i, bean);
+			if (null != value) {
+				json.add(names[i], value);
+			}
+		}
+		return json;
+	}
+
+	private Object get(int index, Object bean) {
+		try {
+			return accessors[index].get(bean);
+		} catch (InvocationTargetException e) {
+			throw new IllegalStateException("Can not read property " + names[index], e.getTargetException());
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IllegalStateException("Can not read property " + names[index], e);
+		}
+	}
+
+	private static BeanSerializer create(Class<?> type) {
+		boolean includeSuperClass = type.getClassLoader() != null;
+		Method[] methods = includeSuperClass ? type.getMethods() : type.getDeclaredMethods();
+
+		Map<String, Method> getters = new LinkedHashMap<String, Method>();
+		for (Method method : methods) {
+			if (!Modifier.isPublic(method.getModifiers()) || Modifier.isStatic(method.getModifiers())
+					|| method.getParameterTypes().length != 0 || method.getReturnType() == void.class) {
+				continue;
+			}
+			String name = propertyName(method.getName());
+			if (null != name && !getters.containsKey(name)) {
+				getters.put(name, method);
+			}
+		}
+
+		// 按字段声明顺序输出，没有对应字段的属性放在最后
+		List<String> ordered = new ArrayList<String>(getters.size());
+		for (Class<?> clazz : hierarchy(type)) {
+			for (Field field : clazz.getDeclaredFields()) {
+				if (getters.containsKey(field.getName()) && !ordered.contains(field.getName())) {
+					ordered.add(field.getName());
+				}
+			}
+		}
+		for (String name : getters.keySet()) {
+			if (!ordered.contains(name)) {
+				ordered.add(name);
+			}
+		}
+
+		Object fastClass = null;
+		if (FAST_CLASS && Modifier.isPublic(type.getModifiers())) {
+			try {
+				fastClass = FastPropertyAccessor.fastClass(type);
+			} catch (Throwable e) {
+				fastClass = null;
+			}
+		}
+
+		String[] names = new String[ordered.size()];
+		PropertyAccessor[] accessors = new PropertyAccessor[ordered.size()];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = ordered.get(i);
+			accessors[i] = accessor(fastClass, getters.get(names[i]));
+		}
+		return new BeanSerializer(names, accessors);
+	}
+
+	private static PropertyAccessor accessor(Object fastClass, final Method getter) {
+		if (null != fastClass && Modifier.isPublic(getter.getDeclaringClass().getModifiers())) {
+			try {
+				return new FastPropertyAccessor(fastClass, getter);
+			} catch (Throwable e) {
+				// 使用反射
+			}
+		}
+		try {
+			getter.setAccessible(true);
+		} catch (SecurityException e) {
+			// 使用默认的访问检查
+		}
+		return new PropertyAccessor() {
+			@Override
+			public Object get(Object bean) throws Exception {
+				return getter.invoke(bean);
+			}
+		};
+	}
+
+	/**
+	 * getXxx、isXxx方法对应的属性名，不是getter时返回null
+	 */
+	private static String propertyName(String methodName) {
+		String key;
+		if (methodName.startsWith("get")) {
+			if ("getClass".equals(methodName) || "getDeclaringClass".equals(methodName)) {
+				return null;
+			}
+			key = methodName.substring(3);
+		} else if (methodName.startsWith("is")) {
+			key = methodName.substring(2);
+		} else {
+			return null;
+		}
+		return decapitalize(key);
+	}
+
+	/**
+	 * 去掉get、set、is前缀后的部分转换为属性名，如 Name -&gt; name，URL -&gt; URL，不是大写开头时返回null
+	 */
+	static String decapitalize(String key) {
+		if (key.length() == 0 || !Character.isUpperCase(key.charAt(0))) {
+			return null;
+		}
+		if (key.length() == 1) {
+			return key.toLowerCase();
+		}
+		if (!Character.isUpperCase(key.charAt(1))) {
+			return key.substring(0, 1).toLowerCase() + key.substring(1);
+		}
+		return key;
+	}
+
+	static List<Class<?>> hierarchy(Class<?> type) {
+		List<Class<?>> classes = new ArrayList<Class<?>>();
+		for (Class<?> clazz = type; null != clazz && clazz != Object.class; clazz = clazz.getSuperclass()) {
+			classes.add(0, clazz);
+		}
+		return classes;
+	}
+
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blade.kit.json;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * JSON读写使用的缓冲区池，避免每次序列化、解析都分配新的缓冲区
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+final class BufferPool {
+
+	static final int BYTE_BUFFER_SIZE = 8192;
+
+	private static final int CAPACITY = 64;
+
+	private static final BlockingQueue<byte[]> BYTES = new ArrayBlockingQueue<byte[]>(CAPACITY);
+
+	private BufferPool() {
+	}
+
+	/**
+	 * @return	返回一个字节缓冲区，池为空时新建
+	 */
+	static byte[] takeBytes() {
+		byte[] buffer = BYTES.poll();
+		return null != buffer ? buffer : new byte[BYTE_BUFFER_SIZE];
+	}
+
+	/**
+	 * 归还字节缓冲区，池已满时丢弃
+	 */
+	static void giveBytes(byte[] buffer) {
+		if (null != buffer && buffer.length == BYTE_BUFFER_SIZE) {
+			BYTES.offer(buffer);
+		}
+	}
+
+}
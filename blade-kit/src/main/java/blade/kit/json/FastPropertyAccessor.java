@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blade.kit.json;
+
+import java.lang.reflect.Method;
+
+import net.sf.cglib.reflect.FastClass;
+import net.sf.cglib.reflect.FastMethod;
+
+/**
+ * 基于cglib FastClass生成的属性读取器，按方法下标直接调用getter，不走反射。
+ * 只在classpath中存在cglib时使用
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+final class FastPropertyAccessor implements PropertyAccessor {
+
+	private final FastMethod fastMethod;
+
+	FastPropertyAccessor(Object fastClass, Method getter) {
+		this.fastMethod = ((FastClass) fastClass).getMethod(getter);
+	}
+
+	static Object fastClass(Class<?> type) {
+		return FastClass.create(type);
+	}
+
+	@Override
+	public Object get(Object bean) throws Exception {
+		return fastMethod.invoke(bean, null);
+	}
+
+}
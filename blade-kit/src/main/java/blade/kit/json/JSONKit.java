@@ -1,5 +1,7 @@
 package blade.kit.json;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.List;
 import java.util.Map;
 
@@ -13,23 +15,40 @@ public class JSONKit {
 		return Json.parseToMap(jsonObject);
 	}
 	
+	public static <T> T parse(String json, Class<T> type){
+		return Json.parse(json, type);
+	}
+	
 	public static String toJSONString(Object bean){
-		return Json.parse(bean).toString();
+		return write(bean);
 	}
 	
 	public static <K, V> String toJSONString(Map<K, V> map){
-		return Json.parse(map).toString();
+		if(null != map){
+			return write(map);
+		}
+		return null;
 	}
 	
 	public static <T> String toJSONString(List<T> list){
 		if(null != list && list.size() > 0){
-			JsonArray jsonArray = new JsonArray();
-			for(T oT : list){
-				jsonArray.add(Json.parse(oT));
-			}
-			return jsonArray.toString();
+			return write(list);
 		}
 		return null;
 	}
 	
+	/**
+	 * 使用缓存的序列化器直接写出JSON，不生成中间的JsonValue
+	 */
+	private static String write(Object value){
+		StringWriter writer = new StringWriter();
+		try {
+			Json.writeTo(value, writer);
+		} catch (IOException e) {
+			// StringWriter不会抛出IOException
+			throw new RuntimeException(e);
+		}
+		return writer.toString();
+	}
+	
 }
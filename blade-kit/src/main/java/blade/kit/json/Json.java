@@ -22,9 +22,12 @@
 package blade.kit.json;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Reader;
-import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -340,6 +343,107 @@ public final class Json {
 		return new JsonParser(reader).parse();
 	}
 
+	/**
+	 * 把JSON字符串直接绑定为指定类型的对象，不生成中间的JsonValue。
+	 * 每个类型的绑定器只创建一次，支持嵌套bean、带泛型的List、Map和基本类型
+	 * 
+	 * @param string	JSON字符串
+	 * @param type		要绑定的类型
+	 * @return			返回绑定后的对象，JSON为null时返回null
+	 * @throws ParseException	JSON格式错误时抛出
+	 */
+	public static <T> T parse(String string, Class<T> type) {
+		if (string == null) {
+			throw new NullPointerException("string is null");
+		}
+		try {
+			return bind(new JsonReader(string), type);
+		} catch (IOException exception) {
+			// JsonParser does not throw IOException for String
+			throw new RuntimeException(exception);
+		}
+	}
+
+	/**
+	 * 从Reader中读取JSON并绑定为指定类型的对象
+	 * 
+	 * @param reader	字符输入流
+	 * @param type		要绑定的类型
+	 * @return			返回绑定后的对象
+	 * @throws IOException
+	 */
+	public static <T> T parse(Reader reader, Class<T> type) throws IOException {
+		if (reader == null) {
+			throw new NullPointerException("reader is null");
+		}
+		return bind(new JsonReader(reader), type);
+	}
+
+	/**
+	 * 从UTF-8编码的输入流中按字节读取JSON并绑定为指定类型的对象，输入流不会被关闭
+	 * 
+	 * @param in		输入流
+	 * @param type		要绑定的类型
+	 * @return			返回绑定后的对象
+	 * @throws IOException
+	 */
+	public static <T> T parse(InputStream in, Class<T> type) throws IOException {
+		if (in == null) {
+			throw new NullPointerException("in is null");
+		}
+		JsonReader reader = new JsonReader(in);
+		try {
+			return bind(reader, type);
+		} finally {
+			reader.release();
+		}
+	}
+
+	/**
+	 * 从JsonReader中读取下一个值并绑定为指定类型的对象，可以配合流式读取逐个绑定数组元素
+	 * 
+	 * @param reader	JSON读取器
+	 * @param type		要绑定的类型
+	 * @return			返回绑定后的对象
+	 * @throws IOException
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T parse(JsonReader reader, Class<T> type) throws IOException {
+		if (reader == null) {
+			throw new NullPointerException("reader is null");
+		}
+		return (T) JsonBinder.of(type).read(reader);
+	}
+
+	private static <T> T bind(JsonReader reader, Class<T> type) throws IOException {
+		T value = parse(reader, type);
+		if (reader.peek() != JsonToken.END_DOCUMENT) {
+			throw new IllegalStateException("Expected END_DOCUMENT but was " + reader.peek());
+		}
+		return value;
+	}
+
+	/**
+	 * 直接按UTF-8字节解析输入流，不经过Reader解码，数字直接从字节解析，只有字符串值会被解码。
+	 * 读取使用缓冲池中的缓冲区，输入流不会被关闭
+	 * 
+	 * @param in	UTF-8编码的输入流
+	 * @return		返回解析后的JsonValue
+	 * @throws IOException
+	 * @throws ParseException	JSON格式错误时抛出
+	 */
+	public static JsonValue parse(InputStream in) throws IOException {
+		if (in == null) {
+			throw new NullPointerException("in is null");
+		}
+		JsonParser parser = new JsonParser(in);
+		try {
+			return parser.parse();
+		} finally {
+			parser.release();
+		}
+	}
+
 	/**
 	 * 对象转换为JsonValue对象
 	 * 
@@ -347,44 +451,7 @@ public final class Json {
 	 * @return
 	 */
 	public static JsonObject parse(Object bean) {
-		JsonObject json = new JsonObject();
-		Class<?> klass = bean.getClass();
-		boolean includeSuperClass = klass.getClassLoader() != null;
-
-		Method[] methods = includeSuperClass ? klass.getMethods() : klass.getDeclaredMethods();
-		for (int i = 0; i < methods.length; i += 1) {
-			try {
-				Method method = methods[i];
-				if (Modifier.isPublic(method.getModifiers())) {
-					String name = method.getName();
-					String key = "";
-					if (name.startsWith("get")) {
-						if ("getClass".equals(name) || "getDeclaringClass".equals(name)) {
-							key = "";
-						} else {
-							key = name.substring(3);
-						}
-					} else if (name.startsWith("is")) {
-						key = name.substring(2);
-					}
-					if (key.length() > 0 && Character.isUpperCase(key.charAt(0))
-							&& method.getParameterTypes().length == 0) {
-						if (key.length() == 1) {
-							key = key.toLowerCase();
-						} else if (!Character.isUpperCase(key.charAt(1))) {
-							key = key.substring(0, 1).toLowerCase() + key.substring(1);
-						}
-
-						Object result = method.invoke(bean, (Object[]) null);
-						if (result != null) {
-							json.add(name, result);
-						}
-					}
-				}
-			} catch (Exception ignore) {
-			}
-		}
-		return json;
+		return BeanSerializer.of(bean.getClass()).toJsonObject(bean);
 	}
 
 	public static <K, V> JsonObject parse(Map<K, V> map) {
@@ -417,6 +484,122 @@ public final class Json {
 		return parseToMap(parse(json).asObject());
 	}
 
+	/**
+	 * 把对象序列化为JSON，以UTF-8编码直接写入输出流，不生成完整的JSON字符串，
+	 * 输出流不会被关闭
+	 * 
+	 * @param value		要序列化的对象，可以是JsonValue、Map、集合、数组、基本类型或JavaBean
+	 * @param out		输出流
+	 * @throws IOException
+	 */
+	public static void writeTo(Object value, OutputStream out) throws IOException {
+		if (out == null) {
+			throw new NullPointerException("out is null");
+		}
+		Utf8Writer writer = new Utf8Writer(out);
+		try {
+			write(new JsonWriter(writer), value);
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * 把对象序列化为JSON写入Writer，Writer不会被关闭
+	 * 
+	 * @param value		要序列化的对象
+	 * @param writer	字符输出流
+	 * @throws IOException
+	 */
+	public static void writeTo(Object value, Writer writer) throws IOException {
+		if (writer == null) {
+			throw new NullPointerException("writer is null");
+		}
+		WritingBuffer buffer = new WritingBuffer(writer, 128);
+		write(new JsonWriter(buffer), value);
+		buffer.flush();
+	}
+
+	static void write(JsonWriter writer, Object value) throws IOException {
+		if (value == null) {
+			writer.writeLiteral("null");
+		} else if (value instanceof JsonValue) {
+			((JsonValue) value).write(writer);
+		} else if (value instanceof String) {
+			writer.writeString((String) value);
+		} else if (value instanceof Number) {
+			writeNumber(writer, (Number) value);
+		} else if (value instanceof Boolean) {
+			writer.writeLiteral(((Boolean) value).booleanValue() ? "true" : "false");
+		} else if (value instanceof Character) {
+			writer.writeString(value.toString());
+		} else if (value instanceof Enum) {
+			writer.writeString(((Enum<?>) value).name());
+		} else if (value instanceof Date) {
+			writer.writeNumber(Long.toString(((Date) value).getTime()));
+		} else if (value instanceof Map) {
+			writeMap(writer, (Map<?, ?>) value);
+		} else if (value instanceof Iterable) {
+			writeIterable(writer, (Iterable<?>) value);
+		} else if (value.getClass().isArray()) {
+			writeArray(writer, value);
+		} else {
+			BeanSerializer.of(value.getClass()).write(writer, value);
+		}
+	}
+
+	private static void writeNumber(JsonWriter writer, Number number) throws IOException {
+		if (number instanceof Double || number instanceof Float) {
+			double value = number.doubleValue();
+			if (Double.isInfinite(value) || Double.isNaN(value)) {
+				throw new IllegalArgumentException("Infinite and NaN values not permitted in JSON");
+			}
+			String string = number instanceof Float ? Float.toString(number.floatValue()) : Double.toString(value);
+			writer.writeNumber(cutOffPointZero(string));
+		} else {
+			writer.writeNumber(number.toString());
+		}
+	}
+
+	private static void writeMap(JsonWriter writer, Map<?, ?> map) throws IOException {
+		writer.writeObjectOpen();
+		boolean first = true;
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			if (!first) {
+				writer.writeObjectSeparator();
+			}
+			writer.writeMemberName(String.valueOf(entry.getKey()));
+			writer.writeMemberSeparator();
+			write(writer, entry.getValue());
+			first = false;
+		}
+		writer.writeObjectClose();
+	}
+
+	private static void writeIterable(JsonWriter writer, Iterable<?> iterable) throws IOException {
+		writer.writeArrayOpen();
+		boolean first = true;
+		for (Object item : iterable) {
+			if (!first) {
+				writer.writeArraySeparator();
+			}
+			write(writer, item);
+			first = false;
+		}
+		writer.writeArrayClose();
+	}
+
+	private static void writeArray(JsonWriter writer, Object array) throws IOException {
+		writer.writeArrayOpen();
+		for (int i = 0, len = Array.getLength(array); i < len; i++) {
+			if (i > 0) {
+				writer.writeArraySeparator();
+			}
+			write(writer, Array.get(array, i));
+		}
+		writer.writeArrayClose();
+	}
+
 	private static String cutOffPointZero(String string) {
 		if (string.endsWith(".0")) {
 			return string.substring(0, string.length() - 2);
@@ -0,0 +1,680 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blade.kit.json;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JSON到Java对象的绑定器，每个类型只解析一次，之后直接从{@link JsonReader}读取token填充对象，
+ * 不生成中间的JsonValue。
+ * <p>
+ * JavaBean优先使用setter，没有setter时直接写字段；基本类型字段使用Field.setInt等方法，不经过JsonNumber和装箱。
+ * 支持嵌套bean、带泛型的List、Set、Map、数组、枚举和Date(毫秒数)。
+ * </p>
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+abstract class JsonBinder {
+
+	private static final Map<Type, JsonBinder> CACHE = new ConcurrentHashMap<Type, JsonBinder>();
+
+	/**
+	 * 读取下一个值，值为null时返回null
+	 */
+	abstract Object read(JsonReader reader) throws IOException;
+
+	/**
+	 * 获取一个类型的绑定器，第一次使用时创建
+	 *
+	 * @param type	要绑定的类型，可以是带泛型的类型
+	 * @return		返回绑定器
+	 */
+	static JsonBinder of(Type type) {
+		JsonBinder binder = CACHE.get(type);
+		if (null == binder) {
+			binder = create(type);
+			CACHE.put(type, binder);
+		}
+		return binder;
+	}
+
+	private static JsonBinder create(Type type) {
+		if (type instanceof WildcardType) {
+			return of(((WildcardType) type).getUpperBounds()[0]);
+		}
+		if (type instanceof GenericArrayType) {
+			Type component = ((GenericArrayType) type).getGenericComponentType();
+			return new ArrayBinder(rawType(component), component);
+		}
+		Class<?> raw = rawType(type);
+		JsonBinder binder = ScalarBinder.of(raw);
+		if (null != binder) {
+			return binder;
+		}
+		if (raw == Object.class) {
+			return ObjectBinder.INSTANCE;
+		}
+		if (JsonValue.class.isAssignableFrom(raw)) {
+			return ValueBinder.INSTANCE;
+		}
+		if (raw.isEnum()) {
+			return new EnumBinder(raw);
+		}
+		if (raw.isArray()) {
+			return new ArrayBinder(raw.getComponentType(), raw.getComponentType());
+		}
+		if (Map.class.isAssignableFrom(raw)) {
+			return new MapBinder(raw, typeArgument(type, 0), typeArgument(type, 1));
+		}
+		if (Collection.class.isAssignableFrom(raw) || raw == Iterable.class) {
+			return new CollectionBinder(raw, typeArgument(type, 0));
+		}
+		if (raw.isInterface() || Modifier.isAbstract(raw.getModifiers())) {
+			throw new IllegalArgumentException("Can not bind JSON to abstract type " + raw.getName());
+		}
+		return BeanBinder.create(raw);
+	}
+
+	static Class<?> rawType(Type type) {
+		if (type instanceof Class) {
+			return (Class<?>) type;
+		}
+		if (type instanceof ParameterizedType) {
+			return (Class<?>) ((ParameterizedType) type).getRawType();
+		}
+		if (type instanceof GenericArrayType) {
+			Class<?> component = rawType(((GenericArrayType) type).getGenericComponentType());
+			return Array.newInstance(component, 0).getClass();
+		}
+		if (type instanceof WildcardType) {
+			return rawType(((WildcardType) type).getUpperBounds()[0]);
+		}
+		// 未确定的泛型变量按Object处理
+		return Object.class;
+	}
+
+	private static Type typeArgument(Type type, int index) {
+		if (type instanceof ParameterizedType) {
+			Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+			if (index < arguments.length) {
+				return arguments[index];
+			}
+		}
+		return Object.class;
+	}
+
+	private static <T> Constructor<T> constructor(Class<T> type) {
+		try {
+			Constructor<T> constructor = type.getDeclaredConstructor();
+			constructor.setAccessible(true);
+			return constructor;
+		} catch (NoSuchMethodException e) {
+			throw new IllegalArgumentException(type.getName() + " has no default constructor");
+		}
+	}
+
+	private static Object newInstance(Constructor<?> constructor) {
+		try {
+			return constructor.newInstance();
+		} catch (InvocationTargetException e) {
+			throw new IllegalStateException("Can not create " + constructor.getDeclaringClass().getName(), e.getTargetException());
+		} catch (Exception e) {
+			throw new IllegalStateException("Can not create " + constructor.getDeclaringClass().getName(), e);
+		}
+	}
+
+	/**
+	 * 字符串、数字、布尔等单值类型
+	 */
+	static final class ScalarBinder extends JsonBinder {
+
+		private static final Map<Class<?>, ScalarBinder> SCALARS = new HashMap<Class<?>, ScalarBinder>();
+
+		static {
+			Class<?>[] types = { String.class, int.class, Integer.class, long.class, Long.class, double.class, Double.class,
+					float.class, Float.class, boolean.class, Boolean.class, short.class, Short.class, byte.class, Byte.class,
+					char.class, Character.class, BigDecimal.class, BigInteger.class, Number.class, Date.class };
+			for (Class<?> type : types) {
+				SCALARS.put(type, new ScalarBinder(type));
+			}
+		}
+
+		private final Class<?> type;
+
+		private ScalarBinder(Class<?> type) {
+			this.type = type;
+		}
+
+		static ScalarBinder of(Class<?> type) {
+			return SCALARS.get(type);
+		}
+
+		@Override
+		Object read(JsonReader reader) throws IOException {
+			if (reader.peek() == JsonToken.NULL) {
+				reader.nextNull();
+				return null;
+			}
+			if (type == String.class) {
+				return reader.peek() == JsonToken.BOOLEAN ? String.valueOf(reader.nextBoolean()) : reader.nextString();
+			}
+			if (type == int.class || type == Integer.class) {
+				return reader.nextInt();
+			}
+			if (type == long.class || type == Long.class) {
+				return reader.nextLong();
+			}
+			if (type == double.class || type == Double.class) {
+				return reader.nextDouble();
+			}
+			if (type == float.class || type == Float.class) {
+				return (float) reader.nextDouble();
+			}
+			if (type == boolean.class || type == Boolean.class) {
+				return readBoolean(reader);
+			}
+			if (type == short.class || type == Short.class) {
+				int value = reader.nextInt();
+				if (value < Short.MIN_VALUE || value > Short.MAX_VALUE) {
+					throw new IllegalStateException("Expected a short but was " + value);
+				}
+				return (short) value;
+			}
+			if (type == byte.class || type == Byte.class) {
+				int value = reader.nextInt();
+				if (value < Byte.MIN_VALUE || value > Byte.MAX_VALUE) {
+					throw new IllegalStateException("Expected a byte but was " + value);
+				}
+				return (byte) value;
+			}
+			if (type == char.class || type == Character.class) {
+				return readChar(reader);
+			}
+			if (type == BigDecimal.class || type == Number.class) {
+				return new BigDecimal(reader.nextString().trim());
+			}
+			if (type == BigInteger.class) {
+				return new BigInteger(reader.nextString().trim());
+			}
+			// Date按毫秒数读取，和序列化时一致
+			return new Date(reader.nextLong());
+		}
+
+		/**
+		 * 字符按长度为1的字符串读取，数字按字符编码读取
+		 */
+		static Character readChar(JsonReader reader) throws IOException {
+			if (reader.peek() == JsonToken.NUMBER) {
+				int value = reader.nextInt();
+				if (value < Character.MIN_VALUE || value > Character.MAX_VALUE) {
+					throw new IllegalStateException("Expected a char but was " + value);
+				}
+				return (char) value;
+			}
+			String string = reader.nextString();
+			if (string.length() > 1) {
+				throw new IllegalStateException("Expected a char but was \"" + string + "\"");
+			}
+			return string.length() > 0 ? string.charAt(0) : null;
+		}
+
+		static boolean readBoolean(JsonReader reader) throws IOException {
+			if (reader.peek() == JsonToken.STRING) {
+				return Boolean.parseBoolean(reader.nextString());
+			}
+			return reader.nextBoolean();
+		}
+	}
+
+	/**
+	 * 声明为Object的值，按JSON本身的类型读取为Map、List、String、Long、Double或Boolean
+	 */
+	static final class ObjectBinder extends JsonBinder {
+
+		static final ObjectBinder INSTANCE = new ObjectBinder();
+
+		@Override
+		Object read(JsonReader reader) throws IOException {
+			switch (reader.peek()) {
+				case BEGIN_OBJECT:
+					Map<String, Object> map = new LinkedHashMap<String, Object>();
+					reader.beginObject();
+					while (reader.hasNext()) {
+						String name = reader.nextName();
+						map.put(name, read(reader));
+					}
+					reader.endObject();
+					return map;
+				case BEGIN_ARRAY:
+					List<Object> list = new ArrayList<Object>();
+					reader.beginArray();
+					while (reader.hasNext()) {
+						list.add(read(reader));
+					}
+					reader.endArray();
+					return list;
+				case STRING:
+					return reader.nextString();
+				case NUMBER:
+					String number = reader.nextString();
+					if (number.indexOf('.') == -1 && number.indexOf('e') == -1 && number.indexOf('E') == -1) {
+						try {
+							return Long.parseLong(number, 10);
+						} catch (NumberFormatException e) {
+							return new BigInteger(number);
+						}
+					}
+					return Double.parseDouble(number);
+				case BOOLEAN:
+					return reader.nextBoolean();
+				default:
+					reader.nextNull();
+					return null;
+			}
+		}
+	}
+
+	static final class ValueBinder extends JsonBinder {
+
+		static final ValueBinder INSTANCE = new ValueBinder();
+
+		@Override
+		Object read(JsonReader reader) throws IOException {
+			return reader.nextValue();
+		}
+	}
+
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	static final class EnumBinder extends JsonBinder {
+
+		private final Class type;
+
+		EnumBinder(Class<?> type) {
+			this.type = type;
+		}
+
+		@Override
+		Object read(JsonReader reader) throws IOException {
+			if (reader.peek() == JsonToken.NULL) {
+				reader.nextNull();
+				return null;
+			}
+			String name = reader.nextString();
+			if (name.length() == 0) {
+				return null;
+			}
+			return Enum.valueOf(type, name);
+		}
+	}
+
+	static final class ArrayBinder extends JsonBinder {
+
+		private final Class<?> componentClass;
+
+		private final Type componentType;
+
+		private volatile JsonBinder componentBinder;
+
+		ArrayBinder(Class<?> componentClass, Type componentType) {
+			this.componentClass = componentClass;
+			this.componentType = componentType;
+		}
+
+		@Override
+		Object read(JsonReader reader) throws IOException {
+			if (reader.peek() == JsonToken.NULL) {
+				reader.nextNull();
+				return null;
+			}
+			if (null == componentBinder) {
+				componentBinder = of(componentType);
+			}
+			List<Object> list = new ArrayList<Object>();
+			reader.beginArray();
+			while (reader.hasNext()) {
+				list.add(componentBinder.read(reader));
+			}
+			reader.endArray();
+			Object array = Array.newInstance(componentClass, list.size());
+			for (int i = 0, len = list.size(); i < len; i++) {
+				Object value = list.get(i);
+				if (null != value) {
+					Array.set(array, i, value);
+				}
+			}
+			return array;
+		}
+	}
+
+	static final class CollectionBinder extends JsonBinder {
+
+		private final Class<?> type;
+
+		private final Type elementType;
+
+		private final Constructor<?> constructor;
+
+		private volatile JsonBinder elementBinder;
+
+		CollectionBinder(Class<?> type, Type elementType) {
+			this.type = type;
+			this.elementType = elementType;
+			boolean concrete = !type.isInterface() && !Modifier.isAbstract(type.getModifiers());
+			this.constructor = concrete ? constructor(type) : null;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		Object read(JsonReader reader) throws IOException {
+			if (reader.peek() == JsonToken.NULL) {
+				reader.nextNull();
+				return null;
+			}
+			if (null == elementBinder) {
+				elementBinder = of(elementType);
+			}
+			Collection<Object> collection = (Collection<Object>) newCollection();
+			reader.beginArray();
+			while (reader.hasNext()) {
+				collection.add(elementBinder.read(reader));
+			}
+			reader.endArray();
+			return collection;
+		}
+
+		private Object newCollection() {
+			if (null != constructor) {
+				return newInstance(constructor);
+			}
+			if (SortedSet.class.isAssignableFrom(type)) {
+				return new TreeSet<Object>();
+			}
+			if (Set.class.isAssignableFrom(type)) {
+				return new LinkedHashSet<Object>();
+			}
+			return new ArrayList<Object>();
+		}
+	}
+
+	static final class MapBinder extends JsonBinder {
+
+		private final Class<?> type;
+
+		private final Class<?> keyType;
+
+		private final Type valueType;
+
+		private final Constructor<?> constructor;
+
+		private volatile JsonBinder valueBinder;
+
+		MapBinder(Class<?> type, Type keyType, Type valueType) {
+			this.type = type;
+			this.keyType = rawType(keyType);
+			this.valueType = valueType;
+			boolean concrete = !type.isInterface() && !Modifier.isAbstract(type.getModifiers());
+			this.constructor = concrete ? constructor(type) : null;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		Object read(JsonReader reader) throws IOException {
+			if (reader.peek() == JsonToken.NULL) {
+				reader.nextNull();
+				return null;
+			}
+			if (null == valueBinder) {
+				valueBinder = of(valueType);
+			}
+			Map<Object, Object> map = (Map<Object, Object>) newMap();
+			reader.beginObject();
+			while (reader.hasNext()) {
+				Object key = key(reader.nextName());
+				map.put(key, valueBinder.read(reader));
+			}
+			reader.endObject();
+			return map;
+		}
+
+		private Object newMap() {
+			if (null != constructor) {
+				return newInstance(constructor);
+			}
+			if (SortedMap.class.isAssignableFrom(type)) {
+				return new TreeMap<Object, Object>();
+			}
+			return new LinkedHashMap<Object, Object>();
+		}
+
+		@SuppressWarnings({ "rawtypes", "unchecked" })
+		private Object key(String name) {
+			if (keyType == String.class || keyType == Object.class) {
+				return name;
+			}
+			if (keyType == Integer.class) {
+				return Integer.valueOf(name);
+			}
+			if (keyType == Long.class) {
+				return Long.valueOf(name);
+			}
+			if (keyType.isEnum()) {
+				return Enum.valueOf((Class) keyType, name);
+			}
+			throw new IllegalArgumentException("Unsupported map key type " + keyType.getName());
+		}
+	}
+
+	/**
+	 * JavaBean绑定器，属性在创建时解析一次，属性值的绑定器在第一次使用时获取，支持自引用的类型
+	 */
+	static final class BeanBinder extends JsonBinder {
+
+		private final Constructor<?> constructor;
+
+		private final Map<String, Property> properties;
+
+		private BeanBinder(Constructor<?> constructor, Map<String, Property> properties) {
+			this.constructor = constructor;
+			this.properties = properties;
+		}
+
+		static BeanBinder create(Class<?> type) {
+			Map<String, Property> properties = new HashMap<String, Property>();
+			for (Method method : type.getMethods()) {
+				String name = method.getName();
+				if (name.length() > 3 && name.startsWith("set") && !Modifier.isStatic(method.getModifiers())
+						&& method.getParameterTypes().length == 1) {
+					String property = BeanSerializer.decapitalize(name.substring(3));
+					if (null != property && !properties.containsKey(property)) {
+						properties.put(property, new SetterProperty(method));
+					}
+				}
+			}
+			for (Class<?> clazz : BeanSerializer.hierarchy(type)) {
+				for (Field field : clazz.getDeclaredFields()) {
+					int modifiers = field.getModifiers();
+					if (Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers) || Modifier.isTransient(modifiers)
+							|| field.isSynthetic() || properties.containsKey(field.getName())) {
+						continue;
+					}
+					properties.put(field.getName(), new FieldProperty(field));
+				}
+			}
+			return new BeanBinder(constructor(type), properties);
+		}
+
+		@Override
+		Object read(JsonReader reader) throws IOException {
+			if (reader.peek() == JsonToken.NULL) {
+				reader.nextNull();
+				return null;
+			}
+			Object bean = newInstance(constructor);
+			reader.beginObject();
+			while (reader.hasNext()) {
+				Property property = properties.get(reader.nextName());
+				if (null == property) {
+					reader.skipValue();
+				} else if (reader.peek() == JsonToken.NULL) {
+					// null不覆盖字段的默认值
+					reader.nextNull();
+				} else {
+					property.read(reader, bean);
+				}
+			}
+			reader.endObject();
+			return bean;
+		}
+	}
+
+	/**
+	 * bean的一个可写属性
+	 */
+	static abstract class Property {
+
+		private final Type type;
+
+		private volatile JsonBinder binder;
+
+		Property(Type type) {
+			this.type = type;
+		}
+
+		JsonBinder binder() {
+			JsonBinder result = binder;
+			if (null == result) {
+				result = of(type);
+				binder = result;
+			}
+			return result;
+		}
+
+		abstract String name();
+
+		abstract void read(JsonReader reader, Object bean) throws IOException;
+
+		IllegalStateException writeError(Throwable cause) {
+			if (cause instanceof InvocationTargetException) {
+				cause = ((InvocationTargetException) cause).getTargetException();
+			}
+			return new IllegalStateException("Can not write property " + name(), cause);
+		}
+	}
+
+	static final class SetterProperty extends Property {
+
+		private final Method setter;
+
+		SetterProperty(Method setter) {
+			super(setter.getGenericParameterTypes()[0]);
+			this.setter = setter;
+			try {
+				setter.setAccessible(true);
+			} catch (SecurityException e) {
+				// 使用默认的访问检查
+			}
+		}
+
+		@Override
+		String name() {
+			return setter.getName();
+		}
+
+		@Override
+		void read(JsonReader reader, Object bean) throws IOException {
+			Object value = binder().read(reader);
+			try {
+				setter.invoke(bean, value);
+			} catch (IllegalArgumentException e) {
+				throw writeError(e);
+			} catch (IllegalAccessException e) {
+				throw writeError(e);
+			} catch (InvocationTargetException e) {
+				throw writeError(e);
+			}
+		}
+	}
+
+	static final class FieldProperty extends Property {
+
+		private final Field field;
+
+		private final Class<?> type;
+
+		FieldProperty(Field field) {
+			super(field.getGenericType());
+			this.field = field;
+			this.type = field.getType();
+			field.setAccessible(true);
+		}
+
+		@Override
+		String name() {
+			return field.getName();
+		}
+
+		@Override
+		void read(JsonReader reader, Object bean) throws IOException {
+			try {
+				if (type == int.class) {
+					field.setInt(bean, reader.nextInt());
+				} else if (type == long.class) {
+					field.setLong(bean, reader.nextLong());
+				} else if (type == double.class) {
+					field.setDouble(bean, reader.nextDouble());
+				} else if (type == boolean.class) {
+					field.setBoolean(bean, ScalarBinder.readBoolean(reader));
+				} else if (type == float.class) {
+					field.setFloat(bean, (float) reader.nextDouble());
+				} else {
+					field.set(bean, binder().read(reader));
+				}
+			} catch (IllegalArgumentException e) {
+				throw writeError(e);
+			} catch (IllegalAccessException e) {
+				throw writeError(e);
+			}
+		}
+	}
+
+}
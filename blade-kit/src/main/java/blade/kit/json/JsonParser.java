@@ -22,17 +22,27 @@
 package blade.kit.json;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Reader;
 import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.Charset;
 
 
 class JsonParser {
 
   private static final int MIN_BUFFER_SIZE = 10;
   private static final int DEFAULT_BUFFER_SIZE = 1024;
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
 
   private final Reader reader;
   private final char[] buffer;
+  // byte mode: UTF-8 input read straight from an InputStream, only string values are decoded
+  private final InputStream input;
+  private byte[] bytes;
+  private byte[] captureBytes;
+  private int captureBytesLength;
   private int bufferOffset;
   private int index;
   private int fill;
@@ -62,11 +72,25 @@ class JsonParser {
 
   JsonParser(Reader reader, int buffersize) {
     this.reader = reader;
+    this.input = null;
     buffer = new char[buffersize];
     line = 1;
     captureStart = -1;
   }
 
+  /*
+   * Reads UTF-8 bytes without a Reader. The input buffer is taken from BufferPool and must be
+   * given back with release(). Offsets and columns in ParseException count bytes in this mode.
+   */
+  JsonParser(InputStream input) {
+    this.reader = null;
+    this.input = input;
+    buffer = null;
+    bytes = BufferPool.takeBytes();
+    line = 1;
+    captureStart = -1;
+  }
+
   JsonValue parse() throws IOException {
     read();
     skipWhiteSpace();
@@ -78,7 +102,7 @@ class JsonParser {
     return result;
   }
 
-  private JsonValue readValue() throws IOException {
+  JsonValue readValue() throws IOException {
     switch (current) {
       case 'n':
         return readNull();
@@ -158,7 +182,7 @@ class JsonParser {
     return readStringInternal();
   }
 
-  private JsonValue readNull() throws IOException {
+  JsonValue readNull() throws IOException {
     read();
     readRequiredChar('u');
     readRequiredChar('l');
@@ -166,7 +190,7 @@ class JsonParser {
     return Json.NULL;
   }
 
-  private JsonValue readTrue() throws IOException {
+  JsonValue readTrue() throws IOException {
     read();
     readRequiredChar('r');
     readRequiredChar('u');
@@ -174,7 +198,7 @@ class JsonParser {
     return Json.TRUE;
   }
 
-  private JsonValue readFalse() throws IOException {
+  JsonValue readFalse() throws IOException {
     read();
     readRequiredChar('a');
     readRequiredChar('l');
@@ -193,7 +217,7 @@ class JsonParser {
     return new JsonString(readStringInternal());
   }
 
-  private String readStringInternal() throws IOException {
+  String readStringInternal() throws IOException {
     read();
     startCapture();
     while (current != '"') {
@@ -212,6 +236,31 @@ class JsonParser {
     return string;
   }
 
+  void skipString() throws IOException {
+    read();
+    while (current != '"') {
+      if (current == '\\') {
+        read();
+        if (current == 'u') {
+          for (int i = 0; i < 4; i++) {
+            read();
+            if (!isHexDigit()) {
+              throw expected("hexadecimal digit");
+            }
+          }
+        } else if ("\"/\\bfnrt".indexOf(current) == -1) {
+          throw expected("valid escape sequence");
+        }
+        read();
+      } else if (current < 0x20) {
+        throw expected("valid string character");
+      } else {
+        read();
+      }
+    }
+    read();
+  }
+
   private void readEscape() throws IOException {
     read();
     switch (current) {
@@ -253,7 +302,74 @@ class JsonParser {
   }
 
   private JsonValue readNumber() throws IOException {
+    return new JsonNumber(readNumberString());
+  }
+
+  /*
+   * Reads an integer without creating a String. Falls back to a captured string for fractions,
+   * exponents and values that do not fit into a long.
+   */
+  long readLong() throws IOException {
+    startCapture();
+    boolean negative = readChar('-');
+    int firstDigit = current;
+    if (!isDigit()) {
+      throw expected("digit");
+    }
+    long value = 0;
+    boolean overflow = false;
+    while (isDigit()) {
+      int digit = current - '0';
+      if (value > (Long.MAX_VALUE - digit) / 10) {
+        overflow = true;
+      }
+      value = value * 10 + digit;
+      read();
+      if (firstDigit == '0') {
+        break;
+      }
+    }
+    if (!overflow && current != '.' && current != 'e' && current != 'E') {
+      discardCapture();
+      return negative ? -value : value;
+    }
+    readFraction();
+    readExponent();
+    return parseLong(endCapture());
+  }
+
+  /*
+   * Converts a number with fraction, exponent or too many digits to a long, failing unless the
+   * conversion is exact. A double rounds -9223372036854775809 to Long.MIN_VALUE, so it is only
+   * used to reject values far out of range before the exact check.
+   */
+  static long parseLong(String number) {
+    double approx = Double.parseDouble(number);
+    if (approx >= 0x1p63 || approx < -0x1p63 || approx != Math.floor(approx)) {
+      throw new NumberFormatException("Expected a long but was " + number);
+    }
+    BigDecimal decimal = new BigDecimal(number);
+    if (decimal.signum() == 0) {
+      return 0;
+    }
+    decimal = decimal.stripTrailingZeros();
+    if (decimal.scale() > 0) {
+      throw new NumberFormatException("Expected a long but was " + number);
+    }
+    BigInteger value = decimal.toBigInteger();
+    if (value.bitLength() > 63) {
+      throw new NumberFormatException("Expected a long but was " + number);
+    }
+    return value.longValue();
+  }
+
+  String readNumberString() throws IOException {
     startCapture();
+    skipNumber();
+    return endCapture();
+  }
+
+  void skipNumber() throws IOException {
     readChar('-');
     int firstDigit = current;
     if (!readDigit()) {
@@ -265,7 +381,6 @@ class JsonParser {
     }
     readFraction();
     readExponent();
-    return new JsonNumber(endCapture());
   }
 
   private boolean readFraction() throws IOException {
@@ -295,7 +410,7 @@ class JsonParser {
     return true;
   }
 
-  private boolean readChar(char ch) throws IOException {
+  boolean readChar(char ch) throws IOException {
     if (current != ch) {
       return false;
     }
@@ -311,20 +426,20 @@ class JsonParser {
     return true;
   }
 
-  private void skipWhiteSpace() throws IOException {
+  void skipWhiteSpace() throws IOException {
     while (isWhiteSpace()) {
       read();
     }
   }
 
-  private void read() throws IOException {
+  void read() throws IOException {
     if (index == fill) {
       if (captureStart != -1) {
-        captureBuffer.append(buffer, captureStart, fill - captureStart);
+        appendCapture(captureStart, fill);
         captureStart = 0;
       }
       bufferOffset += fill;
-      fill = reader.read(buffer, 0, buffer.length);
+      fill = input != null ? input.read(bytes, 0, bytes.length) : reader.read(buffer, 0, buffer.length);
       index = 0;
       if (fill == -1) {
         current = -1;
@@ -335,7 +450,7 @@ class JsonParser {
       line++;
       lineOffset = bufferOffset + index;
     }
-    current = buffer[index++];
+    current = input != null ? bytes[index++] & 0xff : buffer[index++];
   }
 
   private void startCapture() {
@@ -347,17 +462,21 @@ class JsonParser {
 
   private void pauseCapture() {
     int end = current == -1 ? index : index - 1;
-    captureBuffer.append(buffer, captureStart, end - captureStart);
+    appendCapture(captureStart, end);
+    decodeCapturedBytes();
     captureStart = -1;
   }
 
   private String endCapture() {
     int end = current == -1 ? index : index - 1;
     String captured;
-    if (captureBuffer.length() > 0) {
-      captureBuffer.append(buffer, captureStart, end - captureStart);
+    if (captureBuffer.length() > 0 || captureBytesLength > 0) {
+      appendCapture(captureStart, end);
+      decodeCapturedBytes();
       captured = captureBuffer.toString();
       captureBuffer.setLength(0);
+    } else if (input != null) {
+      captured = new String(bytes, captureStart, end - captureStart, UTF_8);
     } else {
       captured = new String(buffer, captureStart, end - captureStart);
     }
@@ -365,20 +484,74 @@ class JsonParser {
     return captured;
   }
 
-  private ParseException expected(String expected) {
+  private void discardCapture() {
+    captureBuffer.setLength(0);
+    captureBytesLength = 0;
+    captureStart = -1;
+  }
+
+  private void appendCapture(int start, int end) {
+    if (input == null) {
+      captureBuffer.append(buffer, start, end - start);
+      return;
+    }
+    // raw bytes are kept until the segment ends, a buffer refill may split a multi-byte sequence
+    int length = end - start;
+    if (captureBytes == null) {
+      captureBytes = new byte[Math.max(64, length)];
+    } else if (captureBytesLength + length > captureBytes.length) {
+      byte[] grown = new byte[Math.max(captureBytes.length * 2, captureBytesLength + length)];
+      System.arraycopy(captureBytes, 0, grown, 0, captureBytesLength);
+      captureBytes = grown;
+    }
+    System.arraycopy(bytes, start, captureBytes, captureBytesLength, length);
+    captureBytesLength += length;
+  }
+
+  private void decodeCapturedBytes() {
+    if (captureBytesLength > 0) {
+      captureBuffer.append(new String(captureBytes, 0, captureBytesLength, UTF_8));
+      captureBytesLength = 0;
+    }
+  }
+
+  ParseException expected(String expected) {
     if (isEndOfText()) {
       return error("Unexpected end of input");
     }
     return error("Expected " + expected);
   }
 
-  private ParseException error(String message) {
+  ParseException error(String message) {
     int absIndex = bufferOffset + index;
     int column = absIndex - lineOffset;
     int offset = isEndOfText() ? absIndex : absIndex - 1;
     return new ParseException(message, offset, line, column - 1);
   }
 
+  int current() {
+    return current;
+  }
+
+  void close() throws IOException {
+    release();
+    if (input != null) {
+      input.close();
+    } else {
+      reader.close();
+    }
+  }
+
+  /*
+   * Gives the pooled input buffer back, the parser must not be used afterwards.
+   */
+  void release() {
+    if (bytes != null) {
+      BufferPool.giveBytes(bytes);
+      bytes = null;
+    }
+  }
+
   private boolean isWhiteSpace() {
     return current == ' ' || current == '\t' || current == '\n' || current == '\r';
   }
@@ -393,7 +566,7 @@ class JsonParser {
         || current >= 'A' && current <= 'F';
   }
 
-  private boolean isEndOfText() {
+  boolean isEndOfText() {
     return current == -1;
   }
 
@@ -0,0 +1,524 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blade.kit.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * 流式JSON读取器，按token逐个读取，不在内存中构建完整的JsonValue树。
+ * <p>
+ * 复用{@link JsonParser}的缓冲区和词法解析，适合逐个处理大数组中的元素：
+ * </p>
+ *
+ * <pre>
+ * JsonReader reader = new JsonReader(request.raw().getReader());
+ * reader.beginArray();
+ * while (reader.hasNext()) {
+ *   reader.beginObject();
+ *   while (reader.hasNext()) {
+ *     String name = reader.nextName();
+ *     if ("id".equals(name)) {
+ *       long id = reader.nextLong();
+ *     } else {
+ *       reader.skipValue();
+ *     }
+ *   }
+ *   reader.endObject();
+ * }
+ * reader.endArray();
+ * </pre>
+ *
+ * 语法错误抛出{@link ParseException}，调用的方法与下一个token类型不符时抛出{@link IllegalStateException}。
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public class JsonReader implements Closeable {
+
+	private static final int EMPTY_DOCUMENT = 0;
+
+	private static final int NONEMPTY_DOCUMENT = 1;
+
+	private static final int EMPTY_ARRAY = 2;
+
+	private static final int NONEMPTY_ARRAY = 3;
+
+	private static final int EMPTY_OBJECT = 4;
+
+	/**
+	 * 已读取属性名，等待冒号和属性值
+	 */
+	private static final int DANGLING_NAME = 5;
+
+	private static final int NONEMPTY_OBJECT = 6;
+
+	private final JsonParser parser;
+
+	/**
+	 * 当前所在的嵌套层级，只保存层级状态，内存占用与嵌套深度相关而与输入大小无关
+	 */
+	private int[] stack = new int[32];
+
+	private int stackSize;
+
+	/**
+	 * 已查看但未消费的token
+	 */
+	private JsonToken peeked;
+
+	/**
+	 * nextToken读取到的值
+	 */
+	private String text;
+
+	public JsonReader(String json) {
+		if (json == null) {
+			throw new NullPointerException("json is null");
+		}
+		this.parser = new JsonParser(json);
+		push(EMPTY_DOCUMENT);
+	}
+
+	public JsonReader(Reader reader) {
+		if (reader == null) {
+			throw new NullPointerException("reader is null");
+		}
+		this.parser = new JsonParser(reader);
+		push(EMPTY_DOCUMENT);
+	}
+
+	/**
+	 * 直接按UTF-8字节读取输入流，不经过Reader解码，只有字符串值会被解码。
+	 * 读取使用缓冲池中的缓冲区，用完后需要调用{@link #close()}归还
+	 *
+	 * @param in	UTF-8编码的输入流
+	 */
+	public JsonReader(InputStream in) {
+		if (in == null) {
+			throw new NullPointerException("in is null");
+		}
+		this.parser = new JsonParser(in);
+		push(EMPTY_DOCUMENT);
+	}
+
+	/**
+	 * 查看下一个token的类型，不消费
+	 *
+	 * @return	返回下一个token类型
+	 * @throws IOException
+	 */
+	public JsonToken peek() throws IOException {
+		if (null == peeked) {
+			peeked = doPeek();
+		}
+		return peeked;
+	}
+
+	/**
+	 * 消费下一个token并返回其类型，属性名、字符串、数字和布尔值可以通过{@link #getText()}获取
+	 *
+	 * @return	返回读取到的token类型
+	 * @throws IOException
+	 */
+	public JsonToken nextToken() throws IOException {
+		JsonToken token = peek();
+		text = null;
+		switch (token) {
+			case BEGIN_ARRAY:
+				beginArray();
+				break;
+			case END_ARRAY:
+				endArray();
+				break;
+			case BEGIN_OBJECT:
+				beginObject();
+				break;
+			case END_OBJECT:
+				endObject();
+				break;
+			case NAME:
+				text = nextName();
+				break;
+			case STRING:
+			case NUMBER:
+				text = nextString();
+				break;
+			case BOOLEAN:
+				text = String.valueOf(nextBoolean());
+				break;
+			case NULL:
+				nextNull();
+				break;
+			default:
+				break;
+		}
+		return token;
+	}
+
+	/**
+	 * @return	返回上一次{@link #nextToken()}读取到的值，结构token和null时为null
+	 */
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * @return	当前数组或对象中是否还有元素
+	 * @throws IOException
+	 */
+	public boolean hasNext() throws IOException {
+		JsonToken token = peek();
+		return token != JsonToken.END_ARRAY && token != JsonToken.END_OBJECT && token != JsonToken.END_DOCUMENT;
+	}
+
+	public void beginArray() throws IOException {
+		expect(JsonToken.BEGIN_ARRAY);
+		parser.read();
+		push(EMPTY_ARRAY);
+	}
+
+	public void endArray() throws IOException {
+		expect(JsonToken.END_ARRAY);
+		parser.read();
+		stackSize--;
+	}
+
+	public void beginObject() throws IOException {
+		expect(JsonToken.BEGIN_OBJECT);
+		parser.read();
+		push(EMPTY_OBJECT);
+	}
+
+	public void endObject() throws IOException {
+		expect(JsonToken.END_OBJECT);
+		parser.read();
+		stackSize--;
+	}
+
+	/**
+	 * @return	返回对象的下一个属性名
+	 * @throws IOException
+	 */
+	public String nextName() throws IOException {
+		expect(JsonToken.NAME);
+		return parser.readStringInternal();
+	}
+
+	/**
+	 * 读取字符串值，数字值按原文返回
+	 *
+	 * @return	返回字符串值
+	 * @throws IOException
+	 */
+	public String nextString() throws IOException {
+		JsonToken token = peek();
+		if (token == JsonToken.STRING) {
+			peeked = null;
+			return parser.readStringInternal();
+		}
+		if (token == JsonToken.NUMBER) {
+			peeked = null;
+			return parser.readNumberString();
+		}
+		throw unexpected(JsonToken.STRING, token);
+	}
+
+	public boolean nextBoolean() throws IOException {
+		expect(JsonToken.BOOLEAN);
+		if (parser.current() == 't') {
+			parser.readTrue();
+			return true;
+		}
+		parser.readFalse();
+		return false;
+	}
+
+	public void nextNull() throws IOException {
+		expect(JsonToken.NULL);
+		parser.readNull();
+	}
+
+	/**
+	 * 读取long值，带引号的数字也可以读取
+	 *
+	 * @return	返回long值
+	 * @throws IOException
+	 * @throws NumberFormatException	数字不能无损转换为long时抛出
+	 */
+	public long nextLong() throws IOException {
+		if (peek() == JsonToken.NUMBER) {
+			peeked = null;
+			return parser.readLong();
+		}
+		String number = nextNumber();
+		try {
+			return Long.parseLong(number, 10);
+		} catch (NumberFormatException e) {
+			return JsonParser.parseLong(number);
+		}
+	}
+
+	/**
+	 * 读取int值，带引号的数字也可以读取
+	 *
+	 * @return	返回int值
+	 * @throws IOException
+	 * @throws NumberFormatException	数字不能无损转换为int时抛出
+	 */
+	public int nextInt() throws IOException {
+		if (peek() == JsonToken.NUMBER) {
+			peeked = null;
+			long value = parser.readLong();
+			if ((int) value != value) {
+				throw new NumberFormatException("Expected an int but was " + value);
+			}
+			return (int) value;
+		}
+		String number = nextNumber();
+		try {
+			return Integer.parseInt(number, 10);
+		} catch (NumberFormatException e) {
+			long value = JsonParser.parseLong(number);
+			if ((int) value != value) {
+				throw new NumberFormatException("Expected an int but was " + number);
+			}
+			return (int) value;
+		}
+	}
+
+	public double nextDouble() throws IOException {
+		return Double.parseDouble(nextNumber());
+	}
+
+	/**
+	 * 将下一个值完整读取为JsonValue，用于逐个处理数组元素
+	 *
+	 * @return	返回读取到的值
+	 * @throws IOException
+	 */
+	public JsonValue nextValue() throws IOException {
+		JsonToken token = peek();
+		if (!isValue(token)) {
+			throw unexpected(null, token);
+		}
+		peeked = null;
+		return parser.readValue();
+	}
+
+	/**
+	 * 跳过下一个值，数组和对象连同其内容一起跳过，跳过时不创建字符串
+	 *
+	 * @throws IOException
+	 */
+	public void skipValue() throws IOException {
+		int depth = 0;
+		do {
+			JsonToken token = peek();
+			peeked = null;
+			switch (token) {
+				case BEGIN_ARRAY:
+					parser.read();
+					push(EMPTY_ARRAY);
+					depth++;
+					break;
+				case BEGIN_OBJECT:
+					parser.read();
+					push(EMPTY_OBJECT);
+					depth++;
+					break;
+				case END_ARRAY:
+				case END_OBJECT:
+					if (depth == 0) {
+						peeked = token;
+						throw unexpected(null, token);
+					}
+					parser.read();
+					stackSize--;
+					depth--;
+					break;
+				case NAME:
+				case STRING:
+					parser.skipString();
+					break;
+				case NUMBER:
+					parser.skipNumber();
+					break;
+				case BOOLEAN:
+					if (parser.current() == 't') {
+						parser.readTrue();
+					} else {
+						parser.readFalse();
+					}
+					break;
+				case NULL:
+					parser.readNull();
+					break;
+				default:
+					peeked = token;
+					throw unexpected(null, token);
+			}
+		} while (depth > 0);
+	}
+
+	public void close() throws IOException {
+		peeked = null;
+		stackSize = 0;
+		parser.close();
+	}
+
+	/**
+	 * 归还缓冲区但不关闭输入流
+	 */
+	void release() {
+		peeked = null;
+		stackSize = 0;
+		parser.release();
+	}
+
+	private String nextNumber() throws IOException {
+		JsonToken token = peek();
+		if (token == JsonToken.NUMBER) {
+			peeked = null;
+			return parser.readNumberString();
+		}
+		if (token == JsonToken.STRING) {
+			peeked = null;
+			return parser.readStringInternal().trim();
+		}
+		throw unexpected(JsonToken.NUMBER, token);
+	}
+
+	private JsonToken doPeek() throws IOException {
+		if (stackSize == 0) {
+			throw new IllegalStateException("JsonReader is closed");
+		}
+		int scope = stack[stackSize - 1];
+		switch (scope) {
+			case EMPTY_DOCUMENT:
+				stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+				parser.read();
+				parser.skipWhiteSpace();
+				return valueToken();
+			case NONEMPTY_DOCUMENT:
+				parser.skipWhiteSpace();
+				if (!parser.isEndOfText()) {
+					throw parser.error("Unexpected character");
+				}
+				return JsonToken.END_DOCUMENT;
+			case EMPTY_ARRAY:
+			case NONEMPTY_ARRAY:
+				stack[stackSize - 1] = NONEMPTY_ARRAY;
+				parser.skipWhiteSpace();
+				if (parser.current() == ']') {
+					return JsonToken.END_ARRAY;
+				}
+				if (scope == NONEMPTY_ARRAY) {
+					if (!parser.readChar(',')) {
+						throw parser.expected("',' or ']'");
+					}
+					parser.skipWhiteSpace();
+				}
+				return valueToken();
+			case EMPTY_OBJECT:
+			case NONEMPTY_OBJECT:
+				parser.skipWhiteSpace();
+				if (parser.current() == '}') {
+					return JsonToken.END_OBJECT;
+				}
+				if (scope == NONEMPTY_OBJECT) {
+					if (!parser.readChar(',')) {
+						throw parser.expected("',' or '}'");
+					}
+					parser.skipWhiteSpace();
+				}
+				if (parser.current() != '"') {
+					throw parser.expected("name");
+				}
+				stack[stackSize - 1] = DANGLING_NAME;
+				return JsonToken.NAME;
+			case DANGLING_NAME:
+				stack[stackSize - 1] = NONEMPTY_OBJECT;
+				parser.skipWhiteSpace();
+				if (!parser.readChar(':')) {
+					throw parser.expected("':'");
+				}
+				parser.skipWhiteSpace();
+				return valueToken();
+			default:
+				throw new IllegalStateException("Unknown scope " + scope);
+		}
+	}
+
+	private JsonToken valueToken() {
+		switch (parser.current()) {
+			case '[':
+				return JsonToken.BEGIN_ARRAY;
+			case '{':
+				return JsonToken.BEGIN_OBJECT;
+			case '"':
+				return JsonToken.STRING;
+			case 't':
+			case 'f':
+				return JsonToken.BOOLEAN;
+			case 'n':
+				return JsonToken.NULL;
+			case '-':
+			case '0':
+			case '1':
+			case '2':
+			case '3':
+			case '4':
+			case '5':
+			case '6':
+			case '7':
+			case '8':
+			case '9':
+				return JsonToken.NUMBER;
+			default:
+				throw parser.expected("value");
+		}
+	}
+
+	private static boolean isValue(JsonToken token) {
+		return token != JsonToken.NAME && token != JsonToken.END_ARRAY
+				&& token != JsonToken.END_OBJECT && token != JsonToken.END_DOCUMENT;
+	}
+
+	private void expect(JsonToken expected) throws IOException {
+		JsonToken token = peek();
+		if (token != expected) {
+			throw unexpected(expected, token);
+		}
+		peeked = null;
+	}
+
+	private IllegalStateException unexpected(JsonToken expected, JsonToken actual) {
+		String want = null != expected ? expected.name() : "a value";
+		return new IllegalStateException("Expected " + want + " but was " + actual);
+	}
+
+	private void push(int scope) {
+		if (stackSize == stack.length) {
+			stack = Arrays.copyOf(stack, stackSize * 2);
+		}
+		stack[stackSize++] = scope;
+	}
+
+}
@@ -22,6 +22,7 @@
 package blade.kit.json;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Serializable;
 import java.io.StringWriter;
@@ -442,6 +443,29 @@ public abstract class JsonValue implements Serializable {
     buffer.flush();
   }
 
+  /**
+   * Writes the JSON representation of this value to the given output stream in its minimal form,
+   * encoded as UTF-8. Characters are encoded into a pooled byte buffer, so no intermediate
+   * <code>String</code> or <code>char[]</code> of the whole document is created. The stream is
+   * neither flushed nor closed.
+   *
+   * @param out
+   *          the output stream to write this value to
+   * @throws IOException
+   *           if an I/O error occurs in the output stream
+   */
+  public void writeTo(OutputStream out) throws IOException {
+    if (out == null) {
+      throw new NullPointerException("out is null");
+    }
+    Utf8Writer writer = new Utf8Writer(out);
+    try {
+      write(WriterConfig.MINIMAL.createWriter(writer));
+    } finally {
+      writer.close();
+    }
+  }
+
   /**
    * Returns the JSON string for this value in its minimal form, without any additional whitespace.
    * The result is guaranteed to be a valid input for the method {@link #readFrom(String)} and to
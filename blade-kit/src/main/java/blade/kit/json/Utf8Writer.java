@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2015, biezhi 王爵 (biezhi.me@gmail.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * 	http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package blade.kit.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * 直接把字符编码为UTF-8写入输出流的Writer，使用池化的字节缓冲区，
+ * 不产生中间的String和char[]。close时归还缓冲区，但不关闭输出流
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+final class Utf8Writer extends Writer {
+
+	private final OutputStream out;
+
+	private byte[] buffer;
+
+	private int count;
+
+	/**
+	 * 等待低位代理项的高位代理项，没有时为0
+	 */
+	private char highSurrogate;
+
+	Utf8Writer(OutputStream out) {
+		this.out = out;
+		this.buffer = BufferPool.takeBytes();
+	}
+
+	@Override
+	public void write(int c) throws IOException {
+		if (count > buffer.length - 4) {
+			flushBuffer();
+		}
+		encode((char) c);
+	}
+
+	@Override
+	public void write(char[] cbuf, int off, int len) throws IOException {
+		for (int i = off, end = off + len; i < end; i++) {
+			if (count > buffer.length - 4) {
+				flushBuffer();
+			}
+			encode(cbuf[i]);
+		}
+	}
+
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		for (int i = off, end = off + len; i < end; i++) {
+			if (count > buffer.length - 4) {
+				flushBuffer();
+			}
+			encode(str.charAt(i));
+		}
+	}
+
+	private void encode(char c) {
+		byte[] buf = buffer;
+		if (c < 0x80 && highSurrogate == 0) {
+			buf[count++] = (byte) c;
+		} else if (Character.isHighSurrogate(c)) {
+			if (highSurrogate != 0) {
+				buf[count++] = '?';
+			}
+			highSurrogate = c;
+		} else if (Character.isLowSurrogate(c) && highSurrogate != 0) {
+			int codePoint = Character.toCodePoint(highSurrogate, c);
+			highSurrogate = 0;
+			buf[count++] = (byte) (0xf0 | (codePoint >> 18));
+			buf[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+			buf[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+			buf[count++] = (byte) (0x80 | (codePoint & 0x3f));
+		} else {
+			if (highSurrogate != 0) {
+				// 单独的高位代理项
+				highSurrogate = 0;
+				buf[count++] = '?';
+			}
+			if (c < 0x80) {
+				buf[count++] = (byte) c;
+			} else if (c < 0x800) {
+				buf[count++] = (byte) (0xc0 | (c >> 6));
+				buf[count++] = (byte) (0x80 | (c & 0x3f));
+			} else if (Character.isLowSurrogate(c)) {
+				buf[count++] = '?';
+			} else {
+				buf[count++] = (byte) (0xe0 | (c >> 12));
+				buf[count++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+				buf[count++] = (byte) (0x80 | (c & 0x3f));
+			}
+		}
+	}
+
+	private void flushBuffer() throws IOException {
+		if (count > 0) {
+			out.write(buffer, 0, count);
+			count = 0;
+		}
+	}
+
+	/**
+	 * 写出缓冲的数据并刷新输出流
+	 */
+	@Override
+	public void flush() throws IOException {
+		flushBuffer();
+		out.flush();
+	}
+
+	/**
+	 * 写出缓冲的数据并归还缓冲区，不关闭输出流
+	 */
+	@Override
+	public void close() throws IOException {
+		if (null == buffer) {
+			return;
+		}
+		try {
+			if (highSurrogate != 0) {
+				highSurrogate = 0;
+				buffer[count++] = '?';
+			}
+			flushBuffer();
+		} finally {
+			BufferPool.giveBytes(buffer);
+			buffer = null;
+		}
+	}
+
+}
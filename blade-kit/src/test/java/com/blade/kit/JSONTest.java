@@ -1,14 +1,21 @@
 package com.blade.kit;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.junit.Assert;
+import org.junit.Test;
+
 import blade.kit.json.JSONKit;
 import blade.kit.json.Json;
 import blade.kit.json.JsonArray;
 import blade.kit.json.JsonObject;
+import blade.kit.json.JsonReader;
+import blade.kit.json.JsonToken;
 import blade.kit.json.JsonValue;
 
 public class JSONTest {
@@ -51,9 +58,34 @@ public class JSONTest {
         u1.setName("rose");
         
         System.out.println(JSONKit.toJSONString(u1));
-        
-//        User u = JSONKit.parse("{\"name\":\"jack\",\"age\":20}", User.class);
-//        System.out.println(u);
+	}
+	
+	/**
+	 * 流式读取，逐个处理数组元素
+	 */
+	@Test
+	public void testJsonReader() throws IOException {
+		String json = "[{\"text\": \"首页\",\"href\": \"/\"},{\"text\": \"博客\",\"href\": \"blog\"}]";
+		List<String> values = new ArrayList<String>();
+		JsonReader reader = new JsonReader(json);
+		reader.beginArray();
+		while (reader.hasNext()) {
+			reader.beginObject();
+			while (reader.hasNext()) {
+				values.add(reader.nextName() + "=" + reader.nextString());
+			}
+			reader.endObject();
+		}
+		reader.endArray();
+		Assert.assertEquals(JsonToken.END_DOCUMENT, reader.peek());
+		Assert.assertEquals(Arrays.asList("text=首页", "href=/", "text=博客", "href=blog"), values);
+	}
+	
+	@Test
+	public void testParseBean() {
+		User u = JSONKit.parse("{\"name\":\"jack\",\"age\":20}", User.class);
+		Assert.assertEquals("jack", u.getName());
+		Assert.assertEquals(20L, u.getAge());
 	}
 	
 }
@@ -0,0 +1,123 @@
+package com.blade.kit;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import blade.kit.json.Json;
+import blade.kit.json.JsonReader;
+import blade.kit.json.JsonValue;
+
+public class JsonParserTest {
+	
+	/**
+	 * 每次最多返回几个字节，让多字节字符和转义被缓冲区的重新填充截断
+	 */
+	static class ChunkedInputStream extends InputStream {
+		
+		private final InputStream in;
+		
+		private final int chunk;
+		
+		ChunkedInputStream(byte[] bytes, int chunk) {
+			this.in = new ByteArrayInputStream(bytes);
+			this.chunk = chunk;
+		}
+		
+		@Override
+		public int read() throws IOException {
+			return in.read();
+		}
+		
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			return in.read(b, off, Math.min(len, chunk));
+		}
+	}
+	
+	private static JsonValue parseBytes(String json, int chunk) throws IOException {
+		return Json.parse(new ChunkedInputStream(json.getBytes("UTF-8"), chunk));
+	}
+	
+	private static JsonReader reader(String json, int chunk) throws IOException {
+		return new JsonReader(new ChunkedInputStream(json.getBytes("UTF-8"), chunk));
+	}
+	
+	@Test
+	public void testMultiByteInput() throws IOException {
+		StringBuilder longText = new StringBuilder();
+		for (int i = 0; i < 600; i++) {
+			longText.append(i % 3 == 0 ? "中" : i % 3 == 1 ? "😀" : "é");
+		}
+		String json = "{\"name\":\"王爵\",\"emoji\":\"😀a😀\","
+				+ "\"escaped\":\"中\\n文\\u4e2d\\\"é\\\\😀\",\"long\":\"" + longText + "\","
+				+ "\"list\":[\"ü\",-12.5e3,true,null,{\"键\":\"值\"}]}";
+		JsonValue expected = Json.parse(json);
+		for (int chunk : new int[] { 1, 2, 3, 5, 7, 4096 }) {
+			JsonValue actual = parseBytes(json, chunk);
+			Assert.assertEquals("chunk " + chunk, expected, actual);
+			Assert.assertEquals("chunk " + chunk, expected.toString(), actual.toString());
+		}
+		Assert.assertEquals("中\n文中\"é\\😀", parseBytes(json, 1).asObject().get("escaped").asString());
+		Assert.assertEquals(longText.toString(), parseBytes(json, 3).asObject().get("long").asString());
+	}
+	
+	@Test
+	public void testReaderMultiByteInput() throws IOException {
+		String json = "[\"中文\\t😀\",\"é\"]";
+		for (int chunk : new int[] { 1, 2, 3 }) {
+			JsonReader reader = reader(json, chunk);
+			reader.beginArray();
+			Assert.assertEquals("中文\t😀", reader.nextString());
+			Assert.assertEquals("é", reader.nextString());
+			reader.endArray();
+			reader.close();
+		}
+	}
+	
+	@Test
+	public void testNextLong() throws IOException {
+		String json = "[" + Long.MAX_VALUE + "," + Long.MIN_VALUE + ",0,-1,1e3,\"42\",-9.223372036854775808e18,0e-5]";
+		for (int chunk : new int[] { 1, 3, 4096 }) {
+			JsonReader reader = reader(json, chunk);
+			reader.beginArray();
+			Assert.assertEquals(Long.MAX_VALUE, reader.nextLong());
+			Assert.assertEquals(Long.MIN_VALUE, reader.nextLong());
+			Assert.assertEquals(0L, reader.nextLong());
+			Assert.assertEquals(-1L, reader.nextLong());
+			Assert.assertEquals(1000L, reader.nextLong());
+			Assert.assertEquals(42L, reader.nextLong());
+			Assert.assertEquals(Long.MIN_VALUE, reader.nextLong());
+			Assert.assertEquals(0L, reader.nextLong());
+			reader.endArray();
+			reader.close();
+		}
+		
+		JsonReader reader = new JsonReader("[" + Long.MIN_VALUE + "]");
+		reader.beginArray();
+		Assert.assertEquals(Long.MIN_VALUE, reader.nextLong());
+	}
+	
+	@Test
+	public void testNextLongOverflow() throws IOException {
+		String[] numbers = { "9223372036854775808", "-9223372036854775809", "99999999999999999999", "1.5",
+				"1.0000000000000000001", "1e19", "\"-9223372036854775809\"" };
+		for (String number : numbers) {
+			for (int chunk : new int[] { 1, 4096 }) {
+				JsonReader reader = reader("[" + number + "]", chunk);
+				reader.beginArray();
+				try {
+					reader.nextLong();
+					Assert.fail("Expected NumberFormatException for " + number);
+				} catch (NumberFormatException e) {
+					Assert.assertTrue(e.getMessage().endsWith(number.replace("\"", "")));
+				}
+				reader.close();
+			}
+		}
+	}
+	
+}
@@ -1450,4 +1450,38 @@ public class RedisExecutor {
         }.getResult();
     }
 
+    /**
+     * 在一个管道中设置哈希表的多个域、删除多个域并设置生存时间
+     * 
+     * @param key key
+     * @param hash 要设置的域和值
+     * @param removed 要删除的域，可以为空
+     * @param expire 生命周期，单位为秒，小于等于0时不设置
+     */
+    public void hashUpdate(final String key, final Map<String, byte[]> hash, final Collection<String> removed, final int expire) {
+        new Executor<Object>(shardedJedisPool) {
+
+            @Override
+            Object execute() {
+                byte[] rawKey = SafeEncoder.encode(key);
+                Pipeline pipeline = jedis.getShard(key).pipelined();
+                if (null != hash && !hash.isEmpty()) {
+                    Map<byte[], byte[]> rawHash = new HashMap<byte[], byte[]>(hash.size() * 4 / 3 + 1);
+                    for (Map.Entry<String, byte[]> entry : hash.entrySet()) {
+                        rawHash.put(SafeEncoder.encode(entry.getKey()), entry.getValue());
+                    }
+                    pipeline.hmset(rawKey, rawHash);
+                }
+                if (null != removed && !removed.isEmpty()) {
+                    pipeline.hdel(key, removed.toArray(new String[removed.size()]));
+                }
+                if (expire > 0) {
+                    pipeline.expire(key, expire);
+                }
+                pipeline.sync();
+                return null;
+            }
+        }.getResult();
+    }
+
 }
@@ -0,0 +1,235 @@
+package blade.plugin.redis;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import redis.clients.util.SafeEncoder;
+import blade.kit.SerializeKit;
+
+import com.blade.session.SessionData;
+import com.blade.session.SessionStore;
+
+/**
+ * 基于redis hash的SessionStore，每个session保存为一个hash，多个节点共享session。
+ * 属性在第一次读取时才从redis加载，请求结束时只写回修改过的属性。
+ * 属性值需要实现Serializable，取出的对象修改后需要重新设置才会写回。
+ *
+ * @author	<a href="mailto:biezhi.me@gmail.com" target="_blank">biezhi</a>
+ * @since	1.0
+ */
+public class RedisSessionStore implements SessionStore {
+	
+	// 以#开头的域保存session自身的信息，不能作为属性名
+	private static final String META_PREFIX = "#";
+	
+	private static final String CREATION_TIME = "#creation_time";
+	
+	private static final String LAST_ACCESSED_TIME = "#last_accessed_time";
+	
+	private static final String MAX_INACTIVE_INTERVAL = "#max_inactive_interval";
+	
+	private final RedisExecutor executor;
+	
+	private final String prefix;
+	
+	private final int maxInactiveInterval;
+	
+	/**
+	 * session保存在 blade:session:{id} 中，30分钟不活动过期
+	 */
+	public RedisSessionStore() {
+		this(new RedisExecutor(), "blade:session:", 30 * 60);
+	}
+	
+	/**
+	 * @param executor				redis执行器
+	 * @param prefix				session key的前缀
+	 * @param maxInactiveInterval	session最大不活动时间，单位秒
+	 */
+	public RedisSessionStore(RedisExecutor executor, String prefix, int maxInactiveInterval) {
+		this.executor = executor;
+		this.prefix = prefix;
+		this.maxInactiveInterval = maxInactiveInterval;
+	}
+	
+	@Override
+	public SessionData create() {
+		long now = System.currentTimeMillis();
+		return new RedisSessionData(this, SessionData.newId(), now, now, maxInactiveInterval, true);
+	}
+
+	@Override
+	public SessionData load(String id) {
+		List<String> meta = executor.hashMultipleGet(key(id), CREATION_TIME, LAST_ACCESSED_TIME, MAX_INACTIVE_INTERVAL);
+		if (null == meta || meta.size() < 3 || null == meta.get(0)) {
+			return null;
+		}
+		RedisSessionData session;
+		try {
+			long creationTime = Long.parseLong(meta.get(0));
+			long lastAccessedTime = null != meta.get(1) ? Long.parseLong(meta.get(1)) : creationTime;
+			int interval = null != meta.get(2) ? Integer.parseInt(meta.get(2)) : maxInactiveInterval;
+			session = new RedisSessionData(this, id, creationTime, lastAccessedTime, interval, false);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+		long now = System.currentTimeMillis();
+		if (session.isExpired(now)) {
+			remove(id);
+			return null;
+		}
+		session.access(now);
+		return session;
+	}
+
+	@Override
+	public void save(SessionData session) {
+		RedisSessionData data = (RedisSessionData) session;
+		if (!session.isValid()) {
+			if (!data.deleted) {
+				remove(session.getId());
+				data.deleted = true;
+			}
+			return;
+		}
+		// 同一个请求中已经写回过并且之后没有修改
+		if (data.saved && data.dirty.isEmpty() && data.removed.isEmpty()) {
+			return;
+		}
+		Map<String, byte[]> hash = new HashMap<String, byte[]>();
+		if (data.created && !data.saved) {
+			hash.put(CREATION_TIME, SafeEncoder.encode(String.valueOf(data.getCreationTime())));
+		}
+		hash.put(LAST_ACCESSED_TIME, SafeEncoder.encode(String.valueOf(data.getLastAccessedTime())));
+		hash.put(MAX_INACTIVE_INTERVAL, SafeEncoder.encode(String.valueOf(data.getMaxInactiveInterval())));
+		for (Map.Entry<String, Object> entry : data.dirty.entrySet()) {
+			hash.put(entry.getKey(), SerializeKit.serialize(entry.getValue()));
+		}
+		executor.hashUpdate(key(session.getId()), hash, data.removed, data.getMaxInactiveInterval());
+		data.loaded.putAll(data.dirty);
+		for (String name : data.removed) {
+			data.loaded.put(name, null);
+		}
+		data.dirty.clear();
+		data.removed.clear();
+		data.saved = true;
+	}
+
+	@Override
+	public void remove(String id) {
+		executor.delKey(key(id));
+	}
+	
+	@Override
+	public void close() {
+		// redis连接池由RedisExecutor管理，可能被其他地方共用，这里不关闭
+	}
+	
+	private String key(String id) {
+		return prefix + id;
+	}
+	
+	static class RedisSessionData extends SessionData {
+		
+		private final RedisSessionStore store;
+		
+		// 已经从redis读取的属性，值为null表示redis中没有
+		private final Map<String, Object> loaded = new HashMap<String, Object>();
+		
+		// 本次请求修改过、需要写回的属性
+		private final Map<String, Object> dirty = new HashMap<String, Object>();
+		
+		// 本次请求删除的属性
+		private final Set<String> removed = new HashSet<String>();
+		
+		// 是新创建的session，redis中还没有属性
+		private final boolean created;
+		
+		// 本次请求中已经写回过
+		private boolean saved;
+		
+		private boolean deleted;
+		
+		RedisSessionData(RedisSessionStore store, String id, long creationTime, long lastAccessedTime,
+				int maxInactiveInterval, boolean isNew) {
+			super(id, creationTime, lastAccessedTime, maxInactiveInterval, isNew);
+			this.store = store;
+			this.created = isNew;
+		}
+
+		@Override
+		public Object getAttribute(String name) {
+			if (removed.contains(name)) {
+				return null;
+			}
+			if (dirty.containsKey(name)) {
+				return dirty.get(name);
+			}
+			if (loaded.containsKey(name)) {
+				return loaded.get(name);
+			}
+			if (created || name.startsWith(META_PREFIX)) {
+				return null;
+			}
+			Object value = store.executor.hgetObj(store.key(getId()), name);
+			loaded.put(name, value);
+			return value;
+		}
+
+		@Override
+		public void setAttribute(String name, Object value) {
+			if (null == value) {
+				removeAttribute(name);
+				return;
+			}
+			if (name.startsWith(META_PREFIX)) {
+				throw new IllegalArgumentException("Session attribute name can not start with " + META_PREFIX);
+			}
+			if (!(value instanceof Serializable)) {
+				throw new IllegalArgumentException("Session attribute [" + name + "] is not Serializable");
+			}
+			dirty.put(name, value);
+			removed.remove(name);
+		}
+
+		@Override
+		public void removeAttribute(String name) {
+			dirty.remove(name);
+			loaded.remove(name);
+			// 新创建的session写回之前redis中没有属性，不需要删除
+			if ((!created || saved) && !name.startsWith(META_PREFIX)) {
+				removed.add(name);
+			}
+		}
+
+		@Override
+		public Set<String> getAttributeNames() {
+			Set<String> names = new HashSet<String>();
+			if (!created) {
+				Set<String> fields = store.executor.hashKeys(store.key(getId()));
+				if (null != fields) {
+					for (String field : fields) {
+						if (!field.startsWith(META_PREFIX)) {
+							names.add(field);
+						}
+					}
+				}
+			}
+			for (Map.Entry<String, Object> entry : loaded.entrySet()) {
+				if (null == entry.getValue()) {
+					names.remove(entry.getKey());
+				} else {
+					names.add(entry.getKey());
+				}
+			}
+			names.addAll(dirty.keySet());
+			names.removeAll(removed);
+			return names;
+		}
+	}
+	
+}